@@ -0,0 +1,94 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Canal WebSocket de solo envío: guarda los navegadores conectados y les difunde mensajes JSON.
+ * Cada sesión va envuelta en un decorador que serializa los envíos y corta a los clientes lentos.
+ * Antes de cada envío se vuelve a comprobar la autorización de la sesión, de modo que un usuario
+ * que cierra sesión, se desactiva o pierde el rol deja de recibir mensajes sin esperar a reconectar.
+ */
+public class CanalTiempoReal extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanalTiempoReal.class);
+
+    private static final int LIMITE_TIEMPO_ENVIO_MS = 5000;
+    private static final int LIMITE_BUFFER_BYTES = 256 * 1024;
+
+    private final String nombre;
+    private final Map<String, WebSocketSession> sesiones = new ConcurrentHashMap<>();
+    // Recibe los atributos de la sesión WebSocket (userName, userToken)
+    private volatile Predicate<Map<String, Object>> autorizacion = atributos -> true;
+
+    public CanalTiempoReal(String nombre) {
+        this.nombre = nombre;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sesiones.put(session.getId(),
+                new ConcurrentWebSocketSessionDecorator(session, LIMITE_TIEMPO_ENVIO_MS, LIMITE_BUFFER_BYTES));
+        logger.debug("Canal {}: conectado {} ({} sesiones)", nombre, session.getAttributes().get("userName"), sesiones.size());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sesiones.remove(session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        sesiones.remove(session.getId());
+    }
+
+    public void setAutorizacion(Predicate<Map<String, Object>> autorizacion) {
+        this.autorizacion = autorizacion;
+    }
+
+    public void difundir(String json) {
+        if (sesiones.isEmpty()) {
+            return;
+        }
+        TextMessage mensaje = new TextMessage(json);
+        sesiones.values().forEach(sesion -> {
+            if (!autorizacion.test(sesion.getAttributes())) {
+                logger.debug("Canal {}: {} ya no está autorizado, se cierra la sesión {}",
+                        nombre, sesion.getAttributes().get("userName"), sesion.getId());
+                descartar(sesion, CloseStatus.POLICY_VIOLATION);
+                return;
+            }
+            try {
+                if (sesion.isOpen()) {
+                    sesion.sendMessage(mensaje);
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Canal {}: se descarta la sesión {}: {}", nombre, sesion.getId(), e.getMessage());
+                descartar(sesion, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        });
+    }
+
+    private void descartar(WebSocketSession sesion, CloseStatus estado) {
+        sesiones.remove(sesion.getId());
+        try {
+            sesion.close(estado);
+        } catch (IOException | IllegalStateException ignorada) {
+            // La sesión ya estaba rota
+        }
+    }
+
+    public int getConexiones() {
+        return sesiones.size();
+    }
+}
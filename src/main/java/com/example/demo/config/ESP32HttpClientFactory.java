@@ -0,0 +1,74 @@
+package com.example.demo.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Crea los clientes HTTP de las placas ESP32.
+ * Cada placa recibe su propio HttpClient (y por tanto su propio pool keep-alive HTTP/1.1),
+ * de modo que una puerta lenta no ocupa las conexiones de las demás.
+ * El pool keep-alive del JDK no se configura aquí: sus propiedades (jdk.httpclient.*) son globales
+ * de la JVM y se leen una sola vez, así que solo sirven pasadas con -D al arrancar.
+ */
+@Component
+public class ESP32HttpClientFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ESP32HttpClientFactory.class);
+
+    @Autowired
+    private ESP32Properties properties;
+
+    // Hilos compartidos por todos los clientes (no se expone como bean para no reemplazar el executor de Spring)
+    private ExecutorService esp32HttpExecutor;
+
+    private final AtomicInteger clientesCreados = new AtomicInteger();
+
+    @PostConstruct
+    public void inicializar() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = r -> {
+            Thread hilo = new Thread(r, "esp32-http-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        esp32HttpExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getHilosCliente()), fabrica);
+    }
+
+    public HttpClient crearCliente(String idDispositivo, int timeoutMs) {
+        logger.info("Creando HttpClient para el dispositivo ESP32 '{}' (timeout {} ms)", idDispositivo, timeoutMs);
+        clientesCreados.incrementAndGet();
+
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(esp32HttpExecutor)
+                .build();
+    }
+
+    /**
+     * HttpClient creados desde el arranque: debe coincidir con el número de placas registradas
+     */
+    public int getClientesCreados() {
+        return clientesCreados.get();
+    }
+
+    @PreDestroy
+    public void cerrarExecutor() {
+        if (esp32HttpExecutor != null) {
+            esp32HttpExecutor.shutdown();
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.demo.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,6 +14,20 @@ public class ESP32Properties {
     private String ip = "192.168.156.223";  // ISKRA_Ext: 192.168.1.21
     private int port = 80;              // Valor por defecto
     private int timeout = 5000;         // Valor por defecto
+    private int hilosCliente = 2;       // Hilos del HttpClient compartido
+
+    // Cola de comandos por placa (la placa atiende un comando a la vez)
+    private int maxCola = 20;                      // Comandos en espera antes de rechazar
+    private int ventanaCoalescenciaMs = 1500;      // Peticiones iguales dentro de la ventana comparten resultado
+    private List<String> comandosCoalescibles = new ArrayList<>(List.of("ABRIR_PUERTA"));
+
+    // Circuit breaker por placa y monitor de salud (ruta HTTP sondeada y cadencia)
+    private Circuito circuito = new Circuito();
+    private Salud salud = new Salud();
+
+    // Registro de placas (esp32.dispositivos.<id>.ip=...). Si está vacío se usa ip/port como única placa
+    private Map<String, Dispositivo> dispositivos = new LinkedHashMap<>();
+    private String dispositivoPorDefecto = "principal";
 
     // Getters y Setters
     public String getIp() {
@@ -35,10 +54,174 @@ public class ESP32Properties {
         this.timeout = timeout;
     }
 
+    public int getHilosCliente() {
+        return hilosCliente;
+    }
+
+    public void setHilosCliente(int hilosCliente) {
+        this.hilosCliente = hilosCliente;
+    }
+
+    public int getMaxCola() {
+        return maxCola;
+    }
+
+    public void setMaxCola(int maxCola) {
+        this.maxCola = maxCola;
+    }
+
+    public int getVentanaCoalescenciaMs() {
+        return ventanaCoalescenciaMs;
+    }
+
+    public void setVentanaCoalescenciaMs(int ventanaCoalescenciaMs) {
+        this.ventanaCoalescenciaMs = ventanaCoalescenciaMs;
+    }
+
+    public List<String> getComandosCoalescibles() {
+        return comandosCoalescibles;
+    }
+
+    public void setComandosCoalescibles(List<String> comandosCoalescibles) {
+        this.comandosCoalescibles = comandosCoalescibles;
+    }
+
+    public Circuito getCircuito() {
+        return circuito;
+    }
+
+    public void setCircuito(Circuito circuito) {
+        this.circuito = circuito;
+    }
+
+    public Salud getSalud() {
+        return salud;
+    }
+
+    public void setSalud(Salud salud) {
+        this.salud = salud;
+    }
+
+    public Map<String, Dispositivo> getDispositivos() {
+        return dispositivos;
+    }
+
+    public void setDispositivos(Map<String, Dispositivo> dispositivos) {
+        this.dispositivos = dispositivos;
+    }
+
+    public String getDispositivoPorDefecto() {
+        return dispositivoPorDefecto;
+    }
+
+    public void setDispositivoPorDefecto(String dispositivoPorDefecto) {
+        this.dispositivoPorDefecto = dispositivoPorDefecto;
+    }
+
     @Override
     public String toString() {
-        return String.format("ESP32Properties{ip='%s', port=%d, timeout=%d}", 
-                            ip, port, timeout);
+        return String.format("ESP32Properties{ip='%s', port=%d, timeout=%d, dispositivos=%s}", 
+                            ip, port, timeout, dispositivos.keySet());
+    }
+
+    /**
+     * Umbrales del circuit breaker (esp32.circuito.*)
+     */
+    public static class Circuito {
+        private int umbralFallos = 3;          // Fallos seguidos para abrir el circuito
+        private int tiempoAbiertoMs = 15000;   // Tiempo rechazando antes de permitir una prueba
+
+        public int getUmbralFallos() {
+            return umbralFallos;
+        }
+
+        public void setUmbralFallos(int umbralFallos) {
+            this.umbralFallos = umbralFallos;
+        }
+
+        public int getTiempoAbiertoMs() {
+            return tiempoAbiertoMs;
+        }
+
+        public void setTiempoAbiertoMs(int tiempoAbiertoMs) {
+            this.tiempoAbiertoMs = tiempoAbiertoMs;
+        }
+
+    }
+
+    /**
+     * Monitor de salud (esp32.salud.*)
+     */
+    public static class Salud {
+        private int intervaloMs = 10000;   // Cadencia de sondeo de cada placa
+        private String ruta = "/";         // Ruta HTTP que se sondea
+
+        public int getIntervaloMs() {
+            return intervaloMs;
+        }
+
+        public void setIntervaloMs(int intervaloMs) {
+            this.intervaloMs = intervaloMs;
+        }
+
+        public String getRuta() {
+            return ruta;
+        }
+
+        public void setRuta(String ruta) {
+            this.ruta = ruta;
+        }
+    }
+
+    /**
+     * Configuración de una placa concreta. Los valores en 0 heredan los globales.
+     */
+    public static class Dispositivo {
+        private String nombre;
+        private String ip;
+        private int port = 80;
+        private int timeout = 0;
+        private List<String> capacidades = new ArrayList<>();  // Vacío = acepta cualquier comando
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getIp() {
+            return ip;
+        }
+
+        public void setIp(String ip) {
+            this.ip = ip;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+
+        public List<String> getCapacidades() {
+            return capacidades;
+        }
+
+        public void setCapacidades(List<String> capacidades) {
+            this.capacidades = capacidades;
+        }
     }
 
 }
@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.servicio.AutenticacionService;
+
+/**
+ * Resuelve una sola vez por petición el userToken de la sesión en un PrincipalSesion y lo deja en el
+ * SecurityContext (los controladores lo reciben con @AuthenticationPrincipal). Sin token válido el
+ * contexto queda vacío, aunque la sesión conserve el contexto guardado en el login: así un logout,
+ * una desactivación o un cambio de rol se aplican en la siguiente petición. El token queda como
+ * credencial de la autenticación para las vistas que lo muestran.
+ * No es un @Component para que Spring Boot no lo registre además como filtro de servlet.
+ */
+public class FiltroAutenticacionSesion extends OncePerRequestFilter {
+
+    private final AutenticacionService autenticacionService;
+
+    public FiltroAutenticacionSesion(AutenticacionService autenticacionService) {
+        this.autenticacionService = autenticacionService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        String userToken = session != null ? (String) session.getAttribute("userToken") : null;
+        Optional<PrincipalSesion> principal = userToken != null
+                ? autenticacionService.obtenerPrincipal(userToken) : Optional.empty();
+
+        // Contexto nuevo sólo para esta petición: no se guarda en la sesión
+        SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+        principal.ifPresent(p -> contexto.setAuthentication(new UsernamePasswordAuthenticationToken(p, userToken,
+                p.getRol() != null ? List.of(new SimpleGrantedAuthority("ROLE_" + p.getRol())) : List.of())));
+        SecurityContextHolder.setContext(contexto);
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.models.entity.CategoriaAccion;
+
+/**
+ * Relleno único de log_acceso.categoria para los logs escritos antes de existir la columna.
+ * Se hace al arrancar, antes de que EstadisticasLogsServiceImpl y ActividadLogsServiceImpl
+ * reconstruyan sus contadores (dependen de este bean), porque esas reconstrucciones cuentan
+ * aperturas y logins por categoría. Va por tramos de id_log (usa la clave primaria) para no mantener
+ * una transacción larga; los logs nuevos ya llegan con la categoría puesta.
+ * Depende de entityManagerFactory para que ddl-auto ya haya creado la columna.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class RellenoCategoriaLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(RellenoCategoriaLogs.class);
+
+    private static final long TAMANO_TRAMO = 20000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void rellenar() {
+        try {
+            Long pendiente = jdbcTemplate.queryForObject(
+                "SELECT MIN(id_log) FROM log_acceso WHERE categoria IS NULL", Long.class);
+            if (pendiente == null) {
+                return;
+            }
+            Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id_log) FROM log_acceso", Long.class);
+            logger.info("Rellenando la categoría de los logs antiguos (ids {} a {})", pendiente, maximo);
+
+            long actualizados = 0;
+            for (long desde = pendiente; desde <= maximo; desde += TAMANO_TRAMO) {
+                actualizados += jdbcTemplate.update(
+                    "UPDATE log_acceso SET categoria = " + CategoriaAccion.EXPRESION_SQL +
+                    " WHERE id_log >= ? AND id_log < ? AND categoria IS NULL",
+                    desde, desde + TAMANO_TRAMO);
+            }
+            logger.info("Categoría rellenada en {} logs", actualizados);
+        } catch (Exception e) {
+            logger.error("Error rellenando la categoría de los logs: {}", e.getMessage());
+        }
+    }
+}
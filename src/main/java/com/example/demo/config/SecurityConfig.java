@@ -1,24 +1,42 @@
 package com.example.demo.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+
+import com.example.demo.models.servicio.AutenticacionService;
 
 @Configuration
 public class SecurityConfig {
+
+    @Autowired
+    private AutenticacionService autenticacionService;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
+            // El token de la sesión se valida aquí una vez; los controladores usan @AuthenticationPrincipal
+            .addFilterAfter(new FiltroAutenticacionSesion(autenticacionService), SecurityContextHolderFilter.class)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/login", "/registro", "/admin/desbloquear-ip").permitAll()
                 .requestMatchers("/admin/**", "/api/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
+            .exceptionHandling(ex -> ex.authenticationEntryPoint((request, response, e) -> {
+                // Sin sesión válida: las páginas vuelven al login y las APIs responden 401
+                if (request.getRequestURI().contains("/api/")) {
+                    response.sendError(401);
+                } else {
+                    response.sendRedirect(request.getContextPath() + "/login");
+                }
+            }))
             .formLogin(form -> form.disable())
             .logout(logout -> logout.disable());
 
         return http.build();
     }
-}
\ No newline at end of file
+}
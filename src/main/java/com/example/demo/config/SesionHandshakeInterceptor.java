@@ -0,0 +1,67 @@
+package com.example.demo.config;
+
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpSession;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.HttpSessionHandshakeInterceptor;
+
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.servicio.AutenticacionService;
+
+/**
+ * Solo deja abrir el WebSocket a sesiones con token válido (y rol ADMIN si se pide).
+ * Copia userName/userToken de la sesión HTTP a los atributos de la sesión WebSocket, para que
+ * el canal vuelva a comprobar el token con sigueAutorizada antes de cada envío.
+ */
+public class SesionHandshakeInterceptor extends HttpSessionHandshakeInterceptor {
+
+    private final AutenticacionService autenticacionService;
+    private final boolean soloAdmin;
+
+    public SesionHandshakeInterceptor(AutenticacionService autenticacionService, boolean soloAdmin) {
+        super(java.util.List.of("userName", "userToken"));
+        this.autenticacionService = autenticacionService;
+        this.soloAdmin = soloAdmin;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return false;
+        }
+        HttpSession session = servletRequest.getServletRequest().getSession(false);
+        if (session == null || !sesionValida(session)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        return super.beforeHandshake(request, response, wsHandler, attributes);
+    }
+
+    /**
+     * Comprobación de una sesión WebSocket ya abierta: falla si el token se cerró o se revocó, o si
+     * el usuario dejó de ser ADMIN (invalidarSesionesUsuario descarta su principal de la caché)
+     */
+    public boolean sigueAutorizada(Map<String, Object> atributos) {
+        return autorizado((String) atributos.get("userName"), (String) atributos.get("userToken"));
+    }
+
+    private boolean sesionValida(HttpSession session) {
+        return autorizado((String) session.getAttribute("userName"), (String) session.getAttribute("userToken"));
+    }
+
+    private boolean autorizado(String userName, String userToken) {
+        if (userName == null || userToken == null) {
+            return false;
+        }
+        Optional<PrincipalSesion> principal = autenticacionService.obtenerPrincipal(userToken);
+        return principal.isPresent() && (!soloAdmin || principal.get().esAdmin());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.config;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.models.entity.CategoriaAccion;
+
+/**
+ * Al arrancar ejecuta EXPLAIN sobre el SQL equivalente a las consultas más usadas de LogAccesoDao
+ * e informa de las que recorren log_acceso (o alguna de sus particiones) con Seq Scan.
+ * Con pocas filas el planificador prefiere siempre el recorrido secuencial, así que sólo se avisa
+ * de relaciones con al menos logs.verificar-planes.filas-minimas filas estimadas.
+ */
+@Component
+public class VerificadorPlanesLogs implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificadorPlanesLogs.class);
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (log_acceso\\w*)");
+
+    // Mismas condiciones que TRAS_CURSOR + ORDEN_KEYSET en LogAccesoDao, para la primera página
+    private static final String KEYSET =
+        " fecha_hora <= '9999-12-31 23:59:59' AND (fecha_hora < '9999-12-31 23:59:59' OR id_log < " + Long.MAX_VALUE + ")" +
+        " ORDER BY fecha_hora DESC, id_log DESC LIMIT 51";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${logs.verificar-planes.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${logs.verificar-planes.filas-minimas:10000}")
+    private long filasMinimas;
+
+    @Override
+    public void run(String... args) {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            verificar();
+        } catch (Exception e) {
+            logger.warn("No se pudieron verificar los planes de log_acceso: {}", e.getMessage());
+        }
+    }
+
+    private void verificar() {
+        Map<String, Long> filasEstimadas = estimarFilas();
+        long total = filasEstimadas.values().stream().mapToLong(Long::longValue).sum();
+        if (total < filasMinimas) {
+            logger.info("log_acceso tiene ~{} filas: verificación de planes omitida", total);
+            return;
+        }
+
+        List<String> secuenciales = new ArrayList<>();
+        for (Map.Entry<String, String> consulta : consultas().entrySet()) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + consulta.getValue(), String.class));
+            Matcher matcher = SEQ_SCAN.matcher(plan);
+            while (matcher.find()) {
+                String relacion = matcher.group(1);
+                if (filasEstimadas.getOrDefault(relacion, 0L) >= filasMinimas) {
+                    secuenciales.add(consulta.getKey() + " (" + relacion + ")");
+                }
+            }
+        }
+
+        if (secuenciales.isEmpty()) {
+            logger.info("Consultas de log_acceso verificadas: todas usan índices");
+        } else {
+            logger.warn("Consultas de log_acceso con Seq Scan: {}", String.join(", ", secuenciales));
+        }
+    }
+
+    /**
+     * Filas estimadas por relación (la tabla y, si está particionada, cada partición)
+     */
+    private Map<String, Long> estimarFilas() {
+        Map<String, Long> filas = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT c.relname, GREATEST(c.reltuples, 0)::bigint FROM pg_class c " +
+            "WHERE c.relname = 'log_acceso' " +
+            "OR c.oid IN (SELECT i.inhrelid FROM pg_inherits i WHERE i.inhparent = 'log_acceso'::regclass)",
+            rs -> {
+                filas.put(rs.getString(1), rs.getLong(2));
+            });
+        return filas;
+    }
+
+    private Map<String, String> consultas() {
+        // Valores reales para que los planes reflejen la selectividad de los datos
+        Map<String, Object> muestra = jdbcTemplate.queryForMap(
+            "SELECT user_name, direccion_ip, accion, tipo_accion FROM log_acceso ORDER BY fecha_hora DESC, id_log DESC LIMIT 1");
+        String usuario = literal(muestra.get("user_name"));
+        String hoy = literal(LocalDateTime.now().toLocalDate().atStartOfDay().toString().replace('T', ' '));
+        String semana = literal(LocalDateTime.now().minusDays(7).withNano(0).toString().replace('T', ' '));
+
+        Map<String, String> consultas = new LinkedHashMap<>();
+        consultas.put("paginaTodos", "SELECT * FROM log_acceso WHERE" + KEYSET);
+        consultas.put("paginaPorUsuario", "SELECT * FROM log_acceso WHERE user_name = " + usuario + " AND" + KEYSET);
+        consultas.put("paginaPorResultado", "SELECT * FROM log_acceso WHERE resultado = 'ERROR' AND" + KEYSET);
+        consultas.put("paginaPorTipoAccion", "SELECT * FROM log_acceso WHERE tipo_accion = " + literal(muestra.get("tipo_accion")) + " AND" + KEYSET);
+        consultas.put("paginaPorAccion", "SELECT * FROM log_acceso WHERE accion = " + literal(muestra.get("accion")) + " AND" + KEYSET);
+        consultas.put("paginaPorIp", "SELECT * FROM log_acceso WHERE direccion_ip = " + literal(muestra.get("direccion_ip")) + " AND" + KEYSET);
+        consultas.put("paginaAperturaPuerta",
+            "SELECT * FROM log_acceso WHERE categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ") AND" + KEYSET);
+        consultas.put("paginaEntreFechas", "SELECT * FROM log_acceso WHERE fecha_hora >= " + semana + " AND" + KEYSET);
+        consultas.put("paginaPorResultadoDesde",
+            "SELECT * FROM log_acceso WHERE resultado = 'ERROR' AND fecha_hora >= " + semana + " AND" + KEYSET);
+        consultas.put("countAperturasUsuarioHoy",
+            "SELECT COUNT(*) FROM log_acceso WHERE user_name = " + usuario + " AND categoria = " + CategoriaAccion.CODIGO_ABRIR +
+            " AND fecha_hora >= " + hoy);
+        return consultas;
+    }
+
+    private static String literal(Object valor) {
+        return valor == null ? "''" : "'" + valor.toString().replace("'", "''") + "'";
+    }
+}
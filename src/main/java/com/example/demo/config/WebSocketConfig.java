@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.example.demo.models.servicio.AutenticacionService;
+import com.example.demo.models.servicioImpl.NotificadorServiceImpl;
+
+/**
+ * Canales de tiempo real:
+ * /ws/estado → estado de las placas y eventos de puerta (usuarios autenticados)
+ * /ws/logs   → nuevos registros de log_acceso (solo administradores)
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private NotificadorServiceImpl notificador;
+
+    @Autowired
+    private AutenticacionService autenticacionService;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registrar(registry, notificador.getCanalEstado(), "/ws/estado", false);
+        registrar(registry, notificador.getCanalLogs(), "/ws/logs", true);
+    }
+
+    private void registrar(WebSocketHandlerRegistry registry, CanalTiempoReal canal, String ruta, boolean soloAdmin) {
+        SesionHandshakeInterceptor interceptor = new SesionHandshakeInterceptor(autenticacionService, soloAdmin);
+        // La misma comprobación del handshake se repite antes de cada envío
+        canal.setAutorizacion(interceptor::sigueAutorizada);
+        registry.addHandler(canal, ruta).addInterceptors(interceptor);
+    }
+}
@@ -4,15 +4,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import com.example.demo.models.dto.MetricasUsuarios;
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.dto.UsuarioResumen;
 import com.example.demo.models.entity.Usuario;
 import com.example.demo.models.servicio.AutenticacionService;
+import com.example.demo.models.servicio.MetricasUsuariosService;
 import com.example.demo.models.servicioImpl.SecurityService;
 import com.example.demo.models.dao.UsuarioDao;
 
 import java.util.ArrayList;
 import java.util.List;
-import jakarta.servlet.http.HttpSession;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -27,51 +31,37 @@ public class AdminController {
     @Autowired
     private UsuarioDao usuarioDao;
 
+    @Autowired
+    private MetricasUsuariosService metricasUsuariosService;
+
 @Autowired
     private SecurityService securityService;
 
     @GetMapping("/admin/desbloquear-ip")
-    public String mostrarVistaDesbloquearIp(HttpSession session, Model model) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-
-        if (userName == null || userToken == null) {
+    public String mostrarVistaDesbloquearIp(@AuthenticationPrincipal PrincipalSesion principal, Model model) {
+        if (principal == null) {
             return "redirect:/login";
         }
+        if (!principal.esAdmin()) {
+            return "redirect:/control";
+        }
 
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
         if (usuarioOpt.isEmpty()) {
-            session.invalidate();
             return "redirect:/login";
         }
 
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        if (!isAdmin) {
-            return "redirect:/control";
-        }
-
-        model.addAttribute("usuario", usuario);
+        model.addAttribute("usuario", usuarioOpt.get());
         return "desbloquear-ip";
     }
 
     @GetMapping("/api/admin/bloqueadas")
     @ResponseBody
-    public ResponseEntity<?> obtenerIpsBloqueadas(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-
-        if (userName == null || userToken == null) {
+    public ResponseEntity<?> obtenerIpsBloqueadas(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).body("No autenticado");
         }
-
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            return ResponseEntity.status(401).body("Token inválido");
-        }
-
-        Usuario usuario = usuarioOpt.get();
-        if (usuario.getRol() == null || !"ADMIN".equals(usuario.getRol().getNombre())) {
+        if (!principal.esAdmin()) {
             return ResponseEntity.status(403).body("Acceso denegado");
         }
 
@@ -79,26 +69,21 @@ public class AdminController {
     }
 
     @GetMapping("/dashboard")
-    public String mostrarDashboard(Model model, HttpSession session, 
+    public String mostrarDashboard(Model model, @AuthenticationPrincipal PrincipalSesion principal,
                                  @RequestParam(required = false) String mensaje) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-
-        if (userName == null || userToken == null) {
+        if (principal == null) {
             return "redirect:/login";
         }
 
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
         if (usuarioOpt.isEmpty()) {
-            session.invalidate();
             return "redirect:/login";
         }
 
-        Usuario usuario = usuarioOpt.get();
-        model.addAttribute("usuario", usuario);
-        model.addAttribute("token", userToken);
+        String userName = principal.getUserName();
+        model.addAttribute("usuario", usuarioOpt.get());
 
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
+        boolean isAdmin = principal.esAdmin();
         model.addAttribute("isAdmin", isAdmin);
 
         // Agregar mensaje si viene de la creación de usuario
@@ -108,30 +93,15 @@ public class AdminController {
 
         if (isAdmin) {
             try {
-                // Obtener usuarios con eager fetching para evitar LazyInitializationException
-                List<Usuario> listaUsuarios = usuarioDao.findAll();
-                
-                // Forzar la carga de las relaciones para evitar lazy loading issues
-                for (Usuario u : listaUsuarios) {
-                    // Acceder a las propiedades para forzar la carga
-                    if (u.getRol() != null) {
-                        u.getRol().getNombre(); // Forzar carga del rol
-                    }
-                    if (u.getPersona() != null) {
-                        u.getPersona().getNombre(); // Forzar carga de persona
-                    }
-                }
-                
+                // Una sola consulta con rol y persona unidos (antes findAll + carga perezosa por usuario)
+                List<UsuarioResumen> listaUsuarios = usuarioDao.findResumenes();
                 model.addAttribute("usuarios", listaUsuarios);
 
-                // Calcular estadísticas
-                long totalUsuarios = listaUsuarios.size();
-                long usuariosActivos = listaUsuarios.stream()
-                        .filter(u -> "ACTIVO".equals(u.getEstado()))
-                        .count();
-                long usuariosConToken = listaUsuarios.stream()
-                        .filter(u -> u.getToken() != null)
-                        .count();
+                // Contadores de una consulta agregada en caché (no dependen de recorrer la lista)
+                MetricasUsuarios metricas = metricasUsuariosService.obtener();
+                long totalUsuarios = metricas.getTotal();
+                long usuariosActivos = metricas.getActivos();
+                long usuariosConToken = metricas.getConectados();
 
                 model.addAttribute("totalUsuarios", totalUsuarios);
                 model.addAttribute("usuariosActivos", usuariosActivos);
@@ -141,12 +111,6 @@ public class AdminController {
                 System.out.println("📊 Total usuarios: " + totalUsuarios +
                         ", Activos: " + usuariosActivos +
                         ", Conectados: " + usuariosConToken);
-                System.out.println("📋 Lista de usuarios:");
-                for (Usuario u : listaUsuarios) {
-                    System.out.println("  - " + u.getUser_name() + " | Estado: " + u.getEstado() + 
-                                     " | Rol: " + (u.getRol() != null ? u.getRol().getNombre() : "NULL"));
-                }
-
             } catch (Exception e) {
                 System.out.println("❌ Error cargando usuarios: " + e.getMessage());
                 e.printStackTrace();
@@ -164,28 +128,21 @@ public class AdminController {
      * Mostrar formulario para crear nuevo usuario
      */
     @GetMapping("/admin/crear-usuario")
-    public String mostrarFormularioCrearUsuario(Model model, HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-
-        if (userName == null || userToken == null) {
+    public String mostrarFormularioCrearUsuario(Model model, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return "redirect:/login";
         }
+        if (!principal.esAdmin()) {
+            return "redirect:/dashboard";
+        }
 
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
         if (usuarioOpt.isEmpty()) {
-            session.invalidate();
             return "redirect:/login";
         }
 
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
-            return "redirect:/dashboard";
-        }
-
-        model.addAttribute("usuario", usuario);
+        String userName = principal.getUserName();
+        model.addAttribute("usuario", usuarioOpt.get());
         System.out.println("📝 Admin " + userName + " accedió al formulario de creación de usuario");
         
         return "admin-crear-usuario";
@@ -202,30 +159,23 @@ public class AdminController {
                                      @RequestParam String user_name,
                                      @RequestParam String clave,
                                      Model model,
-                                     HttpSession session) {
+                                     @AuthenticationPrincipal PrincipalSesion principal) {
         
-        String adminUser = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-
         // Verificar autenticación y permisos
-        if (adminUser == null || userToken == null) {
+        if (principal == null) {
             return "redirect:/login";
         }
+        if (!principal.esAdmin()) {
+            return "redirect:/dashboard";
+        }
 
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
         if (usuarioOpt.isEmpty()) {
-            session.invalidate();
             return "redirect:/login";
         }
 
-        Usuario adminUsuario = usuarioOpt.get();
-        boolean isAdmin = adminUsuario.getRol() != null && "ADMIN".equals(adminUsuario.getRol().getNombre());
-        
-        if (!isAdmin) {
-            return "redirect:/dashboard";
-        }
-
-        model.addAttribute("usuario", adminUsuario);
+        String adminUser = principal.getUserName();
+        model.addAttribute("usuario", usuarioOpt.get());
 
         try {
             System.out.println("👥 Admin " + adminUser + " iniciando creación de usuario completo:");
@@ -330,14 +280,14 @@ public class AdminController {
      */
     @GetMapping("/api/admin/users")
     @ResponseBody
-    public ResponseEntity<?> obtenerTodosLosUsuarios(HttpSession session) {
+    public ResponseEntity<?> obtenerTodosLosUsuarios(@AuthenticationPrincipal PrincipalSesion principal) {
         // Verificar autenticación y permisos de administrador
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado - Se requieren permisos de administrador");
         }
         
         try {
-            List<Usuario> usuarios = usuarioDao.findAll();
+            List<Usuario> usuarios = usuarioDao.findAllConRolYPersona();
             System.out.println("📊 Admin consultó lista de usuarios: " + usuarios.size() + " usuarios encontrados");
             
             return ResponseEntity.ok(usuarios);
@@ -354,20 +304,24 @@ public class AdminController {
      */
     @GetMapping("/api/admin/stats")
     @ResponseBody
-    public ResponseEntity<?> obtenerEstadisticas(HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> obtenerEstadisticas(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            long totalUsuarios = usuarioDao.count();
-            long usuariosActivos = usuarioDao.countByEstado("ACTIVO");
-            long usuariosConToken = usuarioDao.countByTokenIsNotNull();
+            MetricasUsuarios metricas = metricasUsuariosService.obtener();
+            long totalUsuarios = metricas.getTotal();
+            long usuariosActivos = metricas.getActivos();
+            long usuariosConToken = metricas.getConectados();
             
             Map<String, Object> stats = new HashMap<>();
             stats.put("totalUsuarios", totalUsuarios);
             stats.put("usuariosActivos", usuariosActivos);
             stats.put("usuariosConectados", usuariosConToken);
+            stats.put("usuariosInactivos", metricas.getInactivos());
+            stats.put("administradores", metricas.getAdministradores());
+            stats.put("calculadoEn", metricas.getCalculadoEn());
             stats.put("fechaConsulta", LocalDate.now());
             
             System.out.println("📈 Estadísticas consultadas - Total: " + totalUsuarios + 
@@ -387,8 +341,8 @@ public class AdminController {
      */
     @GetMapping("/api/admin/users/{userId}")
     @ResponseBody
-    public ResponseEntity<?> obtenerDetallesUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> obtenerDetallesUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -416,8 +370,8 @@ public class AdminController {
      */
     @PostMapping("/api/admin/users/{userId}/regenerate-token")
     @ResponseBody
-    public ResponseEntity<?> regenerarTokenUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> regenerarTokenUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -429,7 +383,7 @@ public class AdminController {
             }
             
             Usuario usuario = usuarioOpt.get();
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             // Regenerar token
             String nuevoToken = autenticacionService.generarTokenParaUsuario(usuario);
@@ -456,8 +410,8 @@ public class AdminController {
      */
     @PostMapping("/api/admin/users/{userId}/deactivate")
     @ResponseBody
-    public ResponseEntity<?> desactivarUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> desactivarUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -469,7 +423,7 @@ public class AdminController {
             }
             
             Usuario usuario = usuarioOpt.get();
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             // No permitir que el admin se desactive a sí mismo
             if (usuario.getUser_name().equals(adminUser)) {
@@ -482,6 +436,7 @@ public class AdminController {
             usuario.setToken(null);
             usuario.setFechaModificacion(LocalDate.now());
             usuarioDao.save(usuario);
+            autenticacionService.invalidarSesionesUsuario(usuario.getUser_name());
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Usuario desactivado exitosamente");
@@ -504,8 +459,8 @@ public class AdminController {
      */
     @PostMapping("/api/admin/users/{userId}/activate")
     @ResponseBody
-    public ResponseEntity<?> activarUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> activarUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -517,12 +472,13 @@ public class AdminController {
             }
             
             Usuario usuario = usuarioOpt.get();
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             // Activar usuario
             usuario.setEstado("ACTIVO");
             usuario.setFechaModificacion(LocalDate.now());
             usuarioDao.save(usuario);
+            autenticacionService.invalidarSesionesUsuario(usuario.getUser_name());
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Usuario activado exitosamente");
@@ -545,8 +501,8 @@ public class AdminController {
      */
     @PostMapping("/api/admin/users/{userId}/test-connection")
     @ResponseBody
-    public ResponseEntity<?> testConexionUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> testConexionUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -558,7 +514,7 @@ public class AdminController {
             }
             
             Usuario usuario = usuarioOpt.get();
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             // Simular test de conexión
             boolean isConnected = usuario.getToken() != null && "ACTIVO".equals(usuario.getEstado());
@@ -593,8 +549,8 @@ public class AdminController {
      */
     @GetMapping("/api/admin/users/search")
     @ResponseBody
-    public ResponseEntity<?> buscarUsuarios(@RequestParam String query, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> buscarUsuarios(@RequestParam String query, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -617,15 +573,15 @@ public class AdminController {
      */
     @PostMapping("/api/admin/users/create")
     @ResponseBody
-    public ResponseEntity<?> crearUsuario(@RequestBody Map<String, String> userData, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> crearUsuario(@RequestBody Map<String, String> userData, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
             String userName = userData.get("user_name");
             String clave = userData.get("clave");
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             if (userName == null || clave == null || userName.trim().isEmpty() || clave.length() < 6) {
                 return ResponseEntity.badRequest()
@@ -662,8 +618,8 @@ public class AdminController {
      */
     @GetMapping("/api/admin/activity-logs")
     @ResponseBody
-    public ResponseEntity<?> obtenerLogsActividad(HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> obtenerLogsActividad(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -673,7 +629,7 @@ public class AdminController {
             Map<String, Object> logs = new HashMap<>();
             logs.put("mensaje", "Sistema de logs en desarrollo");
             logs.put("ultimaActividad", LocalDate.now());
-            logs.put("consultadoPor", session.getAttribute("userName"));
+            logs.put("consultadoPor", principal.getUserName());
             
             return ResponseEntity.ok(logs);
             
@@ -684,41 +640,14 @@ public class AdminController {
         }
     }
 
-    /**
-     * Método auxiliar para verificar si el usuario actual es administrador autenticado
-     */
-    private boolean isAdminAuthenticated(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
-            System.out.println("❌ Acceso denegado - Sin sesión válida");
-            return false;
-        }
-        
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            System.out.println("❌ Acceso denegado - Token inválido para: " + userName);
-            return false;
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
-            System.out.println("❌ Acceso denegado - Usuario " + userName + " no es administrador");
-        }
-        
-        return isAdmin;
-    }
 
     /**
      * Endpoint para promover un usuario a administrador (solo super-admin)
      */
     @PostMapping("/api/admin/users/{userId}/promote")
     @ResponseBody
-    public ResponseEntity<?> promoverUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> promoverUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -730,7 +659,7 @@ public class AdminController {
             }
             
             Usuario usuario = usuarioOpt.get();
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             // Buscar rol de administrador
             Optional<com.example.demo.models.entity.Rol> rolAdminOpt = 
@@ -745,6 +674,7 @@ public class AdminController {
             usuario.setRol(rolAdminOpt.get());
             usuario.setFechaModificacion(LocalDate.now());
             usuarioDao.save(usuario);
+            autenticacionService.invalidarSesionesUsuario(usuario.getUser_name());
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Usuario promovido a administrador");
@@ -769,8 +699,8 @@ public class AdminController {
      */
     @PostMapping("/api/admin/users/{userId}/demote")
     @ResponseBody
-    public ResponseEntity<?> degradarUsuario(@PathVariable Long userId, HttpSession session) {
-        if (!isAdminAuthenticated(session)) {
+    public ResponseEntity<?> degradarUsuario(@PathVariable Long userId, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
@@ -782,7 +712,7 @@ public class AdminController {
             }
             
             Usuario usuario = usuarioOpt.get();
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             
             // No permitir que el admin se degrade a sí mismo
             if (usuario.getUser_name().equals(adminUser)) {
@@ -803,6 +733,7 @@ public class AdminController {
             usuario.setRol(rolUsuarioOpt.get());
             usuario.setFechaModificacion(LocalDate.now());
             usuarioDao.save(usuario);
+            autenticacionService.invalidarSesionesUsuario(usuario.getUser_name());
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Administrador degradado a usuario regular");
@@ -25,7 +25,7 @@ public class DebugController {
     
     @GetMapping("/usuarios")
     public List<Usuario> listarUsuarios() {
-        return usuarioDao.findAll();
+        return usuarioDao.findAllConRolYPersona();
     }
     
     @GetMapping("/roles")
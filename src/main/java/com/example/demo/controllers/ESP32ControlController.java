@@ -4,7 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import com.example.demo.models.dao.UsuarioDao;
+import com.example.demo.models.dto.PrincipalSesion;
 import com.example.demo.models.entity.Usuario;
 import com.example.demo.models.servicio.AutenticacionService;
 import com.example.demo.models.servicio.ESP32Service;
@@ -25,25 +28,23 @@ public class ESP32ControlController {
     @Autowired
     private ESP32Service esp32Service;
 
+    @Autowired
+    private UsuarioDao usuarioDao;
+
     /**
      * Mostrar la vista de control del ESP32
      */
     @GetMapping("")
-    public String mostrarControl(Model model, HttpSession session) {
-        // Verificar si hay un usuario en sesión
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+    public String mostrarControl(Model model, @AuthenticationPrincipal PrincipalSesion principal) {
+        // El filtro de autenticación ya validó el token de la sesión
+        if (principal == null) {
             System.out.println("❌ No hay sesión activa, redirigiendo a login");
             return "redirect:/login";
         }
         
-        // Validar token
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
         if (usuarioOpt.isEmpty()) {
-            System.out.println("❌ Token inválido, redirigiendo a login");
-            session.invalidate();
+            System.out.println("❌ Usuario de la sesión no encontrado, redirigiendo a login");
             return "redirect:/login";
         }
         
@@ -52,7 +53,6 @@ public class ESP32ControlController {
         
         // Agregar datos al modelo
         model.addAttribute("usuario", usuario);
-        model.addAttribute("token", userToken);
         
         return "esp32-control";
     }
@@ -62,15 +62,12 @@ public class ESP32ControlController {
      */
     @GetMapping("/api/user/current")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> obtenerUsuarioActual(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+    public ResponseEntity<Map<String, Object>> obtenerUsuarioActual(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
         
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
         if (usuarioOpt.isEmpty()) {
             return ResponseEntity.status(401).build();
         }
@@ -98,9 +95,9 @@ public class ESP32ControlController {
      */
     @GetMapping("/api/system/status")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> obtenerEstadoSistema(HttpSession session) {
+    public ResponseEntity<Map<String, Object>> obtenerEstadoSistema(@AuthenticationPrincipal PrincipalSesion principal) {
         // Verificar autenticación
-        if (!isAuthenticated(session)) {
+        if (principal == null) {
             return ResponseEntity.status(401).build();
         }
         
@@ -109,8 +106,11 @@ public class ESP32ControlController {
         try {
             // Estado del ESP32
             String esp32Status = esp32Service.obtenerEstadoConexion();
-            systemStatus.put("esp32Connected", esp32Status.contains("conectado"));
+            Map<String, Object> salud = esp32Service.obtenerEstadoSalud(null);
+            systemStatus.put("esp32Connected", Boolean.TRUE.equals(salud.get("conectado")));
             systemStatus.put("esp32Status", esp32Status);
+            systemStatus.put("esp32LatencyMs", salud.get("latenciaMs"));
+            systemStatus.put("esp32UptimeSeconds", salud.get("uptimeSegundos"));
             
             // Estado de la red
             systemStatus.put("networkStatus", "WiFi Activo");
@@ -148,18 +148,4 @@ public class ESP32ControlController {
         return "redirect:/login";
     }
 
-    /**
-     * Método auxiliar para verificar autenticación
-     */
-    private boolean isAuthenticated(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
-            return false;
-        }
-        
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        return usuarioOpt.isPresent();
-    }
 }
\ No newline at end of file
@@ -2,28 +2,33 @@ package com.example.demo.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.models.servicio.ESP32Service;
-import com.example.demo.models.servicio.AutenticacionService;
+import com.example.demo.models.servicio.EscritorLogs;
 import com.example.demo.models.servicio.LogService;
+import com.example.demo.models.servicio.NotificadorService;
 import com.example.demo.models.dao.LogAccesoDao;
-import com.example.demo.models.dao.UsuarioDao;
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.entity.CategoriaAccion;
 import com.example.demo.models.entity.LogAcceso;
-import com.example.demo.models.entity.Usuario;
 
 import java.util.HashMap;
+import java.util.List;
 
-import jakarta.servlet.http.HttpSession;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
@@ -31,12 +36,18 @@ import java.util.concurrent.ConcurrentHashMap;
 @CrossOrigin(origins = "*")
 public class ESP32Controller {
     private final Map<String, Long> ultimoAccesoPorUsuario = new ConcurrentHashMap<>();
+
+    // Tipo de las acciones de este controlador que la categoría no cubre (puerta y autenticación ya la tienen)
+    private static final Map<String, String> TIPO_POR_ACCION = Map.of(
+        "COMANDO_PERSONALIZADO", "ESP32",
+        "TEST_CONEXION", "ESP32",
+        "CONSULTAR_ESTADO", "ADMINISTRACION",
+        "CONSULTAR_CONFIG", "ADMINISTRACION",
+        "CONSULTAR_STATS_ESP32", "ADMINISTRACION");
+
     @Autowired
     private ESP32Service esp32Service;
     
-    @Autowired
-    private AutenticacionService autenticacionService;
-    
     @Autowired
     private LogService logService;
     
@@ -44,49 +55,39 @@ public class ESP32Controller {
     private LogAccesoDao logAccesoDao;
 
     @Autowired
-    private UsuarioDao usuarioDao;
-
-    /**
-     * Verificar autenticación antes de ejecutar comandos
-     */
+    private NotificadorService notificador;
 
-    
-    private boolean isAuthenticated(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
-            return false;
-        }
-        
-        return autenticacionService.validarToken(userToken).isPresent();
-    }
+    @Autowired
+    private EscritorLogs escritorLogs;
 
     /**
      * Registrar log de acceso con información completa
      */
 private void registrarLog(String userName, String accion, String resultado, 
                          String detalles, HttpServletRequest request) {
+    registrarLog(userName, obtenerIdUsuarioPrincipal(userName), accion, resultado, detalles,
+                 obtenerDireccionIpReal(request), request.getHeader("User-Agent"));
+}
+
+/**
+ * El filtro de autenticación deja el principal con su id: se usa en lugar de buscar al usuario en la BD por cada log
+ */
+private Long obtenerIdUsuarioPrincipal(String userName) {
+    Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+    if (autenticacion == null || !(autenticacion.getPrincipal() instanceof PrincipalSesion principal)
+            || !principal.getUserName().equals(userName)) {
+        return null;
+    }
+    return principal.getIdUsuario();
+}
+
+/**
+ * Registrar log con IP y User-Agent ya extraídos (para respuestas asíncronas,
+ * donde el request ya no debe leerse desde otro hilo)
+ */
+private void registrarLog(String userName, Long idUsuario, String accion, String resultado, 
+                         String detalles, String direccionIp, String userAgent) {
     try {
-        String direccionIp = obtenerDireccionIpReal(request);
-        String userAgent = request.getHeader("User-Agent");
-        
-        // Obtener el ID del usuario desde la base de datos
-        Long idUsuario = null;
-        if (userName != null && !userName.equals("ANONIMO") && !userName.equals("SISTEMA")) {
-            try {
-                Optional<Usuario> usuarioOpt = usuarioDao.findByUserName(userName);
-                if (usuarioOpt.isPresent()) {
-                    idUsuario = usuarioOpt.get().getIdUsuario();
-                    System.out.println("✅ ID Usuario encontrado: " + idUsuario + " para " + userName);
-                } else {
-                    System.out.println("⚠️ Usuario no encontrado en BD: " + userName);
-                }
-            } catch (Exception e) {
-                System.err.println("⚠️ Error al buscar usuario en BD: " + userName + " - " + e.getMessage());
-            }
-        }
-        
         LogAcceso log = new LogAcceso();
         log.setIdUsuario(idUsuario); // CRÍTICO: Setear el ID del usuario
         log.setUserName(userName);
@@ -98,13 +99,11 @@ private void registrarLog(String userName, String accion, String resultado,
         log.setFechaHora(LocalDateTime.now());
         
         // Determinar tipo de acción basado en la acción
-        String tipoAccion = determinarTipoAccion(accion);
+        String tipoAccion = determinarTipoAccion(log);
         log.setTipoAccion(tipoAccion);
         
-        // Guardar el log
-        logAccesoDao.save(log);
-        
-        System.out.println("📝 Log registrado exitosamente: " + userName + " (ID: " + idUsuario + ") - " + accion + " - " + resultado);
+        // Encolar el log: lo escribe el escritor de auditoría en segundo plano
+        escritorLogs.registrar(log);
         
     } catch (Exception e) {
         System.err.println("❌ Error registrando log: " + e.getMessage());
@@ -115,23 +114,18 @@ private void registrarLog(String userName, String accion, String resultado,
 /**
  * Determinar tipo de acción basado en la acción realizada
  */
-private String determinarTipoAccion(String accion) {
-    if (accion == null) return "SISTEMA";
-    
-    String accionUpper = accion.toUpperCase();
-    
-    if (accionUpper.contains("LOGIN") || accionUpper.contains("LOGOUT") || accionUpper.contains("AUTENTICAR")) {
+private String determinarTipoAccion(LogAcceso log) {
+    // La categoría ya se calculó al asignar la acción: cubre puerta y autenticación
+    CategoriaAccion categoria = log.getCategoriaAccion();
+    if (categoria.esAutenticacion()) {
         return "AUTENTICACION";
-    } else if (accionUpper.contains("ABRIR") || accionUpper.contains("CERRAR") || 
-               accionUpper.contains("ESP32") || accionUpper.contains("COMANDO") || 
-               accionUpper.contains("TEST")) {
+    } else if (categoria.esApertura()) {
         return "ESP32";
-    } else if (accionUpper.contains("ADMIN") || accionUpper.contains("DASHBOARD") || 
-               accionUpper.contains("CONSULTAR")) {
-        return "ADMINISTRACION";
-    } else {
-        return "SISTEMA";
     }
+    
+    // El resto son acciones fijas de este controlador: búsqueda exacta, sin recorrer la cadena
+    String accion = log.getAccion();
+    return accion != null ? TIPO_POR_ACCION.getOrDefault(accion, "SISTEMA") : "SISTEMA";
 }
 
     /**
@@ -151,120 +145,194 @@ private String determinarTipoAccion(String accion) {
         return request.getRemoteAddr();
     }
 
+    /**
+     * Añade la placa destino al detalle del log cuando se indicó una concreta
+     */
+    private String conDispositivo(String detalles, String dispositivo) {
+        return dispositivo == null || dispositivo.isBlank() ? detalles : detalles + " [dispositivo: " + dispositivo + "]";
+    }
+
 @PostMapping("/abrir-puerta")
-public ResponseEntity<String> abrirPuerta(HttpSession session, HttpServletRequest request) {
-    if (!isAuthenticated(session)) {
+public CompletableFuture<ResponseEntity<String>> abrirPuerta(@RequestParam(value = "dispositivo", required = false) String dispositivo,
+                                                             @AuthenticationPrincipal PrincipalSesion principal, HttpServletRequest request) {
+    if (principal == null) {
         registrarLog("ANONIMO", "ABRIR_PUERTA", "ERROR", "Sesión no válida", request);
-        return ResponseEntity.status(401).body("❌ Sesión no válida - Inicia sesión");
+        return CompletableFuture.completedFuture(
+            ResponseEntity.status(401).body("❌ Sesión no válida - Inicia sesión"));
     }
 
-    String userName = (String) session.getAttribute("userName");
+    String userName = principal.getUserName();
 
-    // Protección de intervalo mínimo de 3 segundos
+    if (!esp32Service.existeDispositivo(dispositivo)) {
+        registrarLog(userName, "ABRIR_PUERTA", "ERROR", "Dispositivo desconocido: " + dispositivo, request);
+        return CompletableFuture.completedFuture(
+            ResponseEntity.status(404).body("❌ Dispositivo desconocido: " + dispositivo));
+    }
+
+    // Protección de intervalo mínimo de 3 segundos (por usuario y puerta)
+    String claveLimite = userName + "@" + (dispositivo != null ? dispositivo : "");
     long ahora = System.currentTimeMillis();
-    long ultimo = ultimoAccesoPorUsuario.getOrDefault(userName, 0L);
+    long ultimo = ultimoAccesoPorUsuario.getOrDefault(claveLimite, 0L);
     if (ahora - ultimo < 3000) {
         registrarLog(userName, "ABRIR_PUERTA", "IGNORADO", "Intento antes de los 3 segundos", request);
-        return ResponseEntity.status(429).body("⚠️ Espera 3 segundos antes de volver a abrir la puerta");
+        return CompletableFuture.completedFuture(
+            ResponseEntity.status(429).body("⚠️ Espera 3 segundos antes de volver a abrir la puerta"));
     }
 
-    ultimoAccesoPorUsuario.put(userName, ahora);
+    ultimoAccesoPorUsuario.put(claveLimite, ahora);
     System.out.println("🚪 Usuario " + userName + " solicita abrir puerta");
 
-    try {
-        boolean resultado = esp32Service.enviarComando("ABRIR_PUERTA");
-
-        if (resultado) {
-            registrarLog(userName, "ABRIR_PUERTA", "EXITOSO", "Comando enviado al ESP32", request);
-            return ResponseEntity.ok("🚪 Comando ABRIR_PUERTA enviado exitosamente");
-        } else {
-            registrarLog(userName, "ABRIR_PUERTA", "FALLIDO", "ESP32 no respondió correctamente", request);
-            return ResponseEntity.badRequest().body("❌ Error al enviar comando ABRIR_PUERTA");
-        }
+    Long idUsuario = principal.getIdUsuario();
 
-    } catch (Exception e) {
-        registrarLog(userName, "ABRIR_PUERTA", "ERROR", "Error crítico: " + e.getMessage(), request);
-        return ResponseEntity.internalServerError().body("💥 Error interno: " + e.getMessage());
-    }
+    String direccionIp = obtenerDireccionIpReal(request);
+    String userAgent = request.getHeader("User-Agent");
+
+    // El hilo de Tomcat se libera mientras el ESP32 responde
+    return esp32Service.enviarComandoAsync(dispositivo, "ABRIR_PUERTA")
+        .thenApply(resultado -> {
+            if (resultado.isCircuitoAbierto()) {
+                registrarLog(userName, idUsuario, "ABRIR_PUERTA", "FALLIDO", 
+                           conDispositivo("ESP32 fuera de línea (circuito abierto)", dispositivo), direccionIp, userAgent);
+                notificador.notificarEventoPuerta(dispositivo, "ABRIR_PUERTA", "FALLIDO", userName);
+                return ResponseEntity.status(503).body("🔌 ESP32 fuera de línea - Reintenta en unos segundos");
+            }
+            if (resultado.isExitoso()) {
+                registrarLog(userName, idUsuario, "ABRIR_PUERTA", "EXITOSO", conDispositivo("Comando enviado al ESP32", dispositivo), direccionIp, userAgent);
+                notificador.notificarEventoPuerta(dispositivo, "ABRIR_PUERTA", "EXITOSO", userName);
+                return ResponseEntity.ok("🚪 Comando ABRIR_PUERTA enviado exitosamente");
+            } else {
+                registrarLog(userName, idUsuario, "ABRIR_PUERTA", "FALLIDO", conDispositivo("ESP32 no respondió correctamente", dispositivo), direccionIp, userAgent);
+                notificador.notificarEventoPuerta(dispositivo, "ABRIR_PUERTA", "FALLIDO", userName);
+                return ResponseEntity.badRequest().body("❌ Error al enviar comando ABRIR_PUERTA");
+            }
+        })
+        .exceptionally(e -> {
+            registrarLog(userName, idUsuario, "ABRIR_PUERTA", "ERROR", conDispositivo("Error crítico: " + e.getMessage(), dispositivo), direccionIp, userAgent);
+            return ResponseEntity.internalServerError().body("💥 Error interno: " + e.getMessage());
+        });
 }
 
 
     @PostMapping("/cerrar-puerta")
-    public ResponseEntity<String> cerrarPuerta(HttpSession session, HttpServletRequest request) {
-        if (!isAuthenticated(session)) {
+    public CompletableFuture<ResponseEntity<String>> cerrarPuerta(@RequestParam(value = "dispositivo", required = false) String dispositivo,
+                                                                  @AuthenticationPrincipal PrincipalSesion principal, HttpServletRequest request) {
+        if (principal == null) {
             registrarLog("ANONIMO", "CERRAR_PUERTA", "ERROR", "Sesión no válida", request);
-            return ResponseEntity.status(401).body("❌ Sesión no válida");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("❌ Sesión no válida"));
         }
         
-        String userName = (String) session.getAttribute("userName");
+        String userName = principal.getUserName();
+
+        if (!esp32Service.existeDispositivo(dispositivo)) {
+            registrarLog(userName, "CERRAR_PUERTA", "ERROR", "Dispositivo desconocido: " + dispositivo, request);
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(404).body("❌ Dispositivo desconocido: " + dispositivo));
+        }
+
         System.out.println("🔒 Usuario " + userName + " solicita cerrar puerta");
+
+        Long idUsuario = principal.getIdUsuario();
+
+        String direccionIp = obtenerDireccionIpReal(request);
+        String userAgent = request.getHeader("User-Agent");
         
-        try {
-            boolean resultado = esp32Service.enviarComando("CERRAR_PUERTA");
-            
-            if (resultado) {
-                registrarLog(userName, "CERRAR_PUERTA", "EXITOSO", 
-                           "Comando enviado exitosamente al ESP32", request);
-                return ResponseEntity.ok("🔒 Comando CERRAR_PUERTA enviado exitosamente");
-            } else {
-                registrarLog(userName, "CERRAR_PUERTA", "FALLIDO", 
-                           "ESP32 no respondió correctamente", request);
-                return ResponseEntity.badRequest().body("❌ Error al enviar comando CERRAR_PUERTA");
-            }
-        } catch (Exception e) {
-            registrarLog(userName, "CERRAR_PUERTA", "ERROR", 
-                       "Error crítico: " + e.getMessage(), request);
-            return ResponseEntity.internalServerError()
-                .body("💥 Error interno: " + e.getMessage());
-        }
+        return esp32Service.enviarComandoAsync(dispositivo, "CERRAR_PUERTA")
+            .thenApply(resultado -> {
+                if (resultado.isCircuitoAbierto()) {
+                    registrarLog(userName, idUsuario, "CERRAR_PUERTA", "FALLIDO", 
+                               conDispositivo("ESP32 fuera de línea (circuito abierto)", dispositivo), direccionIp, userAgent);
+                    notificador.notificarEventoPuerta(dispositivo, "CERRAR_PUERTA", "FALLIDO", userName);
+                    return ResponseEntity.status(503).body("🔌 ESP32 fuera de línea - Reintenta en unos segundos");
+                }
+                if (resultado.isExitoso()) {
+                    registrarLog(userName, idUsuario, "CERRAR_PUERTA", "EXITOSO", 
+                               conDispositivo("Comando enviado exitosamente al ESP32", dispositivo), direccionIp, userAgent);
+                    notificador.notificarEventoPuerta(dispositivo, "CERRAR_PUERTA", "EXITOSO", userName);
+                    return ResponseEntity.ok("🔒 Comando CERRAR_PUERTA enviado exitosamente");
+                } else {
+                    registrarLog(userName, idUsuario, "CERRAR_PUERTA", "FALLIDO", 
+                               conDispositivo("ESP32 no respondió correctamente", dispositivo), direccionIp, userAgent);
+                    notificador.notificarEventoPuerta(dispositivo, "CERRAR_PUERTA", "FALLIDO", userName);
+                    return ResponseEntity.badRequest().body("❌ Error al enviar comando CERRAR_PUERTA");
+                }
+            })
+            .exceptionally(e -> {
+                registrarLog(userName, idUsuario, "CERRAR_PUERTA", "ERROR", 
+                           conDispositivo("Error crítico: " + e.getMessage(), dispositivo), direccionIp, userAgent);
+                return ResponseEntity.internalServerError()
+                    .body("💥 Error interno: " + e.getMessage());
+            });
     }
 
     @PostMapping("/comando/{comando}")
-    public ResponseEntity<String> enviarComandoPersonalizado(@PathVariable String comando, 
-                                                           HttpSession session, 
+    public CompletableFuture<ResponseEntity<String>> enviarComandoPersonalizado(@PathVariable String comando, 
+                                                           @RequestParam(value = "dispositivo", required = false) String dispositivo,
+                                                           @AuthenticationPrincipal PrincipalSesion principal, 
                                                            HttpServletRequest request) {
-        if (!isAuthenticated(session)) {
+        if (principal == null) {
             registrarLog("ANONIMO", "COMANDO_PERSONALIZADO", "ERROR", "Sesión no válida", request);
-            return ResponseEntity.status(401).body("❌ Sesión no válida");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("❌ Sesión no válida"));
         }
         
-        String userName = (String) session.getAttribute("userName");
+        String userName = principal.getUserName();
+
+        if (!esp32Service.existeDispositivo(dispositivo)) {
+            registrarLog(userName, "COMANDO_PERSONALIZADO", "ERROR", "Dispositivo desconocido: " + dispositivo, request);
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(404).body("❌ Dispositivo desconocido: " + dispositivo));
+        }
+
         System.out.println("⚡ Usuario " + userName + " envía comando personalizado: " + comando);
+
+        Long idUsuario = principal.getIdUsuario();
+
+        String direccionIp = obtenerDireccionIpReal(request);
+        String userAgent = request.getHeader("User-Agent");
         
-        try {
-            boolean resultado = esp32Service.enviarComando(comando);
-            
-            if (resultado) {
-                registrarLog(userName, "COMANDO_PERSONALIZADO", "EXITOSO", 
-                           "Comando: " + comando + " enviado exitosamente", request);
-                return ResponseEntity.ok("✅ Comando '" + comando + "' enviado exitosamente");
-            } else {
-                registrarLog(userName, "COMANDO_PERSONALIZADO", "FALLIDO", 
-                           "Comando: " + comando + " - ESP32 no respondió", request);
-                return ResponseEntity.badRequest().body("❌ Error al enviar comando: " + comando);
-            }
-        } catch (Exception e) {
-            registrarLog(userName, "COMANDO_PERSONALIZADO", "ERROR", 
-                       "Comando: " + comando + " - Error: " + e.getMessage(), request);
-            return ResponseEntity.internalServerError()
-                .body("💥 Error interno: " + e.getMessage());
-        }
+        return esp32Service.enviarComandoAsync(dispositivo, comando)
+            .thenApply(resultado -> {
+                if (resultado.isCircuitoAbierto()) {
+                    registrarLog(userName, idUsuario, "COMANDO_PERSONALIZADO", "FALLIDO", 
+                               conDispositivo("ESP32 fuera de línea (circuito abierto)", dispositivo), direccionIp, userAgent);
+                    return ResponseEntity.status(503).body("🔌 ESP32 fuera de línea - Reintenta en unos segundos");
+                }
+                if (resultado.isExitoso()) {
+                    registrarLog(userName, idUsuario, "COMANDO_PERSONALIZADO", "EXITOSO", 
+                               conDispositivo("Comando: " + comando + " enviado exitosamente", dispositivo), direccionIp, userAgent);
+                    return ResponseEntity.ok("✅ Comando '" + comando + "' enviado exitosamente");
+                } else {
+                    registrarLog(userName, idUsuario, "COMANDO_PERSONALIZADO", "FALLIDO", 
+                               conDispositivo("Comando: " + comando + " - ESP32 no respondió", dispositivo), direccionIp, userAgent);
+                    return ResponseEntity.badRequest().body("❌ Error al enviar comando: " + comando);
+                }
+            })
+            .exceptionally(e -> {
+                registrarLog(userName, idUsuario, "COMANDO_PERSONALIZADO", "ERROR", 
+                           conDispositivo("Comando: " + comando + " - Error: " + e.getMessage(), dispositivo), direccionIp, userAgent);
+                return ResponseEntity.internalServerError()
+                    .body("💥 Error interno: " + e.getMessage());
+            });
     }
 
 @GetMapping("/estado")
-public ResponseEntity<String> obtenerEstado(HttpSession session, HttpServletRequest request) {
-    if (!isAuthenticated(session)) {
+public ResponseEntity<String> obtenerEstado(@RequestParam(value = "dispositivo", required = false) String dispositivo,
+                                            @AuthenticationPrincipal PrincipalSesion principal, HttpServletRequest request) {
+    if (principal == null) {
         registrarLog("ANONIMO", "CONSULTAR_ESTADO", "ERROR", "Sesión no válida", request);
         return ResponseEntity.status(401).body("❌ Sesión no válida");
     }
     
-    String userName = (String) session.getAttribute("userName");
+    String userName = principal.getUserName();
     
     try {
-        String estado = esp32Service.obtenerEstadoConexion();
+        if (!esp32Service.existeDispositivo(dispositivo)) {
+            return ResponseEntity.status(404).body("❌ Dispositivo desconocido: " + dispositivo);
+        }
+
+        String estado = esp32Service.obtenerEstadoConexion(dispositivo);
         
         registrarLog(userName, "CONSULTAR_ESTADO", "EXITOSO", 
-                   "Estado consultado: " + estado, request);
+                   conDispositivo("Estado consultado: " + estado, dispositivo), request);
         
         return ResponseEntity.ok("📡 Estado: " + estado);
     } catch (Exception e) {
@@ -276,17 +344,22 @@ public ResponseEntity<String> obtenerEstado(HttpSession session, HttpServletRequ
 }
 
     @PostMapping("/test-conexion")
-    public ResponseEntity<String> testConexion(HttpSession session, HttpServletRequest request) {
-        if (!isAuthenticated(session)) {
+    public ResponseEntity<String> testConexion(@RequestParam(value = "dispositivo", required = false) String dispositivo,
+                                               @AuthenticationPrincipal PrincipalSesion principal, HttpServletRequest request) {
+        if (principal == null) {
             registrarLog("ANONIMO", "TEST_CONEXION", "ERROR", "Sesión no válida", request);
             return ResponseEntity.status(401).body("❌ Sesión no válida");
         }
         
-        String userName = (String) session.getAttribute("userName");
+        String userName = principal.getUserName();
         System.out.println("🧪 Usuario " + userName + " ejecuta test de conexión");
         
         try {
-            boolean resultado = esp32Service.enviarComando("TEST_CONNECTION");
+            if (!esp32Service.existeDispositivo(dispositivo)) {
+                return ResponseEntity.status(404).body("❌ Dispositivo desconocido: " + dispositivo);
+            }
+
+            boolean resultado = esp32Service.enviarComando(dispositivo, "TEST_CONNECTION");
             
             if (resultado) {
                 registrarLog(userName, "TEST_CONEXION", "EXITOSO", 
@@ -306,13 +379,13 @@ public ResponseEntity<String> obtenerEstado(HttpSession session, HttpServletRequ
     }
 
     @GetMapping("/configuracion")
-    public ResponseEntity<String> obtenerConfiguracion(HttpSession session, HttpServletRequest request) {
-        if (!isAuthenticated(session)) {
+    public ResponseEntity<String> obtenerConfiguracion(@AuthenticationPrincipal PrincipalSesion principal, HttpServletRequest request) {
+        if (principal == null) {
             registrarLog("ANONIMO", "CONSULTAR_CONFIG", "ERROR", "Sesión no válida", request);
             return ResponseEntity.status(401).body("❌ Sesión no válida");
         }
         
-        String userName = (String) session.getAttribute("userName");
+        String userName = principal.getUserName();
         
         try {
             String config = "📊 Configuración actual del sistema ESP32";
@@ -332,6 +405,19 @@ public ResponseEntity<String> obtenerEstado(HttpSession session, HttpServletRequ
         }
     }
 
+    /**
+     * Listar las placas ESP32 registradas (id, host, puerto, capacidades)
+     */
+    @GetMapping("/dispositivos")
+    public ResponseEntity<?> listarDispositivos(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body("❌ Sesión no válida");
+        }
+
+        List<Map<String, Object>> dispositivos = esp32Service.listarDispositivos();
+        return ResponseEntity.ok(dispositivos);
+    }
+
     /**
      * Endpoint especial para verificación rápida (sin autenticación para debugging)
      */
@@ -348,25 +434,31 @@ public ResponseEntity<String> obtenerEstado(HttpSession session, HttpServletRequ
      * Endpoint para obtener estadísticas de uso del ESP32
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> obtenerEstadisticasESP32(HttpSession session, HttpServletRequest request) {
-        if (!isAuthenticated(session)) {
+    public ResponseEntity<?> obtenerEstadisticasESP32(@AuthenticationPrincipal PrincipalSesion principal, HttpServletRequest request) {
+        if (principal == null) {
             registrarLog("ANONIMO", "CONSULTAR_STATS_ESP32", "ERROR", "Sesión no válida", request);
             return ResponseEntity.status(401).body("❌ Sesión no válida");
         }
         
-        String userName = (String) session.getAttribute("userName");
+        String userName = principal.getUserName();
         
         try {
             // Obtener estadísticas de uso del ESP32 desde los logs
             long totalComandos = logAccesoDao.countByUserName(userName);
-            long aperturasHoy = logAccesoDao.findLogsUsuarioHoy(userName).stream()
-                .mapToLong(log -> log.getAccion().contains("ABRIR") ? 1 : 0)
-                .sum();
+            long aperturasHoy = logAccesoDao.countAperturasUsuarioHoy(userName);
             
             java.util.Map<String, Object> stats = new java.util.HashMap<>();
             stats.put("usuario", userName);
             stats.put("totalComandosEnviados", totalComandos);
             stats.put("aperturasHoy", aperturasHoy);
+            stats.put("clienteHttp", esp32Service.obtenerMetricasCliente());
+
+            java.util.Map<String, Object> porDispositivo = new java.util.HashMap<>();
+            for (Map<String, Object> info : esp32Service.listarDispositivos()) {
+                String id = (String) info.get("id");
+                porDispositivo.put(id, esp32Service.obtenerMetricasCliente(id));
+            }
+            stats.put("dispositivos", porDispositivo);
             stats.put("timestamp", LocalDateTime.now());
             
             registrarLog(userName, "CONSULTAR_STATS_ESP32", "EXITOSO", 
@@ -3,7 +3,9 @@ package com.example.demo.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextImpl;
@@ -11,6 +13,8 @@ import org.springframework.security.web.context.HttpSessionSecurityContextReposi
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import com.example.demo.models.dao.UsuarioDao;
+import com.example.demo.models.dto.PrincipalSesion;
 import com.example.demo.models.entity.Usuario;
 import com.example.demo.models.servicio.AutenticacionService;
 import com.example.demo.models.servicio.LogService;
@@ -40,6 +44,9 @@ public class LoginController {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private UsuarioDao usuarioDao;
+
     @Autowired
     private HttpServletRequest request;
 
@@ -365,28 +372,27 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
         
         String clientIP = getClientIP(request);
         
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(token);
-        if (usuarioOpt.isPresent()) {
-            Usuario usuario = usuarioOpt.get();
+        // Sólo hace falta el principal (id, nombre y rol): no se carga la entidad Usuario
+        Optional<PrincipalSesion> principalOpt = autenticacionService.obtenerPrincipal(token);
+        if (principalOpt.isPresent()) {
+            PrincipalSesion principal = principalOpt.get();
             
             // Crear sesión si no existe
-            session.setAttribute("userName", usuario.getUser_name());
+            session.setAttribute("userName", principal.getUserName());
             session.setAttribute("userToken", token);
-            session.setAttribute("userId", usuario.getIdUsuario());
+            session.setAttribute("userId", principal.getIdUsuario());
             session.setAttribute("clientIP", clientIP); // 🔒 Guardar IP
             session.setAttribute("loginTime", System.currentTimeMillis()); // 🔒 Timestamp
             
-            model.addAttribute("mensaje", "Token válido. Bienvenido " + usuario.getUser_name());
-            model.addAttribute("usuario", usuario);
+            model.addAttribute("mensaje", "Token válido. Bienvenido " + principal.getUserName());
+            model.addAttribute("usuario", principal);
             
             // Verificar rol y redirigir apropiadamente
-            boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-            
-            if (isAdmin) {
-                System.out.println("👑 Token válido para administrador: " + usuario.getUser_name() + " desde IP: " + clientIP);
+            if (principal.esAdmin()) {
+                System.out.println("👑 Token válido para administrador: " + principal.getUserName() + " desde IP: " + clientIP);
                 return "redirect:/dashboard";
             } else {
-                System.out.println("✅ Token válido para usuario: " + usuario.getUser_name() + " desde IP: " + clientIP);
+                System.out.println("✅ Token válido para usuario: " + principal.getUserName() + " desde IP: " + clientIP);
                 return "redirect:/control";
             }
         } else {
@@ -447,24 +453,11 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
      */
     @GetMapping("/admin/security-status")
     @ResponseBody
-    public Object getSecurityStatus(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+    public Object getSecurityStatus(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return "❌ No autorizado - Sin sesión activa";
         }
-        
-        // Verificar si es admin
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            return "❌ Token inválido";
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
+        if (!principal.esAdmin()) {
             return "❌ Acceso denegado - Se requieren permisos de administrador";
         }
         
@@ -476,24 +469,13 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
      */
     @PostMapping("/admin/unblock-ip")
     @ResponseBody
-    public String unblockIP(@RequestParam String ip, HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+    public String unblockIP(@RequestParam String ip, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return "❌ No autorizado - Sin sesión activa";
         }
+        String userName = principal.getUserName();
         
-        // Verificar si es admin
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            return "❌ Token inválido";
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
+        if (!principal.esAdmin()) {
             return "❌ Acceso denegado - Se requieren permisos de administrador";
         }
         
@@ -511,24 +493,11 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
      */
     @GetMapping("/admin/ip-status")
     @ResponseBody
-    public String getIPStatus(@RequestParam String ip, HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+    public String getIPStatus(@RequestParam String ip, @AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return "❌ No autorizado";
         }
-        
-        // Verificar si es admin
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            return "❌ Token inválido";
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
+        if (!principal.esAdmin()) {
             return "❌ Acceso denegado";
         }
         
@@ -539,25 +508,14 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
 
     @GetMapping("/switch-view")
     public String switchView(@RequestParam(defaultValue = "auto") String view, 
-                           HttpSession session, Model model) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+                           @AuthenticationPrincipal PrincipalSesion principal, Authentication autenticacion,
+                           Model model) {
+        if (principal == null) {
             return "redirect:/login";
         }
         
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            session.invalidate();
-            return "redirect:/login";
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        model.addAttribute("usuario", usuario);
-        model.addAttribute("token", userToken);
-        
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
+        String userName = principal.getUserName();
+        boolean isAdmin = principal.esAdmin();
         
         switch (view.toLowerCase()) {
             case "admin":
@@ -574,6 +532,13 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
                 return "redirect:/control";
             
             case "dashboard":
+                // Sólo esta vista necesita la entidad completa (fechas de registro y modificación)
+                Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(principal.getIdUsuario());
+                if (usuarioOpt.isEmpty()) {
+                    return "redirect:/login";
+                }
+                model.addAttribute("usuario", usuarioOpt.get());
+                model.addAttribute("token", autenticacion.getCredentials());
                 System.out.println("🔄 Cambiando a dashboard regular para: " + userName);
                 return "dashboard";
             
@@ -589,25 +554,27 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
 
     @GetMapping("/session-info")
     @ResponseBody
-    public String sessionInfo(HttpSession session, HttpServletRequest request) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        Long userId = (Long) session.getAttribute("userId");
+    public String sessionInfo(@AuthenticationPrincipal PrincipalSesion principal, Authentication autenticacion,
+                              HttpSession session, HttpServletRequest request) {
+        if (principal == null) {
+            return "❌ No hay sesión activa";
+        }
+        
+        // Identidad y token desde el principal; de la sesión sólo se leen sus metadatos (IP y hora del login)
+        String userName = principal.getUserName();
+        Long userId = principal.getIdUsuario();
+        String userToken = (String) autenticacion.getCredentials();
         String sessionIP = (String) session.getAttribute("clientIP");
         Long loginTime = (Long) session.getAttribute("loginTime");
         String currentIP = getClientIP(request);
         
-        if (userName == null) {
-            return "❌ No hay sesión activa";
-        }
-        
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
+        Optional<Usuario> usuarioOpt = usuarioDao.findByIdConRol(userId);
         if (usuarioOpt.isEmpty()) {
-            return "❌ Token inválido para usuario: " + userName;
+            return "❌ Usuario no encontrado: " + userName;
         }
         
         Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
+        boolean isAdmin = principal.esAdmin();
         
         // 🔒 INFORMACIÓN DE SEGURIDAD
         String securityInfo = securityService.getIPStatus(currentIP);
@@ -675,23 +642,13 @@ public String mostrarLogin(HttpServletRequest request, Model model) {
     
     @PostMapping("/admin/migrate-passwords")
     @ResponseBody
-    public String migratePasswords(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
+    public String migratePasswords(@AuthenticationPrincipal PrincipalSesion principal) {
+        if (principal == null) {
             return "❌ Acceso denegado - No hay sesión activa";
         }
+        String userName = principal.getUserName();
         
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            return "❌ Token inválido";
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
+        if (!principal.esAdmin()) {
             return "❌ Acceso denegado - Se requieren permisos de administrador";
         }
         
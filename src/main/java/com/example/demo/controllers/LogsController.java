@@ -1,18 +1,36 @@
 package com.example.demo.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import com.example.demo.models.entity.Usuario;
+import org.springframework.web.context.request.WebRequest;
+import com.example.demo.models.dto.CriteriosBusquedaLogs;
+import com.example.demo.models.dto.EstadisticasLogs;
+import com.example.demo.models.dto.LogResumen;
+import com.example.demo.models.dto.PaginaLogs;
+import com.example.demo.models.dto.PrincipalSesion;
 import com.example.demo.models.entity.LogAcceso;
-import com.example.demo.models.servicio.AutenticacionService;
+import com.example.demo.models.entity.ResumenActividadLogs;
+import com.example.demo.models.entity.ResumenActividadLogs.Granularidad;
+import com.example.demo.models.servicio.ActividadLogsService;
+import com.example.demo.models.servicio.ArchivoLogsService;
+import com.example.demo.models.servicio.BusquedaLogsService;
+import com.example.demo.models.servicio.ExportacionLogsService;
+import com.example.demo.models.servicio.EscritorLogs;
+import com.example.demo.models.servicio.EstadisticasLogsService;
+import com.example.demo.models.servicio.LogService;
+import com.example.demo.models.servicio.LogsRecientesService;
+import com.example.demo.models.servicio.ParticionesLogsService;
 import com.example.demo.models.dao.LogAccesoDao;
-import com.example.demo.models.dao.UsuarioDao;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -24,162 +42,124 @@ import java.util.Optional;
 @RequestMapping("/logs")
 public class LogsController {
 
-    @Autowired
-    private AutenticacionService autenticacionService;
-    
     @Autowired
     private LogAccesoDao logAccesoDao;
     
     @Autowired
-    private UsuarioDao usuarioDao;
+    private EscritorLogs escritorLogs;
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private EstadisticasLogsService estadisticasLogsService;
+
+    @Autowired
+    private ActividadLogsService actividadLogsService;
+
+    @Autowired
+    private BusquedaLogsService busquedaLogsService;
+
+    @Autowired
+    private ExportacionLogsService exportacionLogsService;
+
+    @Autowired
+    private ParticionesLogsService particionesLogsService;
+
+    @Autowired
+    private ArchivoLogsService archivoLogsService;
+
+    @Autowired
+    private LogsRecientesService logsRecientesService;
 
-    /**
-     * Verificar si el usuario actual es administrador autenticado
-     */
-    private boolean isAdminAuthenticated(HttpSession session) {
-        String userName = (String) session.getAttribute("userName");
-        String userToken = (String) session.getAttribute("userToken");
-        
-        if (userName == null || userToken == null) {
-            System.out.println("❌ Acceso a logs denegado - Sin sesión válida");
-            return false;
-        }
-        
-        Optional<Usuario> usuarioOpt = autenticacionService.validarToken(userToken);
-        if (usuarioOpt.isEmpty()) {
-            System.out.println("❌ Acceso a logs denegado - Token inválido para: " + userName);
-            return false;
-        }
-        
-        Usuario usuario = usuarioOpt.get();
-        boolean isAdmin = usuario.getRol() != null && "ADMIN".equals(usuario.getRol().getNombre());
-        
-        if (!isAdmin) {
-            System.out.println("❌ Acceso a logs denegado - Usuario " + userName + " no es administrador");
-        }
-        
-        return isAdmin;
-    }
 
     /**
      * Mostrar vista principal de logs cyberpunk
      */
     @GetMapping("")
-    public String mostrarLogs(Model model, HttpSession session,
+    public String mostrarLogs(Model model, @AuthenticationPrincipal PrincipalSesion principal,
                              @RequestParam(required = false) String filtro,
                              @RequestParam(required = false) String usuario,
-                             @RequestParam(required = false) String fecha) {
+                             @RequestParam(required = false) String fecha,
+                             @RequestParam(required = false) String cursor,
+                             @RequestParam(required = false) Integer tamano) {
         
         // Verificar autenticación y permisos de administrador
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return "redirect:/login";
         }
         
-        String adminUser = (String) session.getAttribute("userName");
-        Optional<Usuario> adminUsuarioOpt = autenticacionService.validarToken((String) session.getAttribute("userToken"));
-        
-        if (adminUsuarioOpt.isEmpty()) {
-            return "redirect:/login";
-        }
-        
-        Usuario adminUsuario = adminUsuarioOpt.get();
-        model.addAttribute("usuario", adminUsuario);
+        // El filtro de autenticación ya resolvió el token: no se vuelve a validar ni se carga el Usuario
+        String adminUser = principal.getUserName();
+        model.addAttribute("usuario", principal);
         
         try {
             System.out.println("🔍 Admin " + adminUser + " accediendo a logs del sistema");
             
-            // Obtener logs según filtros
-            List<LogAcceso> logs;
+            // Obtener una página de logs según filtros (keyset sobre fechaHora, idLog)
             String tituloFiltro = "Todos los Logs";
             
             if (filtro != null && !filtro.trim().isEmpty()) {
                 switch (filtro.toLowerCase()) {
                     case "aperturas":
-                        logs = logAccesoDao.findLogsAperturaPuerta();
                         tituloFiltro = "🚪 Logs de Apertura de Puerta";
                         break;
                     case "exitosos":
-                        logs = logAccesoDao.findByResultadoOrderByFechaHoraDesc("EXITOSO");
                         tituloFiltro = "✅ Logs Exitosos";
                         break;
                     case "errores":
-                        logs = logAccesoDao.findByResultadoOrderByFechaHoraDesc("ERROR");
                         tituloFiltro = "❌ Logs de Errores";
                         break;
                     case "hoy":
-                        LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
-                        LocalDateTime finHoy = inicioHoy.plusDays(1);
-                        logs = logAccesoDao.findByFechaHoraBetweenOrderByFechaHoraDesc(inicioHoy, finHoy);
                         tituloFiltro = "📅 Logs de Hoy";
                         break;
                     case "semana":
-                        LocalDateTime unaSemanaAtras = LocalDateTime.now().minusDays(7);
-                        logs = logAccesoDao.findLogsUltimaSemana(unaSemanaAtras);
                         tituloFiltro = "📊 Logs de la Última Semana";
                         break;
                     default:
-                        logs = logAccesoDao.findAllOrderByFechaHoraDesc();
                         break;
                 }
             } else if (usuario != null && !usuario.trim().isEmpty()) {
-                logs = logAccesoDao.findByUsuarioUserName(usuario);
                 tituloFiltro = "👤 Logs de Usuario: " + usuario;
-            } else {
-                // Por defecto, mostrar los últimos 100 logs
-                logs = logAccesoDao.findTopNByOrderByFechaHoraDesc(PageRequest.of(0, 100));
             }
             
-            // Obtener estadísticas generales
-            Object[] estadisticasGenerales = logAccesoDao.getEstadisticasGenerales();
-            Object[] estadisticasHoy = logAccesoDao.getEstadisticasHoy();
-            
-            if (estadisticasGenerales != null && estadisticasGenerales.length >= 6) {
-                model.addAttribute("totalLogs", ((Number) estadisticasGenerales[0]).longValue());
-                model.addAttribute("logsExitosos", ((Number) estadisticasGenerales[1]).longValue());
-                model.addAttribute("logsErrores", ((Number) estadisticasGenerales[2]).longValue());
-                model.addAttribute("logsFallidos", ((Number) estadisticasGenerales[3]).longValue());
-                model.addAttribute("totalAperturas", ((Number) estadisticasGenerales[4]).longValue());
-                model.addAttribute("totalLogins", ((Number) estadisticasGenerales[5]).longValue());
-            } else {
-                // Valores por defecto si no hay estadísticas
-                model.addAttribute("totalLogs", 0L);
-                model.addAttribute("logsExitosos", 0L);
-                model.addAttribute("logsErrores", 0L);
-                model.addAttribute("logsFallidos", 0L);
-                model.addAttribute("totalAperturas", 0L);
-                model.addAttribute("totalLogins", 0L);
-            }
+            PaginaLogs pagina = logService.obtenerPaginaLogs(filtro, usuario, cursor, tamano);
+            List<LogAcceso> logs = pagina.getLogs();
             
-            // Procesar estadísticas de hoy
-            if (estadisticasHoy != null && estadisticasHoy.length >= 4) {
-                model.addAttribute("logsHoy", ((Number) estadisticasHoy[0]).longValue());
-                model.addAttribute("aperturasHoy", ((Number) estadisticasHoy[2]).longValue());
-                model.addAttribute("usuariosActivosHoy", ((Number) estadisticasHoy[3]).longValue());
-                model.addAttribute("erroresHoy", 0L); // Calcularemos esto después si es necesario
-            } else {
-                model.addAttribute("logsHoy", 0L);
-                model.addAttribute("aperturasHoy", 0L);
-                model.addAttribute("usuariosActivosHoy", 0L);
-                model.addAttribute("erroresHoy", 0L);
-            }
+            // Estadísticas generales (contadores en memoria, sin recorrer la tabla)
+            EstadisticasLogs estadisticasGenerales = estadisticasLogsService.obtenerEstadisticasGenerales();
+            Map<String, Long> resumenHoy = actividadLogsService.obtenerResumenDia(LocalDate.now());
+            
+            model.addAttribute("totalLogs", estadisticasGenerales.getTotalLogs());
+            model.addAttribute("logsExitosos", estadisticasGenerales.getExitosos());
+            model.addAttribute("logsErrores", estadisticasGenerales.getErrores());
+            model.addAttribute("logsFallidos", estadisticasGenerales.getFallidos());
+            model.addAttribute("totalAperturas", estadisticasGenerales.getAperturas());
+            model.addAttribute("totalLogins", estadisticasGenerales.getLogins());
+            
+            // Estadísticas de hoy (cubeta diaria del resumen de actividad)
+            model.addAttribute("logsHoy", resumenHoy.get("logs"));
+            model.addAttribute("aperturasHoy", resumenHoy.get("aperturas"));
+            model.addAttribute("usuariosActivosHoy", resumenHoy.get("usuariosActivos"));
+            model.addAttribute("erroresHoy", resumenHoy.get("errores"));
             
             // Obtener usuarios más activos
-            List<Object[]> usuariosMasActivos = logAccesoDao.getUsuariosMasActivos();
+            List<Object[]> usuariosMasActivos = actividadLogsService.obtenerUsuariosMasActivos(10);
             model.addAttribute("usuariosMasActivos", usuariosMasActivos);
             
-            // Obtener lista de todos los usuarios para el filtro
-            List<Usuario> todosUsuarios = usuarioDao.findAll();
-            model.addAttribute("todosUsuarios", todosUsuarios);
-            
             // Agregar datos al modelo
             model.addAttribute("logs", logs);
             model.addAttribute("tituloFiltro", tituloFiltro);
             model.addAttribute("filtroActual", filtro);
             model.addAttribute("usuarioFiltro", usuario);
             model.addAttribute("totalLogsEncontrados", logs.size());
+            model.addAttribute("siguienteCursor", pagina.getSiguienteCursor());
+            model.addAttribute("hayMas", pagina.isHayMas());
+            model.addAttribute("tamanoPagina", pagina.getTamano());
+            model.addAttribute("paginaInicial", cursor == null || cursor.isBlank());
             model.addAttribute("fechaActual", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
             
-            System.out.println("📊 Logs cargados: " + logs.size() + " registros encontrados");
+            System.out.println("📊 Logs cargados: " + logs.size() + " registros en la página" + (pagina.isHayMas() ? " (hay más)" : ""));
             System.out.println("🎯 Filtro aplicado: " + tituloFiltro);
             
             return "logs-cyberpunk";
@@ -197,15 +177,15 @@ public class LogsController {
      */
     @GetMapping("/api/realtime")
     @ResponseBody
-    public ResponseEntity<?> obtenerLogsRealTime(HttpSession session,
+    public ResponseEntity<?> obtenerLogsRealTime(@AuthenticationPrincipal PrincipalSesion principal,
                                                 @RequestParam(defaultValue = "20") int limit) {
         
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            List<LogAcceso> logs = logAccesoDao.findTopNByOrderByFechaHoraDesc(PageRequest.of(0, limit));
+            List<LogAcceso> logs = logService.obtenerUltimosLogs(limit);
             
             Map<String, Object> response = new HashMap<>();
             response.put("logs", logs);
@@ -221,37 +201,123 @@ public class LogsController {
         }
     }
 
+    /**
+     * API incremental de tiempo real: sólo los logs con id mayor que "desde", en formato compacto.
+     * El ETag es el último id conocido, así que mientras no lleguen logs nuevos se responde 304.
+     * Si el cliente se ha quedado demasiado atrás (o no manda cursor) se devuelven los últimos
+     * logs con reiniciar=true para que sustituya la lista.
+     */
+    @GetMapping("/api/realtime/delta")
+    @ResponseBody
+    public ResponseEntity<?> obtenerLogsDelta(@AuthenticationPrincipal PrincipalSesion principal, WebRequest webRequest,
+                                              @RequestParam(required = false) Long desde,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        
+        if (principal == null || !principal.esAdmin()) {
+            return ResponseEntity.status(403).body("❌ Acceso denegado");
+        }
+        
+        long ultimoId = logsRecientesService.getUltimoId();
+        String etag = "\"logs-" + ultimoId + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        int maximo = Math.max(1, Math.min(limit, 200));
+        Optional<List<LogAcceso>> nuevos = desde != null
+            ? logsRecientesService.obtenerDesde(desde, maximo + 1) : Optional.empty();
+        
+        Map<String, Object> response = new HashMap<>();
+        if (nuevos.isPresent()) {
+            List<LogAcceso> logs = nuevos.get();
+            boolean hayMas = logs.size() > maximo;
+            List<LogAcceso> pagina = hayMas ? logs.subList(0, maximo) : logs;
+            response.put("logs", pagina.stream().map(LogResumen::new).toList());
+            // El cursor nunca pasa de la última fila devuelta: sin filas se queda donde estaba
+            response.put("cursor", pagina.isEmpty() ? desde : pagina.get(pagina.size() - 1).getIdLog());
+            response.put("hayMas", hayMas);
+            response.put("reiniciar", false);
+        } else {
+            // Del más reciente al más antiguo, como la tabla; el cursor es el id más reciente devuelto
+            List<LogAcceso> ultimos = logsRecientesService.obtenerUltimos(maximo);
+            response.put("logs", ultimos.stream().map(LogResumen::new).toList());
+            response.put("cursor", ultimos.isEmpty() ? (desde != null ? desde : 0L) : ultimos.get(0).getIdLog());
+            response.put("hayMas", false);
+            response.put("reiniciar", true);
+        }
+        response.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .body(response);
+    }
+
+    /**
+     * API de logs paginada por cursor: devuelve una página y el cursor de la siguiente
+     */
+    @GetMapping("/api/pagina")
+    @ResponseBody
+    public ResponseEntity<?> obtenerPaginaLogs(@AuthenticationPrincipal PrincipalSesion principal,
+                                              @RequestParam(required = false) String filtro,
+                                              @RequestParam(required = false) String usuario,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer tamano) {
+        
+        if (principal == null || !principal.esAdmin()) {
+            return ResponseEntity.status(403).body("❌ Acceso denegado");
+        }
+        
+        try {
+            PaginaLogs pagina = logService.obtenerPaginaLogs(filtro, usuario, cursor, tamano);
+            return ResponseEntity.ok(respuestaPagina(pagina));
+            
+        } catch (Exception e) {
+            System.out.println("❌ Error obteniendo página de logs: " + e.getMessage());
+            return ResponseEntity.internalServerError()
+                .body("Error al obtener la página de logs");
+        }
+    }
+
+    private Map<String, Object> respuestaPagina(PaginaLogs pagina) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", pagina.getLogs());
+        response.put("count", pagina.getLogs().size());
+        response.put("siguienteCursor", pagina.getSiguienteCursor());
+        response.put("hayMas", pagina.isHayMas());
+        response.put("tamano", pagina.getTamano());
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+
     /**
      * API para obtener estadísticas actualizadas
      */
     @GetMapping("/api/stats")
     @ResponseBody
-    public ResponseEntity<?> obtenerEstadisticas(HttpSession session) {
+    public ResponseEntity<?> obtenerEstadisticas(@AuthenticationPrincipal PrincipalSesion principal) {
         
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            Object[] estadisticasGenerales = logAccesoDao.getEstadisticasGenerales();
-            Object[] estadisticasHoy = logAccesoDao.getEstadisticasHoy();
+            EstadisticasLogs estadisticasGenerales = estadisticasLogsService.obtenerEstadisticasGenerales();
+            Map<String, Long> resumenHoy = actividadLogsService.obtenerResumenDia(LocalDate.now());
             
             Map<String, Object> stats = new HashMap<>();
             
-            if (estadisticasGenerales != null && estadisticasGenerales.length >= 6) {
-                stats.put("totalLogs", ((Number) estadisticasGenerales[0]).longValue());
-                stats.put("logsExitosos", ((Number) estadisticasGenerales[1]).longValue());
-                stats.put("logsErrores", ((Number) estadisticasGenerales[2]).longValue());
-                stats.put("totalAperturas", ((Number) estadisticasGenerales[4]).longValue());
-            }
+            stats.put("totalLogs", estadisticasGenerales.getTotalLogs());
+            stats.put("logsExitosos", estadisticasGenerales.getExitosos());
+            stats.put("logsErrores", estadisticasGenerales.getErrores());
+            stats.put("totalAperturas", estadisticasGenerales.getAperturas());
             
-            if (estadisticasHoy != null && estadisticasHoy.length >= 4) {
-                stats.put("logsHoy", ((Number) estadisticasHoy[0]).longValue());
-                stats.put("aperturasHoy", ((Number) estadisticasHoy[1]).longValue());
-                stats.put("usuariosActivosHoy", ((Number) estadisticasHoy[2]).longValue());
-                stats.put("erroresHoy", ((Number) estadisticasHoy[3]).longValue());
-            }
+            stats.put("logsHoy", resumenHoy.get("logs"));
+            stats.put("aperturasHoy", resumenHoy.get("aperturas"));
+            stats.put("usuariosActivosHoy", resumenHoy.get("usuariosActivos"));
+            stats.put("erroresHoy", resumenHoy.get("errores"));
             
+            stats.put("auditoria", escritorLogs.obtenerMetricas());
             stats.put("timestamp", LocalDateTime.now());
             
             return ResponseEntity.ok(stats);
@@ -264,26 +330,46 @@ public class LogsController {
     }
 
     /**
-     * API para búsqueda de logs
+     * API para búsqueda de logs: texto libre (índices de texto completo y trigramas) con filtros por
+     * usuario, IP, acción, resultado y rango de fechas; orden por relevancia o por fecha
      */
     @GetMapping("/api/search")
     @ResponseBody
-    public ResponseEntity<?> buscarLogs(@RequestParam String query, HttpSession session) {
+    public ResponseEntity<?> buscarLogs(@RequestParam(defaultValue = "") String query, @AuthenticationPrincipal PrincipalSesion principal,
+                                        @RequestParam(required = false) String usuario,
+                                        @RequestParam(required = false) String ip,
+                                        @RequestParam(required = false) String accion,
+                                        @RequestParam(required = false) String resultado,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                        @RequestParam(defaultValue = "RELEVANCIA") String orden,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer tamano) {
         
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            List<LogAcceso> logs = logAccesoDao.findBySearchTerm(query);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("logs", logs);
+            CriteriosBusquedaLogs criterios = new CriteriosBusquedaLogs();
+            criterios.setTexto(query);
+            criterios.setUsuario(usuario);
+            criterios.setIp(ip);
+            criterios.setAccion(accion);
+            criterios.setResultado(resultado);
+            criterios.setDesde(desde);
+            criterios.setHasta(hasta);
+            criterios.setOrden("FECHA".equalsIgnoreCase(orden)
+                ? CriteriosBusquedaLogs.Orden.FECHA : CriteriosBusquedaLogs.Orden.RELEVANCIA);
+            
+            PaginaLogs pagina = busquedaLogsService.buscar(criterios, cursor, tamano);
+            
+            Map<String, Object> response = respuestaPagina(pagina);
             response.put("query", query);
-            response.put("count", logs.size());
-            response.put("timestamp", LocalDateTime.now());
+            response.put("orden", criterios.getOrden().name());
+            response.put("indices", busquedaLogsService.obtenerEstado());
             
-            System.out.println("🔍 Búsqueda de logs: '" + query + "' - " + logs.size() + " resultados");
+            System.out.println("🔍 Búsqueda de logs: '" + query + "' - " + pagina.getLogs().size() + " resultados en la página");
             
             return ResponseEntity.ok(response);
             
@@ -294,19 +380,70 @@ public class LogsController {
         }
     }
 
+    /**
+     * Exportación de logs en CSV o NDJSON (opcionalmente gzip). Se escribe directamente en la respuesta
+     * mientras se leen las filas, sin cargar la exportación en memoria. No usa StreamingResponseBody para
+     * no quedar sujeta al timeout de peticiones asíncronas (spring.mvc.async.request-timeout).
+     */
+    @GetMapping("/api/export")
+    public void exportarLogs(@AuthenticationPrincipal PrincipalSesion principal, HttpServletResponse response,
+                             @RequestParam(required = false) String filtro,
+                             @RequestParam(required = false) String usuario,
+                             @RequestParam(required = false) String accion,
+                             @RequestParam(required = false) String resultado,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                             @RequestParam(defaultValue = "CSV") String formato,
+                             @RequestParam(defaultValue = "false") boolean gzip) throws IOException {
+        
+        if (principal == null || !principal.esAdmin()) {
+            response.sendError(403, "Acceso denegado");
+            return;
+        }
+        
+        ExportacionLogsService.Formato tipo = "NDJSON".equalsIgnoreCase(formato)
+            ? ExportacionLogsService.Formato.NDJSON : ExportacionLogsService.Formato.CSV;
+        
+        CriteriosBusquedaLogs criterios = new CriteriosBusquedaLogs();
+        criterios.setUsuario(usuario);
+        criterios.setAccion(accion);
+        criterios.setResultado(resultado);
+        criterios.setDesde(desde);
+        criterios.setHasta(hasta);
+        
+        String nombreArchivo = "esp32-logs-" + LocalDate.now()
+            + (tipo == ExportacionLogsService.Formato.NDJSON ? ".ndjson" : ".csv") + (gzip ? ".gz" : "");
+        if (gzip) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(tipo == ExportacionLogsService.Formato.NDJSON ? "application/x-ndjson" : "text/csv");
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + nombreArchivo + "\"");
+        
+        String adminUser = principal.getUserName();
+        try {
+            long total = exportacionLogsService.exportar(filtro, criterios, tipo, gzip, response.getOutputStream());
+            System.out.println("💾 Admin " + adminUser + " exportó " + total + " logs (" + nombreArchivo + ")");
+        } catch (IOException e) {
+            // Normalmente el navegador canceló la descarga
+            System.out.println("❌ Exportación de logs interrumpida: " + e.getMessage());
+        }
+    }
+
     /**
      * API para obtener actividad por horas (para gráficos)
      */
     @GetMapping("/api/activity-chart")
     @ResponseBody
-    public ResponseEntity<?> obtenerActividadPorHoras(HttpSession session) {
+    public ResponseEntity<?> obtenerActividadPorHoras(@AuthenticationPrincipal PrincipalSesion principal) {
         
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            List<Object[]> actividadPorHoras = logAccesoDao.getActividadPorHoras();
+            List<Object[]> actividadPorHoras = actividadLogsService.obtenerActividadPorHoras(LocalDate.now());
             
             Map<String, Object> chartData = new HashMap<>();
             chartData.put("actividadPorHoras", actividadPorHoras);
@@ -321,25 +458,72 @@ public class LogsController {
         }
     }
 
+    /**
+     * API de actividad agregada: los últimos N periodos (minutos, horas o días), total o por tipo de acción
+     */
+    @GetMapping("/api/actividad")
+    @ResponseBody
+    public ResponseEntity<?> obtenerActividad(@AuthenticationPrincipal PrincipalSesion principal,
+                                             @RequestParam(defaultValue = "HORA") String granularidad,
+                                             @RequestParam(defaultValue = "24") int periodos,
+                                             @RequestParam(defaultValue = "false") boolean porTipo) {
+        
+        if (principal == null || !principal.esAdmin()) {
+            return ResponseEntity.status(403).body("❌ Acceso denegado");
+        }
+        
+        Granularidad unidad;
+        try {
+            unidad = Granularidad.valueOf(granularidad.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Granularidad no válida: usar MINUTO, HORA o DIA");
+        }
+        
+        try {
+            int cantidad = Math.max(1, Math.min(periodos, 1000));
+            LocalDateTime hasta = unidad.truncar(LocalDateTime.now()).plus(1, unidad.getUnidad());
+            LocalDateTime desde = hasta.minus(cantidad, unidad.getUnidad());
+            
+            List<ResumenActividadLogs> cubetas = porTipo
+                ? actividadLogsService.obtenerActividadPorTipo(unidad, desde, hasta)
+                : actividadLogsService.obtenerActividad(unidad, desde, hasta);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("granularidad", unidad.name());
+            response.put("desde", desde);
+            response.put("hasta", hasta);
+            response.put("cubetas", cubetas);
+            response.put("timestamp", LocalDateTime.now());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            System.out.println("❌ Error obteniendo actividad agregada: " + e.getMessage());
+            return ResponseEntity.internalServerError()
+                .body("Error al obtener la actividad");
+        }
+    }
+
     /**
      * API para obtener logs de errores recientes
         */
     @GetMapping("/api/recent-errors")
     @ResponseBody
-    public ResponseEntity<?> obtenerErroresRecientes(HttpSession session) {
+    public ResponseEntity<?> obtenerErroresRecientes(@AuthenticationPrincipal PrincipalSesion principal,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer tamano) {
         
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            LocalDateTime hace24Horas = LocalDateTime.now().minusDays(1);
-            List<LogAcceso> erroresRecientes = logAccesoDao.getErroresRecientes(hace24Horas);
+            PaginaLogs pagina = logService.obtenerErroresRecientesPaginados(24, cursor, tamano);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("errores", erroresRecientes);
-            response.put("count", erroresRecientes.size());
-            response.put("timestamp", LocalDateTime.now());
+            Map<String, Object> response = respuestaPagina(pagina);
+            response.remove("logs");
+            response.put("errores", pagina.getLogs());
+            response.put("total24Horas", logAccesoDao.countPorResultadoDesde("ERROR", LocalDateTime.now().minusDays(1)));
             
             return ResponseEntity.ok(response);
             
@@ -356,29 +540,24 @@ public class LogsController {
     @PostMapping("/api/cleanup")
     @ResponseBody
     public ResponseEntity<?> limpiarLogsAntiguos(@RequestParam(defaultValue = "30") int diasAtras,
-                                               HttpSession session) {
+                                               @AuthenticationPrincipal PrincipalSesion principal) {
         
-        if (!isAdminAuthenticated(session)) {
+        if (principal == null || !principal.esAdmin()) {
             return ResponseEntity.status(403).body("❌ Acceso denegado");
         }
         
         try {
-            String adminUser = (String) session.getAttribute("userName");
+            String adminUser = principal.getUserName();
             LocalDateTime fechaLimite = LocalDateTime.now().minusDays(diasAtras);
             
-            // Contar logs a eliminar
-            List<LogAcceso> logsAEliminar = logAccesoDao.findByFechaHoraBetweenOrderByFechaHoraDesc(
-                LocalDateTime.now().minusYears(10), fechaLimite
-            );
-            
-            long cantidadEliminados = logsAEliminar.size();
-            
-            // Eliminar logs antiguos
-            logAccesoDao.deleteLogsAnterioresA(fechaLimite);
+            // Suelta las particiones caducadas y borra sólo el resto del periodo límite
+            Map<String, Object> retencion = particionesLogsService.aplicarRetencion(fechaLimite);
+            Object cantidadEliminados = retencion.get("logsEliminados");
             
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Logs antiguos eliminados exitosamente");
             response.put("cantidadEliminados", cantidadEliminados);
+            response.put("particionesEliminadas", retencion.get("particionesEliminadas"));
             response.put("fechaLimite", fechaLimite);
             response.put("ejecutadoPor", adminUser);
             response.put("timestamp", LocalDateTime.now());
@@ -394,6 +573,63 @@ public class LogsController {
         }
     }
 
+    /**
+     * API con las particiones de log_acceso y sus rangos
+     */
+    @GetMapping("/api/particiones")
+    @ResponseBody
+    public ResponseEntity<?> obtenerParticiones(@AuthenticationPrincipal PrincipalSesion principal) {
+        
+        if (principal == null || !principal.esAdmin()) {
+            return ResponseEntity.status(403).body("❌ Acceso denegado");
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("particionada", particionesLogsService.esParticionada());
+        response.put("particiones", particionesLogsService.listarParticiones());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * API de logs por rango de fechas que continúa por el archivo en disco (archivo=true)
+     */
+    @GetMapping("/api/historico")
+    @ResponseBody
+    public ResponseEntity<?> obtenerHistorico(@AuthenticationPrincipal PrincipalSesion principal,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                              @RequestParam(required = false) String usuario,
+                                              @RequestParam(defaultValue = "true") boolean archivo,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer tamano) {
+        
+        if (principal == null || !principal.esAdmin()) {
+            return ResponseEntity.status(403).body("❌ Acceso denegado");
+        }
+        
+        PaginaLogs pagina = logService.obtenerLogsHistoricos(desde, hasta, usuario, archivo, cursor, tamano);
+        Map<String, Object> response = respuestaPagina(pagina);
+        response.put("incluyeArchivo", archivo);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * API con el índice de días archivados en disco
+     */
+    @GetMapping("/api/archivo")
+    @ResponseBody
+    public ResponseEntity<?> obtenerArchivo(@AuthenticationPrincipal PrincipalSesion principal) {
+        
+        if (principal == null || !principal.esAdmin()) {
+            return ResponseEntity.status(403).body("❌ Acceso denegado");
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("dias", archivoLogsService.listarArchivos());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Endpoint para redirigir desde el dashboard admin
      */
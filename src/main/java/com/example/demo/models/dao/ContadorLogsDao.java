@@ -0,0 +1,9 @@
+package com.example.demo.models.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import com.example.demo.models.entity.ContadorLogs;
+
+@Repository
+public interface ContadorLogsDao extends JpaRepository<ContadorLogs, String> {
+}
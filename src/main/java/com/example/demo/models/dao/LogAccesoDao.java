@@ -4,73 +4,167 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import com.example.demo.models.entity.CategoriaAccion;
 import com.example.demo.models.entity.LogAcceso;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
     
+    /*
+     * Paginación keyset: todos los listados se ordenan por (fechaHora DESC, idLog DESC) y
+     * devuelven sólo las filas posteriores al cursor, con el límite que indique el Pageable
+     * (siempre página 0). El coste de cada página no depende del tamaño de la tabla.
+     */
+    String TRAS_CURSOR = "l.fechaHora <= :cursorFecha AND (l.fechaHora < :cursorFecha OR l.idLog < :cursorId)";
+    String ORDEN_KEYSET = " ORDER BY l.fechaHora DESC, l.idLog DESC";
+
     /**
-     * Obtener logs por usuario
+     * Página de todos los logs
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByUserName(@Param("userName") String userName);
-    
+    @Query("SELECT l FROM LogAcceso l WHERE " + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaTodos(@Param("cursorFecha") LocalDateTime cursorFecha,
+                                @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener logs por usuario con nombre de campo correcto
+     * Página de logs por usuario
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :usuario ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByUsuarioUserName(@Param("usuario") String usuario);
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName AND " + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorUsuario(@Param("userName") String userName,
+                                     @Param("cursorFecha") LocalDateTime cursorFecha,
+                                     @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener logs por acción
+     * Página de logs por acción
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.accion = :accion ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByAccion(@Param("accion") String accion);
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.accion = :accion AND " + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorAccion(@Param("accion") String accion,
+                                    @Param("cursorFecha") LocalDateTime cursorFecha,
+                                    @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener logs por resultado ordenados por fecha
+     * Página de logs por resultado
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.resultado = :resultado ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByResultadoOrderByFechaHoraDesc(@Param("resultado") String resultado);
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.resultado = :resultado AND " + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorResultado(@Param("resultado") String resultado,
+                                       @Param("cursorFecha") LocalDateTime cursorFecha,
+                                       @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener todos los logs ordenados por fecha
+     * Página de logs de apertura de puerta
      */
-    @Query("SELECT l FROM LogAcceso l ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findAllOrderByFechaHoraDesc();
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ") AND "
+           + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaAperturaPuerta(@Param("cursorFecha") LocalDateTime cursorFecha,
+                                         @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener logs de apertura de puerta
+     * Página de logs de autenticación
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.accion LIKE '%ABRIR%' OR l.accion LIKE '%PUERTA%' ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsAperturaPuerta();
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.categoria IN (" + CategoriaAccion.CODIGOS_AUTENTICACION + ") AND "
+           + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaAutenticacion(@Param("cursorFecha") LocalDateTime cursorFecha,
+                                        @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener logs entre fechas
+     * Página de logs de comandos ESP32 específicos
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.fechaHora BETWEEN :fechaInicio AND :fechaFin ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByFechaHoraBetweenOrderByFechaHoraDesc(@Param("fechaInicio") LocalDateTime fechaInicio, 
-                                                              @Param("fechaFin") LocalDateTime fechaFin);
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.accion IN ('ABRIR_PUERTA', 'CERRAR_PUERTA', 'TEST_CONEXION', 'COMANDO_PERSONALIZADO') AND "
+           + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaComandosESP32(@Param("cursorFecha") LocalDateTime cursorFecha,
+                                        @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener logs de la última semana
+     * Página de logs en [fechaInicio, fechaFin)
      */
-    @Query("SELECT l FROM LogAcceso l WHERE l.fechaHora >= :fechaInicio ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsUltimaSemana(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
+    @Query("SELECT l FROM LogAcceso l WHERE l.fechaHora >= :fechaInicio AND l.fechaHora < :fechaFin AND "
+           + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaEntreFechas(@Param("fechaInicio") LocalDateTime fechaInicio,
+                                      @Param("fechaFin") LocalDateTime fechaFin,
+                                      @Param("cursorFecha") LocalDateTime cursorFecha,
+                                      @Param("cursorId") Long cursorId, Pageable limite);
+
+    /**
+     * Página de logs con un resultado desde una fecha (p. ej. errores recientes)
+     */
+    @Query("SELECT l FROM LogAcceso l WHERE l.resultado = :resultado AND l.fechaHora >= :fechaLimite AND "
+           + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorResultadoDesde(@Param("resultado") String resultado,
+                                            @Param("fechaLimite") LocalDateTime fechaLimite,
+                                            @Param("cursorFecha") LocalDateTime cursorFecha,
+                                            @Param("cursorId") Long cursorId, Pageable limite);
+
     /**
-     * Obtener últimos N logs con Pageable
+     * Página de logs por tipo de acción
      */
-    @Query("SELECT l FROM LogAcceso l ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findTopNByOrderByFechaHoraDesc(Pageable pageable);
+    @Query("SELECT l FROM LogAcceso l WHERE l.tipoAccion = :tipoAccion AND " + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorTipoAccion(@Param("tipoAccion") String tipoAccion,
+                                        @Param("cursorFecha") LocalDateTime cursorFecha,
+                                        @Param("cursorId") Long cursorId, Pageable limite);
 
-    @Query("SELECT l FROM LogAcceso l WHERE l.tipoAccion = :tipoAccion ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByTipoAccion(@Param("tipoAccion") String tipoAccion);
+    /**
+     * Página de logs por usuario y tipo de acción
+     */
+    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName AND l.tipoAccion = :tipoAccion AND "
+           + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorUsuarioYTipo(@Param("userName") String userName,
+                                          @Param("tipoAccion") String tipoAccion,
+                                          @Param("cursorFecha") LocalDateTime cursorFecha,
+                                          @Param("cursorId") Long cursorId, Pageable limite);
+
+    /**
+     * Página de logs por IP específica
+     */
+    @Query("SELECT l FROM LogAcceso l WHERE l.direccionIp = :ip AND " + TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorIp(@Param("ip") String ip,
+                                @Param("cursorFecha") LocalDateTime cursorFecha,
+                                @Param("cursorId") Long cursorId, Pageable limite);
+
+    /**
+     * Página de logs por múltiples criterios (los nulos no filtran)
+     */
+    @Query("SELECT l FROM LogAcceso l WHERE " +
+           "(:userName IS NULL OR l.userName = :userName) AND " +
+           "(:accion IS NULL OR l.accion LIKE CONCAT('%', :accion, '%')) AND " +
+           "(:resultado IS NULL OR l.resultado = :resultado) AND " +
+           "l.fechaHora >= :fechaInicio AND l.fechaHora <= :fechaFin AND " +
+           TRAS_CURSOR + ORDEN_KEYSET)
+    List<LogAcceso> paginaPorCriterios(@Param("userName") String userName,
+                                       @Param("accion") String accion,
+                                       @Param("resultado") String resultado,
+                                       @Param("fechaInicio") LocalDateTime fechaInicio,
+                                       @Param("fechaFin") LocalDateTime fechaFin,
+                                       @Param("cursorFecha") LocalDateTime cursorFecha,
+                                       @Param("cursorId") Long cursorId, Pageable limite);
+
+    /**
+     * Logs a exportar en orden cronológico, leídos del cursor de la base de datos por bloques
+     * (requiere transacción abierta mientras se consume el Stream)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM LogAcceso l WHERE l.fechaHora >= :desde AND l.fechaHora < :hasta " +
+           "AND (:usuario IS NULL OR l.userName = :usuario) " +
+           "AND (:accion IS NULL OR l.accion = :accion) " +
+           "AND (:resultado IS NULL OR l.resultado = :resultado) " +
+           "AND (:soloAperturas = false OR l.categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ")) " +
+           "ORDER BY l.fechaHora, l.idLog")
+    Stream<LogAcceso> streamParaExportar(@Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta,
+                                         @Param("usuario") String usuario,
+                                         @Param("accion") String accion,
+                                         @Param("resultado") String resultado,
+                                         @Param("soloAperturas") boolean soloAperturas);
 
     @Query("SELECT COUNT(l) FROM LogAcceso l WHERE l.tipoAccion = :tipoAccion")
     long countByTipoAccion(@Param("tipoAccion") String tipoAccion);
@@ -82,69 +176,43 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
        "FROM LogAcceso l GROUP BY l.tipoAccion ORDER BY total DESC")
     List<Object[]> getEstadisticasPorTipoAccion();
 
-    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName AND l.tipoAccion = :tipoAccion ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByUserNameAndTipoAccion(@Param("userName") String userName, @Param("tipoAccion") String tipoAccion);
-
     /**
-     * Obtener estadísticas generales del sistema
+     * Conteos por resultado y tipo de acción de los logs con id mayor que desdeId (0 = toda la tabla).
+     * Columnas: resultado, tipoAccion, total, aperturas, logins, mayor idLog
      */
-    @Query("SELECT " +
-           "COUNT(l) as totalLogs, " +
-           "SUM(CASE WHEN l.resultado = 'EXITOSO' THEN 1 ELSE 0 END) as exitosos, " +
-           "SUM(CASE WHEN l.resultado = 'ERROR' THEN 1 ELSE 0 END) as errores, " +
-           "SUM(CASE WHEN l.resultado = 'FALLIDO' THEN 1 ELSE 0 END) as fallidos, " +
-           "SUM(CASE WHEN l.accion LIKE '%ABRIR%' OR l.accion LIKE '%PUERTA%' THEN 1 ELSE 0 END) as aperturas, " +
-           "SUM(CASE WHEN l.accion LIKE '%LOGIN%' OR l.accion LIKE '%AUTENTICAR%' THEN 1 ELSE 0 END) as logins " +
-           "FROM LogAcceso l")
-    Object[] getEstadisticasGenerales();
-    
-    /**
-     * Obtener estadísticas de hoy - SIN FUNCIONES DE FECHA
-     */
-    @Query("SELECT " +
-           "COUNT(l) as logsHoy, " +
-           "SUM(CASE WHEN l.accion LIKE '%ABRIR%' OR l.accion LIKE '%PUERTA%' THEN 1 ELSE 0 END) as aperturasHoy, " +
-           "COUNT(DISTINCT l.userName) as usuariosActivosHoy, " +
-           "SUM(CASE WHEN l.resultado = 'ERROR' THEN 1 ELSE 0 END) as erroresHoy " +
-           "FROM LogAcceso l WHERE l.fechaHora >= :inicioHoy AND l.fechaHora < :finHoy")
-    Object[] getEstadisticasHoy(@Param("inicioHoy") LocalDateTime inicioHoy, @Param("finHoy") LocalDateTime finHoy);
+    @Query("SELECT l.resultado, l.tipoAccion, COUNT(l), " +
+           "SUM(CASE WHEN l.categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ") THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN l.categoria = " + CategoriaAccion.CODIGO_LOGIN + " THEN 1 ELSE 0 END), " +
+           "MAX(l.idLog) " +
+           "FROM LogAcceso l WHERE l.idLog > :desdeId GROUP BY l.resultado, l.tipoAccion")
+    List<Object[]> getConteosDesdeId(@Param("desdeId") Long desdeId);
     
     /**
-     * Obtener usuarios más activos
+     * Mismos conteos que getConteosDesdeId para los logs en [desde, hasta) (lo que se va a borrar)
      */
-    @Query("SELECT l.userName, COUNT(l) as totalAcciones, " +
-           "SUM(CASE WHEN l.resultado = 'EXITOSO' THEN 1 ELSE 0 END) as exitosos " +
-           "FROM LogAcceso l " +
-           "GROUP BY l.userName " +
-           "ORDER BY totalAcciones DESC")
-    List<Object[]> getUsuariosMasActivos();
+    @Query("SELECT l.resultado, l.tipoAccion, COUNT(l), " +
+           "SUM(CASE WHEN l.categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ") THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN l.categoria = " + CategoriaAccion.CODIGO_LOGIN + " THEN 1 ELSE 0 END), " +
+           "MAX(l.idLog) " +
+           "FROM LogAcceso l WHERE l.fechaHora >= :desde AND l.fechaHora < :hasta GROUP BY l.resultado, l.tipoAccion")
+    List<Object[]> getConteosEntreFechas(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
     
     /**
-     * Buscar logs por término de búsqueda
+     * Mismos conteos para los logs de un usuario anteriores a una fecha (lo que borra la limpieza por usuario)
      */
-    @Query("SELECT l FROM LogAcceso l WHERE " +
-           "LOWER(l.userName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(l.accion) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(l.resultado) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(COALESCE(l.detalles, '')) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findBySearchTerm(@Param("searchTerm") String searchTerm);
+    @Query("SELECT l.resultado, l.tipoAccion, COUNT(l), " +
+           "SUM(CASE WHEN l.categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ") THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN l.categoria = " + CategoriaAccion.CODIGO_LOGIN + " THEN 1 ELSE 0 END), " +
+           "MAX(l.idLog) " +
+           "FROM LogAcceso l WHERE l.userName = :userName AND l.fechaHora < :fechaLimite GROUP BY l.resultado, l.tipoAccion")
+    List<Object[]> getConteosUsuarioAnterioresA(@Param("userName") String userName,
+                                                @Param("fechaLimite") LocalDateTime fechaLimite);
     
     /**
-     * Obtener actividad por horas - SIMPLIFICADA (SOLO CUENTA POR PERÍODO)
+     * Fecha del log más antiguo que queda en la tabla (null si está vacía)
      */
-    @Query("SELECT l.fechaHora, COUNT(l) as cantidad " +
-           "FROM LogAcceso l " +
-           "WHERE l.fechaHora >= :inicioHoy AND l.fechaHora < :finHoy " +
-           "GROUP BY l.fechaHora " +
-           "ORDER BY l.fechaHora")
-    List<Object[]> getActividadPorHoras(@Param("inicioHoy") LocalDateTime inicioHoy, @Param("finHoy") LocalDateTime finHoy);
-    
-    /**
-     * Obtener errores recientes
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.resultado = 'ERROR' AND l.fechaHora >= :fechaLimite ORDER BY l.fechaHora DESC")
-    List<LogAcceso> getErroresRecientes(@Param("fechaLimite") LocalDateTime fechaLimite);
+    @Query("SELECT MIN(l.fechaHora) FROM LogAcceso l")
+    LocalDateTime findFechaMasAntigua();
     
     /**
      * Eliminar logs anteriores a una fecha específica
@@ -152,7 +220,7 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
     @Modifying
     @Transactional
     @Query("DELETE FROM LogAcceso l WHERE l.fechaHora < :fechaLimite")
-    void deleteLogsAnterioresA(@Param("fechaLimite") LocalDateTime fechaLimite);
+    int deleteLogsAnterioresA(@Param("fechaLimite") LocalDateTime fechaLimite);
     
     /**
      * Contar logs por usuario
@@ -160,42 +228,12 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
     @Query("SELECT COUNT(l) FROM LogAcceso l WHERE l.userName = :userName")
     long countByUserName(@Param("userName") String userName);
     
-    /**
-     * Obtener logs por usuario y acción
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName AND l.accion = :accion ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByUserNameAndAccion(@Param("userName") String userName, @Param("accion") String accion);
-    
-    /**
-     * Obtener logs de la última hora
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.fechaHora >= :fechaHace1Hora ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsUltimaHora(@Param("fechaHace1Hora") LocalDateTime fechaHace1Hora);
-    
-    /**
-     * Obtener logs de un usuario específico hoy
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName AND l.fechaHora >= :inicioHoy AND l.fechaHora < :finHoy ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsUsuarioHoy(@Param("userName") String userName, @Param("inicioHoy") LocalDateTime inicioHoy, @Param("finHoy") LocalDateTime finHoy);
-    
     /**
      * Verificar si hay actividad reciente de un usuario
      */
     @Query("SELECT COUNT(l) > 0 FROM LogAcceso l WHERE l.userName = :userName AND l.fechaHora >= :fechaLimite")
     boolean hasRecentActivity(@Param("userName") String userName, @Param("fechaLimite") LocalDateTime fechaLimite);
     
-    /**
-     * Obtener logs de autenticación
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.accion LIKE '%LOGIN%' OR l.accion LIKE '%LOGOUT%' OR l.accion LIKE '%AUTENTICAR%' ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsAutenticacion();
-    
-    /**
-     * Obtener logs por IP específica
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.direccionIp = :ip ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByDireccionIp(@Param("ip") String ip);
-    
     /**
      * Obtener IPs más activas
      */
@@ -206,14 +244,6 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
            "ORDER BY cantidad DESC")
     List<Object[]> getIpsMasActivas();
     
-    /**
-     * Obtener logs por tipo de resultado y período
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.resultado = :resultado AND l.fechaHora BETWEEN :fechaInicio AND :fechaFin ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByResultadoAndFechaBetween(@Param("resultado") String resultado, 
-                                                  @Param("fechaInicio") LocalDateTime fechaInicio, 
-                                                  @Param("fechaFin") LocalDateTime fechaFin);
-    
     /**
      * Contar acciones por usuario en un período
      */
@@ -228,12 +258,6 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
     @Query("SELECT l FROM LogAcceso l WHERE l.userName = :userName ORDER BY l.fechaHora DESC")
     List<LogAcceso> findTopByUserNameOrderByFechaHoraDesc(@Param("userName") String userName, Pageable pageable);
     
-    /**
-     * Obtener logs de comandos ESP32 específicos
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.accion IN ('ABRIR_PUERTA', 'CERRAR_PUERTA', 'TEST_CONEXION', 'COMANDO_PERSONALIZADO') ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsComandosESP32();
-    
     /**
      * Estadísticas de éxito por acción
      */
@@ -246,12 +270,6 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
            "ORDER BY total DESC")
     List<Object[]> getEstadisticasPorAccion();
     
-    /**
-     * Logs de hoy con paginación
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.fechaHora >= :inicioHoy AND l.fechaHora < :finHoy ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findLogsHoyPaginado(@Param("inicioHoy") LocalDateTime inicioHoy, @Param("finHoy") LocalDateTime finHoy, Pageable pageable);
-    
     /**
      * Eliminar logs específicos de un usuario
      */
@@ -261,83 +279,36 @@ public interface LogAccesoDao extends JpaRepository<LogAcceso, Long> {
     void deleteLogsByUserNameAndFechaAnterior(@Param("userName") String userName, @Param("fechaLimite") LocalDateTime fechaLimite);
     
     /**
-     * Buscar logs por múltiples criterios
+     * Contar logs desde una fecha
      */
-    @Query("SELECT l FROM LogAcceso l WHERE " +
-           "(:userName IS NULL OR l.userName = :userName) AND " +
-           "(:accion IS NULL OR l.accion LIKE CONCAT('%', :accion, '%')) AND " +
-           "(:resultado IS NULL OR l.resultado = :resultado) AND " +
-           "(:fechaInicio IS NULL OR l.fechaHora >= :fechaInicio) AND " +
-           "(:fechaFin IS NULL OR l.fechaHora <= :fechaFin) " +
-           "ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByCriteriosMultiples(@Param("userName") String userName,
-                                           @Param("accion") String accion,
-                                           @Param("resultado") String resultado,
-                                           @Param("fechaInicio") LocalDateTime fechaInicio,
-                                           @Param("fechaFin") LocalDateTime fechaFin);
-    
-    /**
-     * Obtener logs con detalles específicos
-     */
-    @Query("SELECT l FROM LogAcceso l WHERE l.detalles IS NOT NULL AND l.detalles LIKE CONCAT('%', :detalle, '%') ORDER BY l.fechaHora DESC")
-    List<LogAcceso> findByDetallesContaining(@Param("detalle") String detalle);
+    @Query("SELECT COUNT(l) FROM LogAcceso l WHERE l.fechaHora >= :fechaLimite")
+    long countDesde(@Param("fechaLimite") LocalDateTime fechaLimite);
     
     /**
-     * MÉTODOS AUXILIARES DEFAULT PARA COMPATIBILIDAD
+     * Contar logs con un resultado desde una fecha
      */
+    @Query("SELECT COUNT(l) FROM LogAcceso l WHERE l.resultado = :resultado AND l.fechaHora >= :fechaLimite")
+    long countPorResultadoDesde(@Param("resultado") String resultado, @Param("fechaLimite") LocalDateTime fechaLimite);
     
     /**
-     * Método auxiliar para obtener logs de hoy (sin parámetros)
+     * Contar aperturas de un usuario en [fechaInicio, fechaFin)
      */
-    default List<LogAcceso> findLogsHoy() {
-        LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime finHoy = inicioHoy.plusDays(1);
-        return findByFechaHoraBetweenOrderByFechaHoraDesc(inicioHoy, finHoy);
-    }
+    @Query("SELECT COUNT(l) FROM LogAcceso l WHERE l.userName = :userName AND l.categoria = " + CategoriaAccion.CODIGO_ABRIR + " " +
+           "AND l.fechaHora >= :fechaInicio AND l.fechaHora < :fechaFin")
+    long countAperturasUsuarioEntre(@Param("userName") String userName,
+                                    @Param("fechaInicio") LocalDateTime fechaInicio,
+                                    @Param("fechaFin") LocalDateTime fechaFin);
     
     /**
-     * Método auxiliar para obtener estadísticas de hoy (sin parámetros)
-     */
-    default Object[] getEstadisticasHoy() {
-        LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime finHoy = inicioHoy.plusDays(1);
-        return getEstadisticasHoy(inicioHoy, finHoy);
-    }
-    
-    /**
-     * Método auxiliar para obtener actividad por horas de hoy (simplificado)
+     * MÉTODOS AUXILIARES DEFAULT PARA COMPATIBILIDAD
      */
-    default List<Object[]> getActividadPorHoras() {
-        LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime finHoy = inicioHoy.plusDays(1);
-        return getActividadPorHoras(inicioHoy, finHoy);
-    }
     
     /**
-     * Método auxiliar para obtener logs de usuario hoy
+     * Método auxiliar para contar aperturas de un usuario hoy
      */
-    default List<LogAcceso> findLogsUsuarioHoy(String userName) {
+    default long countAperturasUsuarioHoy(String userName) {
         LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
         LocalDateTime finHoy = inicioHoy.plusDays(1);
-        return findLogsUsuarioHoy(userName, inicioHoy, finHoy);
-    }
-    
-    /**
-     * Método auxiliar simplificado para actividad por día de semana
-     * (devuelve logs agrupados por fecha para procesamiento en Java)
-     */
-    default List<Object[]> getActividadPorDiaSemana(LocalDateTime fechaInicio) {
-        // En lugar de usar funciones SQL problemáticas, devolvemos logs por fecha
-        // para que el servicio los procese en Java
-        return findByFechaHoraBetweenOrderByFechaHoraDesc(fechaInicio, LocalDateTime.now())
-               .stream()
-               .collect(java.util.stream.Collectors.groupingBy(
-                   log -> log.getFechaHora().toLocalDate(),
-                   java.util.stream.Collectors.counting()
-               ))
-               .entrySet()
-               .stream()
-               .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
-               .toList();
+        return countAperturasUsuarioEntre(userName, inicioHoy, finHoy);
     }
-}
\ No newline at end of file
+}
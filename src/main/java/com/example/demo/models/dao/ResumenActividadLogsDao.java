@@ -0,0 +1,68 @@
+package com.example.demo.models.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import com.example.demo.models.entity.ResumenActividadLogs;
+import com.example.demo.models.entity.ResumenActividadLogs.Dimension;
+import com.example.demo.models.entity.ResumenActividadLogs.Granularidad;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ResumenActividadLogsDao extends JpaRepository<ResumenActividadLogs, Long> {
+
+    /**
+     * Cubetas de una granularidad y dimensión en [desde, hasta)
+     */
+    @Query("SELECT r FROM ResumenActividadLogs r WHERE r.granularidad = :granularidad AND r.dimension = :dimension " +
+           "AND r.inicio >= :desde AND r.inicio < :hasta ORDER BY r.inicio, r.valorDimension")
+    List<ResumenActividadLogs> findCubetas(@Param("granularidad") Granularidad granularidad,
+                                           @Param("dimension") Dimension dimension,
+                                           @Param("desde") LocalDateTime desde,
+                                           @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Cubetas de un valor concreto (un usuario o un tipo de acción) en [desde, hasta)
+     */
+    @Query("SELECT r FROM ResumenActividadLogs r WHERE r.granularidad = :granularidad AND r.dimension = :dimension " +
+           "AND r.valorDimension = :valor AND r.inicio >= :desde AND r.inicio < :hasta ORDER BY r.inicio")
+    List<ResumenActividadLogs> findCubetasDeValor(@Param("granularidad") Granularidad granularidad,
+                                                  @Param("dimension") Dimension dimension,
+                                                  @Param("valor") String valor,
+                                                  @Param("desde") LocalDateTime desde,
+                                                  @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Valores distintos con actividad en una cubeta (p. ej. usuarios activos en un día)
+     */
+    @Query("SELECT COUNT(r) FROM ResumenActividadLogs r WHERE r.granularidad = :granularidad " +
+           "AND r.dimension = :dimension AND r.inicio = :inicio")
+    long countValores(@Param("granularidad") Granularidad granularidad,
+                      @Param("dimension") Dimension dimension,
+                      @Param("inicio") LocalDateTime inicio);
+
+    /**
+     * Totales por valor de una dimensión sumando sus cubetas, de mayor a menor total:
+     * {valorDimension, total, exitosos}. Con DIA (sin retención) cubre todo el histórico.
+     */
+    @Query("SELECT r.valorDimension, SUM(r.total), SUM(r.exitosos) FROM ResumenActividadLogs r " +
+           "WHERE r.granularidad = :granularidad AND r.dimension = :dimension " +
+           "GROUP BY r.valorDimension ORDER BY SUM(r.total) DESC")
+    List<Object[]> sumarPorValor(@Param("granularidad") Granularidad granularidad,
+                                 @Param("dimension") Dimension dimension,
+                                 Pageable pageable);
+
+    /**
+     * Eliminar cubetas de una granularidad anteriores a una fecha (retención)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ResumenActividadLogs r WHERE r.granularidad = :granularidad AND r.inicio < :fechaLimite")
+    int deleteCubetasAnterioresA(@Param("granularidad") Granularidad granularidad,
+                                 @Param("fechaLimite") LocalDateTime fechaLimite);
+}
@@ -1,11 +1,14 @@
 package com.example.demo.models.dao;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import com.example.demo.models.dto.MetricasUsuarios;
+import com.example.demo.models.dto.UsuarioResumen;
 import com.example.demo.models.entity.Usuario;
 import java.util.List;
 import java.util.Optional;
@@ -19,17 +22,53 @@ public interface UsuarioDao extends JpaRepository<Usuario, Long> {
     @Query("SELECT u FROM Usuario u WHERE u.token = :token")
     Optional<Usuario> findByToken(@Param("token") String token);
     
+    /**
+     * Usuario del token con su rol en la misma consulta (para construir el principal de la sesión)
+     */
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.rol WHERE u.token = :token")
+    Optional<Usuario> findByTokenConRol(@Param("token") String token);
+    
+    @Query("SELECT u FROM Usuario u LEFT JOIN FETCH u.rol WHERE u.idUsuario = :idUsuario")
+    Optional<Usuario> findByIdConRol(@Param("idUsuario") Long idUsuario);
+    
     @Query("SELECT u FROM Usuario u WHERE u.user_name = :userName")
     Optional<Usuario> findByUserName(@Param("userName") String userName);
     
+    /**
+     * Todos los usuarios con rol y persona cargados en la misma consulta (sin N+1 al serializarlos)
+     */
+    @EntityGraph(attributePaths = {"rol", "persona"})
+    @Query("SELECT u FROM Usuario u ORDER BY u.idUsuario")
+    List<Usuario> findAllConRolYPersona();
+    
+    /**
+     * Filas de la tabla de usuarios del dashboard en una sola consulta
+     */
+    @Query("SELECT new com.example.demo.models.dto.UsuarioResumen(u.idUsuario, u.user_name, u.estado, r.nombre, " +
+           "p.nombre, p.paterno, u.token, u.fechaRegistro, u.fechaModificacion) " +
+           "FROM Usuario u LEFT JOIN u.rol r LEFT JOIN u.persona p ORDER BY u.idUsuario")
+    List<UsuarioResumen> findResumenes();
+    
     @Modifying
     @Transactional
     @Query("UPDATE Usuario u SET u.token = NULL WHERE u.user_name = :userName")
     void clearTokenByUserName(@Param("userName") String userName);
     
     /**
-     * Buscar usuarios por nombre de usuario (búsqueda parcial, insensible a mayúsculas)
+     * Marcador de "conectado" del modo de tokens firmados: actualiza solo token y fecha,
+     * sin cargar ni guardar la entidad completa
      */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Usuario u SET u.token = :marcador, u.fechaModificacion = :fecha WHERE u.idUsuario = :idUsuario")
+    int marcarConectado(@Param("idUsuario") Long idUsuario, @Param("marcador") String marcador,
+                        @Param("fecha") java.time.LocalDate fecha);
+    
+    /**
+     * Buscar usuarios por nombre de usuario (búsqueda parcial, insensible a mayúsculas),
+     * con rol y persona cargados en la misma consulta para serializarlos sin N+1
+     */
+    @EntityGraph(attributePaths = {"rol", "persona"})
     @Query("SELECT u FROM Usuario u WHERE LOWER(u.user_name) LIKE LOWER(CONCAT('%', :userName, '%'))")
     List<Usuario> findByUserNameContainingIgnoreCase(@Param("userName") String userName);
     
@@ -113,6 +152,19 @@ public interface UsuarioDao extends JpaRepository<Usuario, Long> {
            "FROM Usuario u")
     Object[] getSystemStats();
     
+    /**
+     * Contadores del dashboard en una sola consulta (LEFT JOIN: cuenta también usuarios sin rol)
+     */
+    @Query("SELECT new com.example.demo.models.dto.MetricasUsuarios(" +
+           "COUNT(u), " +
+           "SUM(CASE WHEN u.estado = 'ACTIVO' THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN u.estado = 'INACTIVO' THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN u.token IS NOT NULL THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN r.nombre = 'ADMIN' THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN r.nombre = 'USUARIO' THEN 1L ELSE 0L END)) " +
+           "FROM Usuario u LEFT JOIN u.rol r")
+    MetricasUsuarios getMetricas();
+    
     /**
      * Buscar usuarios sin token (desconectados)
      */
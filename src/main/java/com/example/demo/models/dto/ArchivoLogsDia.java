@@ -0,0 +1,27 @@
+package com.example.demo.models.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entrada del índice de archivo: un fichero con los logs de un día.
+ * usuarios es null cuando el día tiene demasiados usuarios distintos para listarlos.
+ */
+@Getter
+@Setter
+public class ArchivoLogsDia {
+    private LocalDate fecha;
+    private String fichero;
+    private long filas;
+    private long bytes;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+    private Long idMinimo;
+    private Long idMaximo;
+    private List<String> usuarios;
+    private LocalDateTime archivadoEn;
+}
@@ -0,0 +1,46 @@
+package com.example.demo.models.dto;
+
+import lombok.Getter;
+
+/**
+ * Resultado de un comando enviado al ESP32
+ */
+@Getter
+public class ComandoResultado {
+    private final String comando;
+    private final boolean exitoso;
+    private final int codigoHttp;
+    private final String respuesta;
+    private final String mensajeError;
+    private final long duracionMs;
+    private final boolean circuitoAbierto;  // Rechazado sin llegar a la placa
+
+    public ComandoResultado(String comando, boolean exitoso, int codigoHttp,
+                            String respuesta, String mensajeError, long duracionMs) {
+        this(comando, exitoso, codigoHttp, respuesta, mensajeError, duracionMs, false);
+    }
+
+    public ComandoResultado(String comando, boolean exitoso, int codigoHttp,
+                            String respuesta, String mensajeError, long duracionMs, boolean circuitoAbierto) {
+        this.comando = comando;
+        this.exitoso = exitoso;
+        this.codigoHttp = codigoHttp;
+        this.respuesta = respuesta;
+        this.mensajeError = mensajeError;
+        this.duracionMs = duracionMs;
+        this.circuitoAbierto = circuitoAbierto;
+    }
+
+    public static ComandoResultado exito(String comando, int codigoHttp, String respuesta, long duracionMs) {
+        return new ComandoResultado(comando, true, codigoHttp, respuesta, null, duracionMs);
+    }
+
+    public static ComandoResultado fallo(String comando, int codigoHttp, String mensajeError, long duracionMs) {
+        return new ComandoResultado(comando, false, codigoHttp, null, mensajeError, duracionMs);
+    }
+
+    public static ComandoResultado circuitoAbierto(String comando, String idDispositivo) {
+        return new ComandoResultado(comando, false, 0, null,
+                "Circuito abierto: el ESP32 " + idDispositivo + " no responde", 0, true);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.models.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Criterios de la búsqueda de logs: texto libre más filtros exactos por campo (los nulos no filtran)
+ */
+@Getter
+@Setter
+public class CriteriosBusquedaLogs {
+
+    public enum Orden { RELEVANCIA, FECHA }
+
+    private String texto;
+    private String usuario;
+    private String ip;
+    private String accion;
+    private String resultado;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+    private Orden orden = Orden.RELEVANCIA;
+
+    public boolean tieneTexto() {
+        return texto != null && !texto.isBlank();
+    }
+}
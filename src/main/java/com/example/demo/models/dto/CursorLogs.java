@@ -0,0 +1,52 @@
+package com.example.demo.models.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import lombok.Getter;
+
+/**
+ * Posición dentro del listado de logs ordenado por (fechaHora DESC, idLog DESC).
+ * Viaja al cliente como texto opaco (base64url de "fechaHora|idLog").
+ */
+@Getter
+public class CursorLogs {
+
+    // Cursor de la primera página: cualquier log queda "antes" de este punto
+    public static final CursorLogs INICIO = new CursorLogs(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime fechaHora;
+    private final Long idLog;
+
+    public CursorLogs(LocalDateTime fechaHora, Long idLog) {
+        this.fechaHora = fechaHora;
+        this.idLog = idLog;
+    }
+
+    public String codificar() {
+        String texto = fechaHora + "|" + idLog;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente; vacío o mal formado equivale a la primera página
+     */
+    public static CursorLogs decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf('|');
+            if (separador <= 0) {
+                return INICIO;
+            }
+            return new CursorLogs(LocalDateTime.parse(texto.substring(0, separador)),
+                                  Long.parseLong(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return INICIO;
+        }
+    }
+}
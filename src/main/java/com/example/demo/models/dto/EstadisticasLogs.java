@@ -0,0 +1,35 @@
+package com.example.demo.models.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Totales de log_acceso leídos de los contadores en memoria (sin consultar la tabla)
+ */
+@Getter
+public class EstadisticasLogs {
+    private final long totalLogs;
+    private final long exitosos;
+    private final long errores;
+    private final long fallidos;
+    private final long aperturas;
+    private final long logins;
+    private final Map<String, Long> porResultado;
+    private final Map<String, Long> porTipoAccion;
+    private final LocalDateTime calculadoEn;
+
+    public EstadisticasLogs(long totalLogs, long exitosos, long errores, long fallidos, long aperturas, long logins,
+                            Map<String, Long> porResultado, Map<String, Long> porTipoAccion, LocalDateTime calculadoEn) {
+        this.totalLogs = totalLogs;
+        this.exitosos = exitosos;
+        this.errores = errores;
+        this.fallidos = fallidos;
+        this.aperturas = aperturas;
+        this.logins = logins;
+        this.porResultado = porResultado;
+        this.porTipoAccion = porTipoAccion;
+        this.calculadoEn = calculadoEn;
+    }
+}
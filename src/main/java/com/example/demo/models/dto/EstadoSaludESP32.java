@@ -0,0 +1,46 @@
+package com.example.demo.models.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+
+/**
+ * Última comprobación de salud de una placa ESP32 (inmutable, se reemplaza en cada sondeo)
+ */
+@Getter
+public class EstadoSaludESP32 {
+    private final String idDispositivo;
+    private final boolean conectado;
+    private final long latenciaMs;
+    private final LocalDateTime ultimaComprobacion;
+    private final LocalDateTime conectadoDesde;
+    private final long comprobaciones;
+    private final long comprobacionesExitosas;
+    private final String estadoCircuito;
+
+    public EstadoSaludESP32(String idDispositivo, boolean conectado, long latenciaMs,
+                            LocalDateTime ultimaComprobacion, LocalDateTime conectadoDesde,
+                            long comprobaciones, long comprobacionesExitosas, String estadoCircuito) {
+        this.idDispositivo = idDispositivo;
+        this.conectado = conectado;
+        this.latenciaMs = latenciaMs;
+        this.ultimaComprobacion = ultimaComprobacion;
+        this.conectadoDesde = conectadoDesde;
+        this.comprobaciones = comprobaciones;
+        this.comprobacionesExitosas = comprobacionesExitosas;
+        this.estadoCircuito = estadoCircuito;
+    }
+
+    /**
+     * Segundos que lleva respondiendo sin interrupción (0 si está caída)
+     */
+    public long getUptimeSegundos() {
+        return conectado && conectadoDesde != null
+                ? Duration.between(conectadoDesde, LocalDateTime.now()).getSeconds() : 0;
+    }
+
+    public double getDisponibilidad() {
+        return comprobaciones > 0 ? (comprobacionesExitosas * 100.0) / comprobaciones : 0;
+    }
+}
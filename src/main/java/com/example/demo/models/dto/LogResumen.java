@@ -0,0 +1,36 @@
+package com.example.demo.models.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.models.entity.LogAcceso;
+
+import lombok.Getter;
+
+/**
+ * Proyección compacta de un log para el tiempo real: sin user agent y con los detalles recortados
+ */
+@Getter
+public class LogResumen {
+
+    private static final int LONGITUD_MAXIMA_DETALLES = 120;
+
+    private final Long idLog;
+    private final LocalDateTime fechaHora;
+    private final String userName;
+    private final String accion;
+    private final String resultado;
+    private final String tipoAccion;
+    private final String detalles;
+
+    public LogResumen(LogAcceso log) {
+        this.idLog = log.getIdLog();
+        this.fechaHora = log.getFechaHora();
+        this.userName = log.getUserName();
+        this.accion = log.getAccion();
+        this.resultado = log.getResultado();
+        this.tipoAccion = log.getTipoAccion();
+        String texto = log.getDetalles();
+        this.detalles = texto != null && texto.length() > LONGITUD_MAXIMA_DETALLES
+            ? texto.substring(0, LONGITUD_MAXIMA_DETALLES) + "…" : texto;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.models.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+
+/**
+ * Contadores de usuarios del dashboard, calculados en una sola consulta agregada
+ */
+@Getter
+public class MetricasUsuarios {
+
+    private final long total;
+    private final long activos;
+    private final long inactivos;
+    private final long conectados;
+    private final long administradores;
+    private final long usuarios;
+    private final LocalDateTime calculadoEn;
+
+    // Usado por la expresión constructora de UsuarioDao.getMetricas (SUM devuelve null sin filas)
+    public MetricasUsuarios(Long total, Long activos, Long inactivos, Long conectados,
+                            Long administradores, Long usuarios) {
+        this.total = valor(total);
+        this.activos = valor(activos);
+        this.inactivos = valor(inactivos);
+        this.conectados = valor(conectados);
+        this.administradores = valor(administradores);
+        this.usuarios = valor(usuarios);
+        this.calculadoEn = LocalDateTime.now();
+    }
+
+    private static long valor(Long numero) {
+        return numero != null ? numero : 0L;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.models.dto;
+
+import java.util.List;
+
+import com.example.demo.models.entity.LogAcceso;
+
+import lombok.Getter;
+
+/**
+ * Una página del listado de logs y el cursor para pedir la siguiente
+ */
+@Getter
+public class PaginaLogs {
+    private final List<LogAcceso> logs;
+    private final String siguienteCursor;
+    private final boolean hayMas;
+    private final int tamano;
+
+    public PaginaLogs(List<LogAcceso> logs, String siguienteCursor, boolean hayMas, int tamano) {
+        this.logs = logs;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = hayMas;
+        this.tamano = tamano;
+    }
+
+    public static PaginaLogs vacia(int tamano) {
+        return new PaginaLogs(List.of(), null, false, tamano);
+    }
+}
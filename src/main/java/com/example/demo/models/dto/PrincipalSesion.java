@@ -0,0 +1,35 @@
+package com.example.demo.models.dto;
+
+import com.example.demo.models.entity.Usuario;
+
+import lombok.Getter;
+
+/**
+ * Datos del usuario de una sesión que necesitan las comprobaciones de acceso (sin entidades JPA)
+ */
+@Getter
+public class PrincipalSesion {
+    private final Long idUsuario;
+    private final String userName;
+    private final String rol;
+    private final String estado;
+
+    public PrincipalSesion(Long idUsuario, String userName, String rol, String estado) {
+        this.idUsuario = idUsuario;
+        this.userName = userName;
+        this.rol = rol;
+        this.estado = estado;
+    }
+
+    /**
+     * Requiere el rol ya cargado (findByTokenConRol)
+     */
+    public static PrincipalSesion de(Usuario usuario) {
+        return new PrincipalSesion(usuario.getIdUsuario(), usuario.getUser_name(),
+                usuario.getRol() != null ? usuario.getRol().getNombre() : null, usuario.getEstado());
+    }
+
+    public boolean esAdmin() {
+        return "ADMIN".equals(rol);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.models.dto;
+
+import java.time.LocalDate;
+
+import lombok.Getter;
+
+/**
+ * Fila de la tabla de usuarios del dashboard, construida en la misma consulta que une rol y persona.
+ * Del token sólo se guarda el prefijo que se muestra.
+ */
+@Getter
+public class UsuarioResumen {
+
+    private static final int LONGITUD_PREFIJO_TOKEN = 12;
+
+    private final Long idUsuario;
+    private final String user_name;
+    private final String estado;
+    private final String rol;
+    private final String nombreCompleto;
+    private final String tokenPrefijo;
+    private final LocalDate fechaRegistro;
+    private final LocalDate fechaModificacion;
+
+    // Usado por la expresión constructora de UsuarioDao.findResumenes
+    public UsuarioResumen(Long idUsuario, String user_name, String estado, String rol, String nombre,
+                          String paterno, String token, LocalDate fechaRegistro, LocalDate fechaModificacion) {
+        this.idUsuario = idUsuario;
+        this.user_name = user_name;
+        this.estado = estado;
+        this.rol = rol;
+        this.nombreCompleto = nombre != null ? nombre + (paterno != null ? " " + paterno : "") : null;
+        this.tokenPrefijo = token != null && token.length() > LONGITUD_PREFIJO_TOKEN
+            ? token.substring(0, LONGITUD_PREFIJO_TOKEN) : token;
+        this.fechaRegistro = fechaRegistro;
+        this.fechaModificacion = fechaModificacion;
+    }
+
+    public boolean isConectado() {
+        return tokenPrefijo != null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.models.entity;
+
+/**
+ * Categoría de la acción de un log, guardada en log_acceso.categoria (smallint) al escribir el log.
+ * Sustituye a los LIKE '%ABRIR%' / '%PUERTA%' / '%LOGIN%' de las consultas por igualdades sobre un
+ * índice. Las reglas se evalúan en orden: la primera que coincide decide la categoría.
+ * Los códigos son persistentes: no se reordenan ni se reutilizan.
+ */
+public enum CategoriaAccion {
+    OTRA((short) 0),
+    ABRIR((short) 1),
+    PUERTA((short) 2),
+    LOGIN((short) 3),
+    LOGOUT((short) 4);
+
+    // Listas de códigos para las consultas JPQL (deben coincidir con los códigos de arriba)
+    public static final String CODIGOS_APERTURA = "1, 2";
+    public static final String CODIGOS_AUTENTICACION = "3, 4";
+    public static final String CODIGO_ABRIR = "1";
+    public static final String CODIGO_LOGIN = "3";
+
+    // Mismas reglas que clasificar(), para rellenar en SQL las filas anteriores a la columna
+    public static final String EXPRESION_SQL =
+        "CASE WHEN accion LIKE '%ABRIR%' THEN 1 " +
+        "WHEN accion LIKE '%PUERTA%' THEN 2 " +
+        "WHEN accion LIKE '%LOGIN%' OR accion LIKE '%AUTENTICAR%' THEN 3 " +
+        "WHEN accion LIKE '%LOGOUT%' THEN 4 " +
+        "ELSE 0 END";
+
+    private final short codigo;
+
+    CategoriaAccion(short codigo) {
+        this.codigo = codigo;
+    }
+
+    public short getCodigo() {
+        return codigo;
+    }
+
+    public static CategoriaAccion clasificar(String accion) {
+        if (accion == null) {
+            return OTRA;
+        }
+        if (accion.contains("ABRIR")) {
+            return ABRIR;
+        }
+        if (accion.contains("PUERTA")) {
+            return PUERTA;
+        }
+        if (accion.contains("LOGIN") || accion.contains("AUTENTICAR")) {
+            return LOGIN;
+        }
+        if (accion.contains("LOGOUT")) {
+            return LOGOUT;
+        }
+        return OTRA;
+    }
+
+    public static CategoriaAccion deCodigo(Short codigo) {
+        if (codigo != null) {
+            for (CategoriaAccion categoria : values()) {
+                if (categoria.codigo == codigo) {
+                    return categoria;
+                }
+            }
+        }
+        return OTRA;
+    }
+
+    // Lo que antes era accion LIKE '%ABRIR%' OR accion LIKE '%PUERTA%'
+    public boolean esApertura() {
+        return this == ABRIR || this == PUERTA;
+    }
+
+    // Lo que antes era accion LIKE '%LOGIN%' OR accion LIKE '%LOGOUT%' OR accion LIKE '%AUTENTICAR%'
+    public boolean esAutenticacion() {
+        return this == LOGIN || this == LOGOUT;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.models.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Copia persistida de un contador de estadísticas de log_acceso
+ * (clave como "total", "resultado.EXITOSO", "tipoAccion.ESP32" o la marca "ultimoIdLog")
+ */
+@Entity
+@Table(name = "contador_logs")
+@Setter
+@Getter
+public class ContadorLogs {
+    @Id
+    @Column(length = 120)
+    private String clave;
+
+    @Column(nullable = false)
+    private long valor;
+
+    @Column(nullable = false)
+    private LocalDateTime actualizado;
+
+    public ContadorLogs() {
+    }
+
+    public ContadorLogs(String clave, long valor, LocalDateTime actualizado) {
+        this.clave = clave;
+        this.valor = valor;
+        this.actualizado = actualizado;
+    }
+}
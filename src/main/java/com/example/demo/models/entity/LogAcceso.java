@@ -2,16 +2,31 @@ package com.example.demo.models.entity;
 
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
-@Table(name = "log_acceso")
+// Índices de los listados keyset (fechaHora DESC, idLog DESC) con y sin filtro de igualdad;
+// VerificadorPlanesLogs comprueba al arrancar que las consultas los usan
+@Table(name = "log_acceso", indexes = {
+    @Index(name = "idx_log_acceso_fecha", columnList = "fecha_hora DESC, id_log DESC"),
+    @Index(name = "idx_log_acceso_usuario_fecha", columnList = "user_name, fecha_hora DESC, id_log DESC"),
+    @Index(name = "idx_log_acceso_resultado_fecha", columnList = "resultado, fecha_hora DESC, id_log DESC"),
+    @Index(name = "idx_log_acceso_tipo_fecha", columnList = "tipo_accion, fecha_hora DESC, id_log DESC"),
+    @Index(name = "idx_log_acceso_accion_fecha", columnList = "accion, fecha_hora DESC, id_log DESC"),
+    @Index(name = "idx_log_acceso_ip_fecha", columnList = "direccion_ip, fecha_hora DESC, id_log DESC"),
+    @Index(name = "idx_log_acceso_categoria_fecha", columnList = "categoria, fecha_hora DESC, id_log DESC")
+})
 @Setter
 @Getter
 public class LogAcceso {
+    // Ids reservados por cada llamada a la secuencia (permite INSERT por lotes)
+    public static final int TAMANO_BLOQUE_IDS = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_acceso_seq")
+    @SequenceGenerator(name = "log_acceso_seq", sequenceName = "log_acceso_seq", allocationSize = TAMANO_BLOQUE_IDS)
     @Column(name = "id_log")
     private Long idLog;
     
@@ -24,6 +39,11 @@ public class LogAcceso {
     @Column(nullable = false)
     private String accion;
     
+    // Código de CategoriaAccion; se calcula al asignar la acción
+    @Setter(AccessLevel.NONE)
+    @Column(name = "categoria")
+    private Short categoria;
+    
     @Column(nullable = false)
     private String resultado;
     
@@ -42,6 +62,15 @@ public class LogAcceso {
     @Column(columnDefinition = "TEXT")
     private String detalles;
     
+    public void setAccion(String accion) {
+        this.accion = accion;
+        this.categoria = CategoriaAccion.clasificar(accion).getCodigo();
+    }
+    
+    public CategoriaAccion getCategoriaAccion() {
+        return CategoriaAccion.deCodigo(categoria);
+    }
+    
     // Constructor por defecto
     public LogAcceso() {
         this.fechaHora = LocalDateTime.now();
@@ -52,7 +81,7 @@ public class LogAcceso {
     public LogAcceso(String userName, String accion, String resultado) {
         this();
         this.userName = userName;
-        this.accion = accion;
+        setAccion(accion);
         this.resultado = resultado;
     }
     
@@ -0,0 +1,75 @@
+package com.example.demo.models.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Cubeta de actividad de log_acceso (minuto, hora o día) ya agregada.
+ * dimension TOTAL resume todos los logs; TIPO y USUARIO desglosan por tipoAccion / userName.
+ */
+@Entity
+@Table(name = "resumen_actividad_logs",
+       uniqueConstraints = @UniqueConstraint(name = "uk_resumen_actividad_cubeta",
+           columnNames = {"granularidad", "inicio", "dimension", "valor_dimension"}))
+@Setter
+@Getter
+public class ResumenActividadLogs {
+
+    public enum Granularidad {
+        MINUTO(ChronoUnit.MINUTES, "minute"),
+        HORA(ChronoUnit.HOURS, "hour"),
+        DIA(ChronoUnit.DAYS, "day");
+
+        private final ChronoUnit unidad;
+        private final String unidadSql;
+
+        Granularidad(ChronoUnit unidad, String unidadSql) {
+            this.unidad = unidad;
+            this.unidadSql = unidadSql;
+        }
+
+        public LocalDateTime truncar(LocalDateTime fecha) {
+            return fecha.truncatedTo(unidad);
+        }
+
+        public ChronoUnit getUnidad() {
+            return unidad;
+        }
+
+        // Unidad de date_trunc en PostgreSQL
+        public String getUnidadSql() {
+            return unidadSql;
+        }
+    }
+
+    public enum Dimension { TOTAL, TIPO, USUARIO }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_resumen")
+    private Long idResumen;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularidad granularidad;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Dimension dimension;
+
+    // '' para TOTAL, el tipoAccion o el userName en los desgloses
+    @Column(name = "valor_dimension", nullable = false)
+    private String valorDimension;
+
+    private long total;
+    private long exitosos;
+    private long errores;
+    private long aperturas;
+}
@@ -0,0 +1,43 @@
+package com.example.demo.models.servicio;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.models.entity.ResumenActividadLogs;
+import com.example.demo.models.entity.ResumenActividadLogs.Granularidad;
+
+public interface ActividadLogsService {
+
+    /**
+     * Cubetas totales de actividad en [desde, hasta)
+     */
+    List<ResumenActividadLogs> obtenerActividad(Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Cubetas desglosadas por tipo de acción en [desde, hasta)
+     */
+    List<ResumenActividadLogs> obtenerActividadPorTipo(Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Cubetas de un usuario en [desde, hasta) (sólo HORA y DIA)
+     */
+    List<ResumenActividadLogs> obtenerActividadUsuario(String userName, Granularidad granularidad,
+                                                       LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Logs por hora de un día como pares {hora (0-23), cantidad}
+     */
+    List<Object[]> obtenerActividadPorHoras(LocalDate dia);
+
+    /**
+     * Resumen de un día: logs, exitosos, errores, aperturas y usuariosActivos
+     */
+    Map<String, Long> obtenerResumenDia(LocalDate dia);
+
+    /**
+     * Usuarios con más logs en todo el histórico como {userName, total, exitosos}
+     */
+    List<Object[]> obtenerUsuariosMasActivos(int limite);
+}
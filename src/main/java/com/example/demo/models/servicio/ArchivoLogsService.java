@@ -0,0 +1,28 @@
+package com.example.demo.models.servicio;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.demo.models.dto.ArchivoLogsDia;
+import com.example.demo.models.dto.CursorLogs;
+import com.example.demo.models.entity.LogAcceso;
+
+public interface ArchivoLogsService {
+
+    /**
+     * Archiva en disco los logs anteriores al día indicado (un fichero por día) y, si todos se
+     * escribieron bien, los elimina de log_acceso. Devuelve el número de días archivados.
+     */
+    int archivarAnterioresA(LocalDate dia);
+
+    /**
+     * Logs archivados en [desde, hasta] posteriores al cursor en orden (fechaHora DESC, idLog DESC)
+     */
+    List<LogAcceso> consultar(LocalDateTime desde, LocalDateTime hasta, String usuario, CursorLogs cursor, int limite);
+
+    /**
+     * Índice de días archivados, del más reciente al más antiguo
+     */
+    List<ArchivoLogsDia> listarArchivos();
+}
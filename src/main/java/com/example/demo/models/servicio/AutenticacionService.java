@@ -2,6 +2,7 @@ package com.example.demo.models.servicio;
 
 import java.util.List;
 import java.util.Optional;
+import com.example.demo.models.dto.PrincipalSesion;
 import com.example.demo.models.entity.Usuario;
 import com.example.demo.models.entity.Persona;
 import com.example.demo.models.entity.Rol;
@@ -23,6 +24,11 @@ public interface AutenticacionService {
     Optional<Usuario> validarToken(String token);
     void cerrarSesion(String userName);
     
+    // Principal de la sesión desde la caché de tokens (sólo consulta la base de datos si no está o caducó)
+    Optional<PrincipalSesion> obtenerPrincipal(String token);
+    // Descarta de la caché los tokens de un usuario (cambio de estado, rol o token)
+    void invalidarSesionesUsuario(String userName);
+    
     // Validaciones
     boolean existeUsuario(String userName);
     boolean existePersonaPorCi(String ci);
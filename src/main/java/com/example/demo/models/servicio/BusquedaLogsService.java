@@ -0,0 +1,20 @@
+package com.example.demo.models.servicio;
+
+import java.util.Map;
+
+import com.example.demo.models.dto.CriteriosBusquedaLogs;
+import com.example.demo.models.dto.PaginaLogs;
+
+public interface BusquedaLogsService {
+
+    /**
+     * Busca logs con los criterios dados. Con texto y orden RELEVANCIA se ordena por ts_rank;
+     * en otro caso por fecha con paginación keyset. El cursor es el siguienteCursor de la página anterior.
+     */
+    PaginaLogs buscar(CriteriosBusquedaLogs criterios, String cursor, Integer tamano);
+
+    /**
+     * Estado de los índices de búsqueda (si no se pudieron crear se busca con LIKE)
+     */
+    Map<String, Object> obtenerEstado();
+}
@@ -1,8 +1,26 @@
 package com.example.demo.models.servicio;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.demo.models.dto.ComandoResultado;
+
 public interface ESP32Service {
+    // Operaciones sobre la placa por defecto
     boolean enviarComando(String comando);
+    CompletableFuture<ComandoResultado> enviarComandoAsync(String comando);
     String obtenerEstadoConexion();
     boolean conectarESP32();
     void desconectarESP32();
+    Map<String, Object> obtenerMetricasCliente();
+
+    // Operaciones sobre una placa concreta del registro
+    boolean enviarComando(String idDispositivo, String comando);
+    CompletableFuture<ComandoResultado> enviarComandoAsync(String idDispositivo, String comando);
+    String obtenerEstadoConexion(String idDispositivo);
+    Map<String, Object> obtenerMetricasCliente(String idDispositivo);
+    Map<String, Object> obtenerEstadoSalud(String idDispositivo);
+    boolean existeDispositivo(String idDispositivo);
+    List<Map<String, Object>> listarDispositivos();
 }
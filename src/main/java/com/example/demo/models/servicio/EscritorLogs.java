@@ -0,0 +1,18 @@
+package com.example.demo.models.servicio;
+
+import java.util.Map;
+
+import com.example.demo.models.entity.LogAcceso;
+
+public interface EscritorLogs {
+
+    /**
+     * Encolar un log para escribirlo en segundo plano (no espera a la base de datos)
+     */
+    void registrar(LogAcceso log);
+
+    /**
+     * Métricas del escritor (encolados, escritos, lotes, descartados...)
+     */
+    Map<String, Object> obtenerMetricas();
+}
@@ -0,0 +1,29 @@
+package com.example.demo.models.servicio;
+
+import java.util.List;
+
+import com.example.demo.models.dto.EstadisticasLogs;
+
+public interface EstadisticasLogsService {
+
+    /**
+     * Totales generales de log_acceso (lectura de contadores en memoria)
+     */
+    EstadisticasLogs obtenerEstadisticasGenerales();
+
+    /**
+     * Logs registrados con un tipo de acción
+     */
+    long contarPorTipoAccion(String tipoAccion);
+
+    /**
+     * Resta de los contadores unos conteos con el formato de LogAccesoDao.getConteosEntreFechas
+     * (logs que se van a eliminar), sin recorrer la tabla
+     */
+    void descontar(List<Object[]> conteos);
+
+    /**
+     * Vuelve a calcular los contadores desde la tabla (tras borrados de mantenimiento)
+     */
+    void recalcular();
+}
@@ -0,0 +1,19 @@
+package com.example.demo.models.servicio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.demo.models.dto.CriteriosBusquedaLogs;
+
+public interface ExportacionLogsService {
+
+    enum Formato { CSV, NDJSON }
+
+    /**
+     * Escribe en la salida los logs que cumplen el filtro rápido (aperturas, exitosos, errores, hoy, semana)
+     * y los criterios por campo (usuario, acción, resultado, desde, hasta), fila a fila y en memoria constante.
+     * Devuelve el número de logs exportados.
+     */
+    long exportar(String filtro, CriteriosBusquedaLogs criterios, Formato formato, boolean gzip,
+                  OutputStream salida) throws IOException;
+}
@@ -1,5 +1,6 @@
 package com.example.demo.models.servicio;
 
+import com.example.demo.models.dto.PaginaLogs;
 import com.example.demo.models.entity.LogAcceso;
 import java.util.List;
 import java.time.LocalDateTime;
@@ -23,7 +24,30 @@ public interface LogService {
                         String direccionIp, String userAgent, String detalles);
     
     /**
-     * Obtener logs de hoy
+     * Obtener una página de logs según filtro (o usuario si no hay filtro).
+     * El cursor es el siguienteCursor de la página anterior; null para la primera.
+     */
+    PaginaLogs obtenerPaginaLogs(String filtro, String usuario, String cursor, Integer tamano);
+    
+    /**
+     * Buscar logs por término, paginado por cursor
+     */
+    PaginaLogs buscarLogsPaginados(String termino, String cursor, Integer tamano);
+    
+    /**
+     * Errores de las últimas horas, paginados por cursor
+     */
+    PaginaLogs obtenerErroresRecientesPaginados(int horas, String cursor, Integer tamano);
+    
+    /**
+     * Logs en [desde, hasta] (opcionalmente de un usuario), paginados por cursor.
+     * Con incluirArchivo, al agotarse la tabla se continúa por los días archivados en disco.
+     */
+    PaginaLogs obtenerLogsHistoricos(LocalDateTime desde, LocalDateTime hasta, String usuario,
+                                     boolean incluirArchivo, String cursor, Integer tamano);
+    
+    /**
+     * Obtener logs de hoy (primera página)
      */
     List<LogAcceso> obtenerLogsHoy();
     
@@ -33,12 +57,12 @@ public interface LogService {
     Object[] obtenerEstadisticasHoy();
     
     /**
-     * Obtener logs por usuario
+     * Obtener logs por usuario (primera página)
      */
     List<LogAcceso> obtenerLogsPorUsuario(String userName);
     
     /**
-     * Obtener últimos logs
+     * Obtener últimos logs (limitado al tamaño máximo de página)
      */
     List<LogAcceso> obtenerUltimosLogs(int cantidad);
     
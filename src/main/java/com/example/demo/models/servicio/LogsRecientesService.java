@@ -0,0 +1,37 @@
+package com.example.demo.models.servicio;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import com.example.demo.models.entity.LogAcceso;
+
+/**
+ * Últimos logs escritos, servidos desde memoria sin consultar la base de datos
+ */
+public interface LogsRecientesService {
+
+    /**
+     * Los últimos logs, del más reciente al más antiguo (como mucho la capacidad del buffer)
+     */
+    List<LogAcceso> obtenerUltimos(int cantidad);
+
+    /**
+     * Logs con id mayor que idLog en orden de escritura, hasta maximo.
+     * Vacío si el buffer ya no llega hasta ese id (el cliente debe recargar desde la base de datos).
+     */
+    Optional<List<LogAcceso>> obtenerDesde(long idLog, int maximo);
+
+    /**
+     * Número de logs con fechaHora >= desde, si el buffer cubre todo ese intervalo
+     */
+    OptionalLong contarDesde(LocalDateTime desde);
+
+    /**
+     * Id del último log recibido (0 si aún no hay ninguno)
+     */
+    long getUltimoId();
+
+    int getCapacidad();
+}
@@ -0,0 +1,19 @@
+package com.example.demo.models.servicio;
+
+import com.example.demo.models.dto.MetricasUsuarios;
+
+/**
+ * Contadores de usuarios para el dashboard y /api/admin/stats
+ */
+public interface MetricasUsuariosService {
+
+    /**
+     * Últimos contadores calculados; se recalculan si tienen más de usuarios.metricas.cache-ms
+     */
+    MetricasUsuarios obtener();
+
+    /**
+     * Fuerza el recálculo en la siguiente consulta (altas, cambios de estado o rol, login y logout)
+     */
+    void invalidar();
+}
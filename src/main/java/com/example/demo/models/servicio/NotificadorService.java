@@ -0,0 +1,22 @@
+package com.example.demo.models.servicio;
+
+import com.example.demo.models.dto.EstadoSaludESP32;
+import com.example.demo.models.entity.LogAcceso;
+
+public interface NotificadorService {
+
+    /**
+     * Difundir el último estado de salud de una placa
+     */
+    void notificarEstadoDispositivo(EstadoSaludESP32 estado, boolean porDefecto);
+
+    /**
+     * Difundir la apertura/cierre de una puerta
+     */
+    void notificarEventoPuerta(String idDispositivo, String accion, String resultado, String userName);
+
+    /**
+     * Difundir un nuevo registro de log
+     */
+    void notificarLog(LogAcceso log);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.models.servicio;
+
+import java.util.List;
+
+import com.example.demo.models.entity.LogAcceso;
+
+/**
+ * Recibe cada lote de logs después de que el escritor de auditoría lo confirma en la base de datos
+ */
+public interface ObservadorLogs {
+
+    void logsRegistrados(List<LogAcceso> logs);
+}
@@ -0,0 +1,30 @@
+package com.example.demo.models.servicio;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface ParticionesLogsService {
+
+    /**
+     * true si log_acceso es una tabla particionada por rango de fecha_hora
+     */
+    boolean esParticionada();
+
+    /**
+     * Crea por adelantado las particiones de los próximos periodos
+     */
+    void asegurarParticiones();
+
+    /**
+     * Elimina los logs anteriores a la fecha: las particiones que quedan enteras por debajo se sueltan
+     * con DETACH + DROP; lo que reste (o toda la tabla si no está particionada) se borra con DELETE.
+     * Devuelve particionesEliminadas, logsEliminados y fechaLimite.
+     */
+    Map<String, Object> aplicarRetencion(LocalDateTime fechaLimite);
+
+    /**
+     * Particiones actuales con sus rangos
+     */
+    List<Map<String, Object>> listarParticiones();
+}
@@ -0,0 +1,38 @@
+package com.example.demo.models.servicio;
+
+import java.util.Optional;
+
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.entity.Usuario;
+
+/**
+ * Tokens de sesión firmados (HMAC) que llevan el usuario, su rol y la caducidad,
+ * de modo que se validan sin consultar la base de datos
+ */
+public interface TokensFirmadosService {
+
+    /**
+     * Modo activado con autenticacion.tokens.firmados=true
+     */
+    boolean estaHabilitado();
+
+    /**
+     * Si el texto tiene el formato de un token firmado (no de un UUID guardado en usuario.token)
+     */
+    boolean esTokenFirmado(String token);
+
+    /**
+     * Emite un token para el usuario (con el rol ya cargado)
+     */
+    String emitir(Usuario usuario);
+
+    /**
+     * Principal del token si la firma es correcta, no ha caducado y no está revocado
+     */
+    Optional<PrincipalSesion> verificar(String token);
+
+    /**
+     * Revoca todos los tokens del usuario emitidos hasta ahora (sólo en esta instancia)
+     */
+    void revocar(String userName);
+}
@@ -0,0 +1,266 @@
+package com.example.demo.models.servicioImpl;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.models.dao.ResumenActividadLogsDao;
+import com.example.demo.models.entity.CategoriaAccion;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.entity.ResumenActividadLogs;
+import com.example.demo.models.entity.ResumenActividadLogs.Dimension;
+import com.example.demo.models.entity.ResumenActividadLogs.Granularidad;
+import com.example.demo.models.servicio.ActividadLogsService;
+import com.example.demo.models.servicio.ObservadorLogs;
+
+/**
+ * Mantiene resumen_actividad_logs (cubetas por minuto, hora y día) a medida que llegan los logs.
+ * Los lotes confirmados se acumulan en memoria y se vuelcan cada pocos segundos con un UPSERT por
+ * cubeta, así los gráficos y el resumen del día leen unas pocas filas en vez de recorrer log_acceso.
+ * El desglose por usuario sólo se guarda por hora y por día.
+ */
+@Service
+@DependsOn("rellenoCategoriaLogs")
+public class ActividadLogsServiceImpl implements ActividadLogsService, ObservadorLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActividadLogsServiceImpl.class);
+
+    private static final String SIN_TIPO = "SIN_TIPO";
+
+    private static final String UPSERT_CUBETA =
+        "INSERT INTO resumen_actividad_logs (granularidad, inicio, dimension, valor_dimension, total, exitosos, errores, aperturas) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (granularidad, inicio, dimension, valor_dimension) DO UPDATE SET " +
+        "total = resumen_actividad_logs.total + EXCLUDED.total, " +
+        "exitosos = resumen_actividad_logs.exitosos + EXCLUDED.exitosos, " +
+        "errores = resumen_actividad_logs.errores + EXCLUDED.errores, " +
+        "aperturas = resumen_actividad_logs.aperturas + EXCLUDED.aperturas";
+
+    @Autowired
+    private ResumenActividadLogsDao resumenActividadLogsDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${actividad.logs.retencion-minutos-horas:48}")
+    private int retencionMinutosHoras;
+
+    @Value("${actividad.logs.retencion-horas-dias:90}")
+    private int retencionHorasDias;
+
+    private record ClaveCubeta(Granularidad granularidad, LocalDateTime inicio, Dimension dimension, String valor) {
+    }
+
+    // Incrementos aún no volcados: {total, exitosos, errores, aperturas}. Protegido por el monitor del objeto
+    private Map<ClaveCubeta, long[]> pendientes = new HashMap<>();
+    // Los logs con id <= a esta marca ya entraron en la reconstrucción inicial
+    private long idReconstruccion;
+
+    @PostConstruct
+    public void inicializar() {
+        try {
+            if (resumenActividadLogsDao.count() == 0) {
+                reconstruir();
+            }
+        } catch (Exception e) {
+            logger.error("No se pudo reconstruir el resumen de actividad: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Primera ejecución: genera las cubetas a partir de log_acceso dentro de los periodos de retención
+     */
+    private synchronized void reconstruir() {
+        Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id_log), 0) FROM log_acceso", Long.class);
+        idReconstruccion = maximo != null ? maximo : 0L;
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Granularidad granularidad : Granularidad.values()) {
+            LocalDateTime desde = inicioRetencion(granularidad, ahora);
+            for (Dimension dimension : Dimension.values()) {
+                if (!guardaDimension(granularidad, dimension)) {
+                    continue;
+                }
+                String valor = switch (dimension) {
+                    case TOTAL -> "''";
+                    case TIPO -> "COALESCE(tipo_accion, '" + SIN_TIPO + "')";
+                    case USUARIO -> "user_name";
+                };
+                jdbcTemplate.update(
+                    "INSERT INTO resumen_actividad_logs (granularidad, inicio, dimension, valor_dimension, total, exitosos, errores, aperturas) " +
+                    "SELECT ?, date_trunc(?, fecha_hora), ?, " + valor + ", COUNT(*), " +
+                    "SUM(CASE WHEN resultado = 'EXITOSO' THEN 1 ELSE 0 END), " +
+                    "SUM(CASE WHEN resultado = 'ERROR' THEN 1 ELSE 0 END), " +
+                    "SUM(CASE WHEN categoria IN (" + CategoriaAccion.CODIGOS_APERTURA + ") THEN 1 ELSE 0 END) " +
+                    "FROM log_acceso WHERE id_log <= ? AND fecha_hora >= ? GROUP BY 2, 4",
+                    granularidad.name(), granularidad.getUnidadSql(), dimension.name(),
+                    idReconstruccion, Timestamp.valueOf(desde));
+            }
+        }
+        logger.info("Resumen de actividad reconstruido desde log_acceso (hasta id {})", idReconstruccion);
+    }
+
+    @Override
+    public synchronized void logsRegistrados(List<LogAcceso> logs) {
+        for (LogAcceso log : logs) {
+            if (log.getIdLog() != null && log.getIdLog() <= idReconstruccion) {
+                continue;
+            }
+            long exitoso = "EXITOSO".equals(log.getResultado()) ? 1 : 0;
+            long error = "ERROR".equals(log.getResultado()) ? 1 : 0;
+            long apertura = log.getCategoriaAccion().esApertura() ? 1 : 0;
+            String tipo = log.getTipoAccion() != null ? log.getTipoAccion() : SIN_TIPO;
+
+            for (Granularidad granularidad : Granularidad.values()) {
+                LocalDateTime inicio = granularidad.truncar(log.getFechaHora());
+                acumular(new ClaveCubeta(granularidad, inicio, Dimension.TOTAL, ""), exitoso, error, apertura);
+                acumular(new ClaveCubeta(granularidad, inicio, Dimension.TIPO, tipo), exitoso, error, apertura);
+                if (guardaDimension(granularidad, Dimension.USUARIO)) {
+                    acumular(new ClaveCubeta(granularidad, inicio, Dimension.USUARIO, log.getUserName()), exitoso, error, apertura);
+                }
+            }
+        }
+    }
+
+    private void acumular(ClaveCubeta clave, long exitoso, long error, long apertura) {
+        long[] valores = pendientes.computeIfAbsent(clave, k -> new long[4]);
+        valores[0]++;
+        valores[1] += exitoso;
+        valores[2] += error;
+        valores[3] += apertura;
+    }
+
+    /**
+     * Vuelca los incrementos acumulados con un UPSERT por cubeta (un único batch JDBC)
+     */
+    @Scheduled(fixedDelayString = "${actividad.logs.volcado-ms:5000}")
+    public void volcar() {
+        Map<ClaveCubeta, long[]> lote;
+        synchronized (this) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            lote = pendientes;
+            pendientes = new HashMap<>();
+        }
+
+        List<Object[]> filas = new ArrayList<>(lote.size());
+        lote.forEach((clave, valores) -> filas.add(new Object[]{
+            clave.granularidad().name(), Timestamp.valueOf(clave.inicio()), clave.dimension().name(), clave.valor(),
+            valores[0], valores[1], valores[2], valores[3]
+        }));
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_CUBETA, filas);
+        } catch (Exception e) {
+            // Se devuelven a pendientes para el siguiente volcado
+            synchronized (this) {
+                lote.forEach((clave, valores) -> {
+                    long[] actuales = pendientes.computeIfAbsent(clave, k -> new long[4]);
+                    for (int i = 0; i < valores.length; i++) {
+                        actuales[i] += valores[i];
+                    }
+                });
+            }
+            logger.warn("No se pudo volcar el resumen de actividad ({} cubetas): {}", filas.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Retención: las cubetas finas sólo se guardan durante un tiempo; las diarias se conservan
+     */
+    @Scheduled(fixedDelayString = "${actividad.logs.limpieza-ms:3600000}", initialDelay = 60000)
+    public void aplicarRetencion() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int minutos = resumenActividadLogsDao.deleteCubetasAnterioresA(Granularidad.MINUTO, inicioRetencion(Granularidad.MINUTO, ahora));
+        int horas = resumenActividadLogsDao.deleteCubetasAnterioresA(Granularidad.HORA, inicioRetencion(Granularidad.HORA, ahora));
+        if (minutos + horas > 0) {
+            logger.info("Retención del resumen de actividad: {} cubetas de minuto y {} de hora eliminadas", minutos, horas);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        volcar();
+    }
+
+    @Override
+    public List<ResumenActividadLogs> obtenerActividad(Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta) {
+        return resumenActividadLogsDao.findCubetas(granularidad, Dimension.TOTAL, desde, hasta);
+    }
+
+    @Override
+    public List<ResumenActividadLogs> obtenerActividadPorTipo(Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta) {
+        return resumenActividadLogsDao.findCubetas(granularidad, Dimension.TIPO, desde, hasta);
+    }
+
+    @Override
+    public List<ResumenActividadLogs> obtenerActividadUsuario(String userName, Granularidad granularidad,
+                                                              LocalDateTime desde, LocalDateTime hasta) {
+        if (!guardaDimension(granularidad, Dimension.USUARIO)) {
+            return List.of();
+        }
+        return resumenActividadLogsDao.findCubetasDeValor(granularidad, Dimension.USUARIO, userName, desde, hasta);
+    }
+
+    @Override
+    public List<Object[]> obtenerActividadPorHoras(LocalDate dia) {
+        LocalDateTime inicio = dia.atStartOfDay();
+        List<Object[]> actividad = new ArrayList<>();
+        for (ResumenActividadLogs cubeta : obtenerActividad(Granularidad.HORA, inicio, inicio.plusDays(1))) {
+            actividad.add(new Object[]{cubeta.getInicio().getHour(), cubeta.getTotal()});
+        }
+        return actividad;
+    }
+
+    @Override
+    public Map<String, Long> obtenerResumenDia(LocalDate dia) {
+        LocalDateTime inicio = dia.atStartOfDay();
+        List<ResumenActividadLogs> cubetas = obtenerActividad(Granularidad.DIA, inicio, inicio.plusDays(1));
+
+        Map<String, Long> resumen = new HashMap<>();
+        ResumenActividadLogs cubeta = cubetas.isEmpty() ? null : cubetas.get(0);
+        resumen.put("logs", cubeta != null ? cubeta.getTotal() : 0L);
+        resumen.put("exitosos", cubeta != null ? cubeta.getExitosos() : 0L);
+        resumen.put("errores", cubeta != null ? cubeta.getErrores() : 0L);
+        resumen.put("aperturas", cubeta != null ? cubeta.getAperturas() : 0L);
+        resumen.put("usuariosActivos", resumenActividadLogsDao.countValores(Granularidad.DIA, Dimension.USUARIO, inicio));
+        return resumen;
+    }
+
+    @Override
+    public List<Object[]> obtenerUsuariosMasActivos(int limite) {
+        // Se suman las cubetas diarias por usuario (una fila por usuario y día) en lugar de agrupar log_acceso
+        return resumenActividadLogsDao.sumarPorValor(Granularidad.DIA, Dimension.USUARIO,
+                PageRequest.of(0, Math.max(1, limite)));
+    }
+
+    private static boolean guardaDimension(Granularidad granularidad, Dimension dimension) {
+        return dimension != Dimension.USUARIO || granularidad != Granularidad.MINUTO;
+    }
+
+    private LocalDateTime inicioRetencion(Granularidad granularidad, LocalDateTime ahora) {
+        return switch (granularidad) {
+            case MINUTO -> ahora.minusHours(retencionMinutosHoras).truncatedTo(granularidad.getUnidad());
+            case HORA -> ahora.minusDays(retencionHorasDias).truncatedTo(granularidad.getUnidad());
+            case DIA -> LocalDateTime.of(1970, 1, 1, 0, 0);
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.demo.models.servicioImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.demo.models.entity.LogAcceso;
+
+/**
+ * Formato de los ficheros de archivo de log_acceso (un fichero por día, comprimido con gzip).
+ * Los valores se guardan por columnas: ids y fechas como diferencias con la fila anterior y los
+ * textos repetitivos (usuario, acción, resultado, tipo, IP, user agent) como índices a un
+ * diccionario, de modo que gzip comprime mucho mejor que un volcado fila a fila.
+ * Las filas se escriben ordenadas por (fechaHora, idLog).
+ */
+public final class ArchivoColumnarLogs {
+
+    private static final String CABECERA = "ESP-LOGS";
+    private static final int VERSION = 1;
+
+    private ArchivoColumnarLogs() {
+    }
+
+    public static void escribir(List<LogAcceso> logs, Path destino) throws IOException {
+        try (FileOutputStream fichero = new FileOutputStream(destino.toFile())) {
+            GZIPOutputStream comprimido = new GZIPOutputStream(new BufferedOutputStream(fichero, 65536), 65536);
+            DataOutputStream salida = new DataOutputStream(comprimido);
+
+            salida.writeUTF(CABECERA);
+            salida.writeInt(VERSION);
+            salida.writeInt(logs.size());
+
+            long anterior = 0;
+            for (LogAcceso log : logs) {
+                escribirVarLong(salida, log.getIdLog() - anterior);
+                anterior = log.getIdLog();
+            }
+            anterior = 0;
+            for (LogAcceso log : logs) {
+                long micros = aMicros(log.getFechaHora());
+                escribirVarLong(salida, micros - anterior);
+                anterior = micros;
+            }
+            for (LogAcceso log : logs) {
+                escribirVarLong(salida, log.getIdUsuario() != null ? log.getIdUsuario() + 1 : 0);
+            }
+            escribirDiccionario(salida, logs, LogAcceso::getUserName);
+            escribirDiccionario(salida, logs, LogAcceso::getAccion);
+            escribirDiccionario(salida, logs, LogAcceso::getResultado);
+            escribirDiccionario(salida, logs, LogAcceso::getTipoAccion);
+            escribirDiccionario(salida, logs, LogAcceso::getDireccionIp);
+            escribirDiccionario(salida, logs, LogAcceso::getUserAgent);
+            for (LogAcceso log : logs) {
+                escribirTexto(salida, log.getDetalles());
+            }
+
+            salida.flush();
+            comprimido.finish();
+            comprimido.flush();
+            // El fichero debe estar en disco antes de borrar los logs de la base de datos
+            fichero.getFD().sync();
+        }
+    }
+
+    public static List<LogAcceso> leer(Path origen) throws IOException {
+        try (InputStream fichero = Files.newInputStream(origen)) {
+            DataInputStream entrada = new DataInputStream(
+                new GZIPInputStream(new BufferedInputStream(fichero, 65536), 65536));
+
+            if (!CABECERA.equals(entrada.readUTF()) || entrada.readInt() != VERSION) {
+                throw new IOException("Formato de archivo de logs no reconocido: " + origen);
+            }
+            int filas = entrada.readInt();
+            List<LogAcceso> logs = new ArrayList<>(filas);
+            for (int i = 0; i < filas; i++) {
+                logs.add(new LogAcceso());
+            }
+
+            long acumulado = 0;
+            for (LogAcceso log : logs) {
+                acumulado += leerVarLong(entrada);
+                log.setIdLog(acumulado);
+            }
+            acumulado = 0;
+            for (LogAcceso log : logs) {
+                acumulado += leerVarLong(entrada);
+                log.setFechaHora(deMicros(acumulado));
+            }
+            for (LogAcceso log : logs) {
+                long idUsuario = leerVarLong(entrada);
+                log.setIdUsuario(idUsuario > 0 ? idUsuario - 1 : null);
+            }
+            leerDiccionario(entrada, logs, LogAcceso::setUserName);
+            leerDiccionario(entrada, logs, LogAcceso::setAccion);
+            leerDiccionario(entrada, logs, LogAcceso::setResultado);
+            leerDiccionario(entrada, logs, LogAcceso::setTipoAccion);
+            leerDiccionario(entrada, logs, LogAcceso::setDireccionIp);
+            leerDiccionario(entrada, logs, LogAcceso::setUserAgent);
+            for (LogAcceso log : logs) {
+                log.setDetalles(leerTexto(entrada));
+            }
+            return logs;
+        }
+    }
+
+    private interface Asignador {
+        void asignar(LogAcceso log, String valor);
+    }
+
+    private static void escribirDiccionario(DataOutputStream salida, List<LogAcceso> logs,
+                                            Function<LogAcceso, String> columna) throws IOException {
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> valores = new ArrayList<>();
+        int[] posiciones = new int[logs.size()];
+        for (int i = 0; i < logs.size(); i++) {
+            // null se guarda como posición 0
+            String valor = columna.apply(logs.get(i));
+            if (valor == null) {
+                continue;
+            }
+            Integer indice = indices.get(valor);
+            if (indice == null) {
+                valores.add(valor);
+                indice = valores.size();
+                indices.put(valor, indice);
+            }
+            posiciones[i] = indice;
+        }
+        escribirVarLong(salida, valores.size());
+        for (String valor : valores) {
+            escribirTexto(salida, valor);
+        }
+        for (int posicion : posiciones) {
+            escribirVarLong(salida, posicion);
+        }
+    }
+
+    private static void leerDiccionario(DataInputStream entrada, List<LogAcceso> logs, Asignador asignador) throws IOException {
+        int tamano = (int) leerVarLong(entrada);
+        String[] valores = new String[tamano + 1];
+        for (int i = 1; i <= tamano; i++) {
+            valores[i] = leerTexto(entrada);
+        }
+        for (LogAcceso log : logs) {
+            asignador.asignar(log, valores[(int) leerVarLong(entrada)]);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        if (texto == null) {
+            escribirVarLong(salida, 0);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escribirVarLong(salida, bytes.length + 1L);
+        salida.write(bytes);
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        long longitud = leerVarLong(entrada);
+        if (longitud == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) (longitud - 1)];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Entero de longitud variable en zigzag: valores pequeños (también negativos) ocupan 1-2 bytes
+     */
+    private static void escribirVarLong(DataOutputStream salida, long valor) throws IOException {
+        long zigzag = (valor << 1) ^ (valor >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            salida.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        salida.writeByte((int) zigzag);
+    }
+
+    private static long leerVarLong(DataInputStream entrada) throws IOException {
+        long zigzag = 0;
+        int desplazamiento = 0;
+        byte leido;
+        do {
+            leido = entrada.readByte();
+            zigzag |= (long) (leido & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((leido & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static long aMicros(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + fecha.getNano() / 1_000;
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.demo.models.servicioImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.dto.ArchivoLogsDia;
+import com.example.demo.models.dto.CursorLogs;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.ArchivoLogsService;
+import com.example.demo.models.servicio.ParticionesLogsService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Retención automática de log_acceso con archivo en disco.
+ * Cada noche los días más antiguos que archivo.logs.dias-retencion se escriben en
+ * logs-AAAA-MM-DD.col.gz (formato de ArchivoColumnarLogs) y se anotan en indice.json; sólo cuando
+ * todos los ficheros están escritos y verificados se eliminan de la tabla con la retención por
+ * particiones. El índice permite descartar días por rango de fechas y por usuario sin abrir ficheros.
+ */
+@Service
+public class ArchivoLogsServiceImpl implements ArchivoLogsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivoLogsServiceImpl.class);
+
+    private static final String FICHERO_INDICE = "indice.json";
+    private static final String PREFIJO_FICHERO = "logs-";
+    private static final String EXTENSION_FICHERO = ".col.gz";
+
+    // Por encima de este número de usuarios distintos en un día no se guardan en el índice
+    private static final int MAXIMO_USUARIOS_INDICE = 200;
+
+    @Autowired
+    private LogAccesoDao logAccesoDao;
+
+    @Autowired
+    private ParticionesLogsService particionesLogsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${archivo.logs.directorio:archivo-logs}")
+    private String directorio;
+
+    // 0 o negativo desactiva la retención automática
+    @Value("${archivo.logs.dias-retencion:90}")
+    private int diasRetencion;
+
+    private Path carpeta;
+    private TransactionTemplate lectura;
+    private final NavigableMap<LocalDate, ArchivoLogsDia> indice = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    public void inicializar() {
+        carpeta = Paths.get(directorio).toAbsolutePath();
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        try {
+            Files.createDirectories(carpeta);
+            Path ficheroIndice = carpeta.resolve(FICHERO_INDICE);
+            if (Files.exists(ficheroIndice)) {
+                Map<LocalDate, ArchivoLogsDia> guardado = objectMapper.readValue(ficheroIndice.toFile(),
+                        new TypeReference<Map<LocalDate, ArchivoLogsDia>>() { });
+                indice.putAll(guardado);
+            }
+            logger.info("Archivo de logs en {} ({} días archivados)", carpeta, indice.size());
+        } catch (IOException e) {
+            logger.error("No se pudo preparar el archivo de logs en {}: {}", carpeta, e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${archivo.logs.cron:0 30 2 * * *}")
+    public void archivarAutomaticamente() {
+        if (diasRetencion <= 0) {
+            return;
+        }
+        int dias = archivarAnterioresA(LocalDate.now().minusDays(diasRetencion));
+        if (dias > 0) {
+            logger.info("Retención automática: {} días de logs archivados y eliminados de log_acceso", dias);
+        }
+    }
+
+    @Override
+    public synchronized int archivarAnterioresA(LocalDate dia) {
+        LocalDateTime masAntigua = logAccesoDao.findFechaMasAntigua();
+        if (masAntigua == null || !masAntigua.toLocalDate().isBefore(dia)) {
+            return 0;
+        }
+
+        int archivados = 0;
+        for (LocalDate actual = masAntigua.toLocalDate(); actual.isBefore(dia); actual = actual.plusDays(1)) {
+            try {
+                if (archivarDia(actual)) {
+                    archivados++;
+                }
+            } catch (Exception e) {
+                // Sin el fichero de este día no se puede borrar nada posterior a él
+                logger.error("Error archivando los logs del {}; no se eliminan logs: {}", actual, e.getMessage());
+                return archivados;
+            }
+        }
+
+        Map<String, Object> retencion = particionesLogsService.aplicarRetencion(dia.atStartOfDay());
+        logger.info("Logs anteriores a {} archivados ({} días) y eliminados de la tabla ({} filas)",
+                dia, archivados, retencion.get("logsEliminados"));
+        return archivados;
+    }
+
+    /**
+     * Escribe el fichero de un día. Si ya existía (un borrado anterior falló) se fusiona por idLog.
+     */
+    private boolean archivarDia(LocalDate dia) throws IOException {
+        List<LogAcceso> logs = leerDia(dia);
+        if (logs.isEmpty()) {
+            return false;
+        }
+
+        ArchivoLogsDia existente = indice.get(dia);
+        if (existente != null) {
+            Set<Long> ids = new HashSet<>();
+            logs.forEach(log -> ids.add(log.getIdLog()));
+            for (LogAcceso log : ArchivoColumnarLogs.leer(carpeta.resolve(existente.getFichero()))) {
+                if (ids.add(log.getIdLog())) {
+                    logs.add(log);
+                }
+            }
+            logs.sort(Comparator.comparing(LogAcceso::getFechaHora).thenComparing(LogAcceso::getIdLog));
+        }
+
+        String nombre = PREFIJO_FICHERO + dia + EXTENSION_FICHERO;
+        Path temporal = carpeta.resolve(nombre + ".tmp");
+        ArchivoColumnarLogs.escribir(logs, temporal);
+
+        // Verificación antes de dar el día por archivado
+        List<LogAcceso> releidos = ArchivoColumnarLogs.leer(temporal);
+        if (releidos.size() != logs.size()
+                || !releidos.get(releidos.size() - 1).getIdLog().equals(logs.get(logs.size() - 1).getIdLog())) {
+            Files.deleteIfExists(temporal);
+            throw new IOException("El fichero " + nombre + " no coincide con los logs leídos");
+        }
+        Path destino = carpeta.resolve(nombre);
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        indice.put(dia, entradaIndice(dia, nombre, logs, Files.size(destino)));
+        guardarIndice();
+        return true;
+    }
+
+    private List<LogAcceso> leerDia(LocalDate dia) {
+        List<LogAcceso> logs = new ArrayList<>();
+        lectura.executeWithoutResult(estado -> {
+            try (Stream<LogAcceso> filas = logAccesoDao.streamParaExportar(dia.atStartOfDay(),
+                    dia.plusDays(1).atStartOfDay(), null, null, null, false)) {
+                filas.forEach(log -> {
+                    entityManager.detach(log);
+                    logs.add(log);
+                });
+            }
+        });
+        return logs;
+    }
+
+    private ArchivoLogsDia entradaIndice(LocalDate dia, String nombre, List<LogAcceso> logs, long bytes) {
+        Set<String> usuarios = new TreeSet<>();
+        long idMinimo = Long.MAX_VALUE;
+        long idMaximo = Long.MIN_VALUE;
+        for (LogAcceso log : logs) {
+            usuarios.add(log.getUserName());
+            idMinimo = Math.min(idMinimo, log.getIdLog());
+            idMaximo = Math.max(idMaximo, log.getIdLog());
+        }
+
+        ArchivoLogsDia entrada = new ArchivoLogsDia();
+        entrada.setFecha(dia);
+        entrada.setFichero(nombre);
+        entrada.setFilas(logs.size());
+        entrada.setBytes(bytes);
+        entrada.setDesde(logs.get(0).getFechaHora());
+        entrada.setHasta(logs.get(logs.size() - 1).getFechaHora());
+        entrada.setIdMinimo(idMinimo);
+        entrada.setIdMaximo(idMaximo);
+        entrada.setUsuarios(usuarios.size() <= MAXIMO_USUARIOS_INDICE ? new ArrayList<>(usuarios) : null);
+        entrada.setArchivadoEn(LocalDateTime.now());
+        return entrada;
+    }
+
+    private void guardarIndice() throws IOException {
+        Path temporal = carpeta.resolve(FICHERO_INDICE + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporal.toFile(), new LinkedHashMap<>(indice));
+        Files.move(temporal, carpeta.resolve(FICHERO_INDICE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public List<LogAcceso> consultar(LocalDateTime desde, LocalDateTime hasta, String usuario, CursorLogs cursor, int limite) {
+        List<LogAcceso> resultado = new ArrayList<>();
+        if (limite <= 0 || indice.isEmpty()) {
+            return resultado;
+        }
+        CursorLogs posicion = cursor != null ? cursor : CursorLogs.INICIO;
+
+        // Días del más reciente al más antiguo, empezando por el del cursor
+        LocalDate primerDia = min(posicion.getFechaHora(), hasta).toLocalDate();
+        for (ArchivoLogsDia dia : indice.headMap(primerDia, true).descendingMap().values()) {
+            if (desde != null && dia.getHasta().isBefore(desde)) {
+                break;
+            }
+            if (usuario != null && dia.getUsuarios() != null && !dia.getUsuarios().contains(usuario)) {
+                continue;
+            }
+            List<LogAcceso> logs;
+            try {
+                logs = ArchivoColumnarLogs.leer(carpeta.resolve(dia.getFichero()));
+            } catch (IOException e) {
+                logger.error("No se pudo leer el archivo de logs {}: {}", dia.getFichero(), e.getMessage());
+                continue;
+            }
+            for (int i = logs.size() - 1; i >= 0; i--) {
+                LogAcceso log = logs.get(i);
+                if (!antesDe(log, posicion)
+                        || (hasta != null && log.getFechaHora().isAfter(hasta))
+                        || (usuario != null && !usuario.equals(log.getUserName()))) {
+                    continue;
+                }
+                if (desde != null && log.getFechaHora().isBefore(desde)) {
+                    return resultado;
+                }
+                resultado.add(log);
+                if (resultado.size() >= limite) {
+                    return resultado;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public List<ArchivoLogsDia> listarArchivos() {
+        return new ArrayList<>(indice.descendingMap().values());
+    }
+
+    /**
+     * Mismo criterio que TRAS_CURSOR en LogAccesoDao: (fechaHora, idLog) estrictamente menor que el cursor
+     */
+    private static boolean antesDe(LogAcceso log, CursorLogs cursor) {
+        int comparacion = log.getFechaHora().compareTo(cursor.getFechaHora());
+        return comparacion < 0 || (comparacion == 0 && log.getIdLog() < cursor.getIdLog());
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return b != null && b.isBefore(a) ? b : a;
+    }
+}
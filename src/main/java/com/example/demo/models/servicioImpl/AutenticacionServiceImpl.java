@@ -1,19 +1,26 @@
 package com.example.demo.models.servicioImpl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.example.demo.models.dao.UsuarioDao;
 import com.example.demo.models.dao.PersonaDao;
 import com.example.demo.models.dao.RolDao;
+import com.example.demo.models.dto.PrincipalSesion;
 import com.example.demo.models.entity.Usuario;
 import com.example.demo.models.entity.Persona;
 import com.example.demo.models.entity.Rol;
 import com.example.demo.models.servicio.AutenticacionService;
+import com.example.demo.models.servicio.MetricasUsuariosService;
 import com.example.demo.models.servicio.PasswordService;
+import com.example.demo.models.servicio.TokensFirmadosService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 public class AutenticacionServiceImpl implements AutenticacionService {
@@ -30,6 +37,31 @@ public class AutenticacionServiceImpl implements AutenticacionService {
     @Autowired
     private PasswordService passwordService; // ✅ INYECTAR SERVICIO DE ENCRIPTACIÓN
     
+    @Autowired
+    private TokensFirmadosService tokensFirmadosService;
+    
+    @Autowired
+    private MetricasUsuariosService metricasUsuariosService;
+    
+    // Caché token -> principal: cada petición autenticada consultaba usuario (y rol) en la base de datos
+    @Value("${autenticacion.cache.ttl-segundos:30}")
+    private long ttlCacheSegundos;
+    
+    @Value("${autenticacion.cache.maximo:10000}")
+    private int maximoCache;
+    
+    private final ConcurrentMap<String, EntradaPrincipal> cachePrincipales = new ConcurrentHashMap<>();
+    
+    private static final class EntradaPrincipal {
+        private final PrincipalSesion principal;
+        private final long caducaEn;
+        
+        private EntradaPrincipal(PrincipalSesion principal, long caducaEn) {
+            this.principal = principal;
+            this.caducaEn = caducaEn;
+        }
+    }
+    
     @Override
     public Optional<Usuario> autenticar(String userName, String clave) {
         System.out.println("🔍 Intentando autenticar usuario (método tradicional): " + userName);
@@ -100,6 +132,7 @@ public class AutenticacionServiceImpl implements AutenticacionService {
         
         try {
             Usuario usuarioGuardado = usuarioDao.save(nuevoUsuario);
+            metricasUsuariosService.invalidar();
             System.out.println("✅ Usuario guardado exitosamente con ID: " + usuarioGuardado.getIdUsuario());
             return usuarioGuardado;
         } catch (Exception e) {
@@ -155,6 +188,7 @@ public class AutenticacionServiceImpl implements AutenticacionService {
             nuevoUsuario.setToken(tokenInicial);
             
             Usuario usuarioGuardado = usuarioDao.save(nuevoUsuario);
+            metricasUsuariosService.invalidar();
             System.out.println("✅ Usuario completo guardado con ID: " + usuarioGuardado.getIdUsuario());
             
             return usuarioGuardado;
@@ -206,27 +240,108 @@ public class AutenticacionServiceImpl implements AutenticacionService {
     public String generarTokenParaUsuario(Usuario usuario) {
         System.out.println("🔑 Generando nuevo token para usuario: " + usuario.getUser_name());
         
+        if (tokensFirmadosService.estaHabilitado()) {
+            return generarTokenFirmado(usuario);
+        }
+        
         usuarioDao.clearTokenByUserName(usuario.getUser_name());
+        invalidarSesionesUsuario(usuario.getUser_name());
         
         String token = UUID.randomUUID().toString();
         usuario.setToken(token);
         usuario.setFechaModificacion(LocalDate.now());
         
         usuarioDao.save(usuario);
+        metricasUsuariosService.invalidar();
         System.out.println("✅ Token generado: " + token.substring(0, 8) + "...");
         return token;
     }
     
+    /**
+     * Modo firmado: el token no se guarda en la base de datos. usuario.token recibe un marcador
+     * aleatorio para que los indicadores de "conectado" y las estadísticas sigan funcionando;
+     * se escribe con un UPDATE de esas dos columnas en lugar de guardar el usuario entero.
+     */
+    private String generarTokenFirmado(Usuario usuario) {
+        tokensFirmadosService.revocar(usuario.getUser_name());
+        descartarDeCache(usuario.getUser_name());
+        
+        String marcador = UUID.randomUUID().toString();
+        LocalDate hoy = LocalDate.now();
+        usuarioDao.marcarConectado(usuario.getIdUsuario(), marcador, hoy);
+        usuario.setToken(marcador);
+        usuario.setFechaModificacion(hoy);
+        metricasUsuariosService.invalidar();
+        
+        return tokensFirmadosService.emitir(usuario);
+    }
+    
     @Override
+    @Transactional(readOnly = true)
     public Optional<Usuario> validarToken(String token) {
         System.out.println("🔍 Validando token: " + token.substring(0, 8) + "...");
-        return usuarioDao.findByToken(token);
+        // La validez la decide obtenerPrincipal (firma o caché); la entidad sólo se carga para un token válido.
+        // Quien no necesite la entidad debe llamar directamente a obtenerPrincipal.
+        return obtenerPrincipal(token).flatMap(principal -> usuarioDao.findByIdConRol(principal.getIdUsuario()));
+    }
+    
+    /**
+     * Para las comprobaciones de acceso de cada petición: no carga la entidad Usuario
+     * mientras el token siga en la caché (como mucho autenticacion.cache.ttl-segundos)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PrincipalSesion> obtenerPrincipal(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        if (tokensFirmadosService.esTokenFirmado(token)) {
+            return tokensFirmadosService.verificar(token);
+        }
+        EntradaPrincipal entrada = cachePrincipales.get(token);
+        if (entrada != null) {
+            if (entrada.caducaEn > System.currentTimeMillis()) {
+                return Optional.of(entrada.principal);
+            }
+            cachePrincipales.remove(token, entrada);
+        }
+        // Los tokens desconocidos no se guardan: siempre se comprueban contra la base de datos
+        Optional<PrincipalSesion> principal = usuarioDao.findByTokenConRol(token).map(PrincipalSesion::de);
+        principal.ifPresent(p -> guardarEnCache(token, p));
+        return principal;
+    }
+    
+    @Override
+    public void invalidarSesionesUsuario(String userName) {
+        tokensFirmadosService.revocar(userName);
+        descartarDeCache(userName);
+        // Se llama después de guardar el cambio de estado, rol o token
+        metricasUsuariosService.invalidar();
+    }
+    
+    private void descartarDeCache(String userName) {
+        if (userName != null) {
+            cachePrincipales.values().removeIf(entrada -> userName.equals(entrada.principal.getUserName()));
+        }
+    }
+    
+    private void guardarEnCache(String token, PrincipalSesion principal) {
+        long ahora = System.currentTimeMillis();
+        if (cachePrincipales.size() >= maximoCache) {
+            // Primero las caducadas; si no basta se vacía (se vuelve a llenar con las sesiones activas)
+            cachePrincipales.values().removeIf(entrada -> entrada.caducaEn <= ahora);
+            if (cachePrincipales.size() >= maximoCache) {
+                cachePrincipales.clear();
+            }
+        }
+        cachePrincipales.put(token, new EntradaPrincipal(principal, ahora + ttlCacheSegundos * 1000));
     }
     
     @Override
     public void cerrarSesion(String userName) {
         System.out.println("🚪 Cerrando sesión para usuario: " + userName);
         usuarioDao.clearTokenByUserName(userName);
+        invalidarSesionesUsuario(userName);
     }
     
     @Override
@@ -249,6 +364,8 @@ public class AutenticacionServiceImpl implements AutenticacionService {
         System.out.println("🔄 Actualizando usuario: " + usuario.getUser_name());
         usuario.setFechaModificacion(LocalDate.now());
         usuarioDao.save(usuario);
+        // Sin revocar tokens firmados: aquí sólo cambian datos que no van en el token (p. ej. la clave)
+        descartarDeCache(usuario.getUser_name());
         System.out.println("✅ Usuario actualizado exitosamente");
     }
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.example.demo.models.servicioImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.models.dto.CriteriosBusquedaLogs;
+import com.example.demo.models.dto.CursorLogs;
+import com.example.demo.models.dto.PaginaLogs;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.BusquedaLogsService;
+import com.example.demo.models.servicio.ParticionesLogsService;
+
+/**
+ * Búsqueda de logs sobre índices de PostgreSQL:
+ * - columna generada log_acceso.busqueda (tsvector) con índice GIN para palabras completas, ordenable por ts_rank
+ * - índice GIN de trigramas (pg_trgm) sobre el texto del log para coincidencias parciales con LIKE
+ * Los índices se crean en segundo plano al arrancar; mientras no existan se busca con LIKE sobre la tabla.
+ */
+@Service
+public class BusquedaLogsServiceImpl implements BusquedaLogsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusquedaLogsServiceImpl.class);
+
+    // La columna generada y las consultas deben usar la misma configuración de texto
+    private static final String CONFIGURACION_TS = "simple";
+
+    // Texto indexado de un log; debe coincidir literalmente con la expresión del índice de trigramas
+    private static final String TEXTO_LOG =
+        "lower(coalesce(user_name, '') || ' ' || coalesce(accion, '') || ' ' || coalesce(resultado, '') || ' ' || coalesce(detalles, ''))";
+
+    private static final String CONSULTA_TS = "websearch_to_tsquery('" + CONFIGURACION_TS + "', :texto)";
+
+    // Columnas mapeadas por LogAcceso (no se trae el tsvector)
+    private static final String COLUMNAS =
+        "id_log, id_usuario, user_name, accion, categoria, resultado, fecha_hora, tipo_accion, direccion_ip, user_agent, detalles";
+
+    private static final int LONGITUD_MINIMA_TRIGRAMA = 3;
+
+    // Por relevancia se pagina con desplazamiento: no se sirven resultados más allá de este punto
+    private static final int DESPLAZAMIENTO_MAXIMO = 1000;
+    private static final String PREFIJO_RELEVANCIA = "R|";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Se inyecta también para que la conversión a tabla particionada termine antes de crear los índices
+    @Autowired
+    private ParticionesLogsService particionesLogsService;
+
+    @Value("${logs.pagina.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${logs.pagina.tamano-maximo:200}")
+    private int tamanoPaginaMaximo;
+
+    private volatile boolean textoCompleto;
+    private volatile boolean trigramas;
+
+    @PostConstruct
+    public void iniciar() {
+        // Añadir la columna generada reescribe la tabla la primera vez: no se bloquea el arranque
+        Thread hilo = new Thread(this::prepararIndices, "busqueda-indices");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void prepararIndices() {
+        // En una tabla particionada no existe CREATE INDEX CONCURRENTLY: se crea en el padre y se propaga
+        String crearIndice = particionesLogsService.esParticionada()
+            ? "CREATE INDEX IF NOT EXISTS " : "CREATE INDEX CONCURRENTLY IF NOT EXISTS ";
+        textoCompleto = ejecutarDdl("columna tsvector",
+                "ALTER TABLE log_acceso ADD COLUMN IF NOT EXISTS busqueda tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('" + CONFIGURACION_TS + "', " + TEXTO_LOG + ")) STORED")
+            && ejecutarDdl("índice GIN de texto",
+                crearIndice + "idx_log_acceso_busqueda ON log_acceso USING GIN (busqueda)");
+
+        trigramas = ejecutarDdl("extensión pg_trgm", "CREATE EXTENSION IF NOT EXISTS pg_trgm")
+            && ejecutarDdl("índice de trigramas",
+                crearIndice + "idx_log_acceso_texto_trgm ON log_acceso USING GIN ((" + TEXTO_LOG + ") gin_trgm_ops)");
+
+        logger.info("Búsqueda de logs: texto completo {}, trigramas {}",
+                textoCompleto ? "activo" : "no disponible", trigramas ? "activos" : "no disponibles");
+    }
+
+    private boolean ejecutarDdl(String descripcion, String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (Exception e) {
+            logger.warn("No se pudo crear {} para la búsqueda de logs: {}", descripcion, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public PaginaLogs buscar(CriteriosBusquedaLogs criterios, String cursor, Integer tamano) {
+        int limite = normalizarTamano(tamano);
+        boolean porRelevancia = criterios.tieneTexto() && textoCompleto
+                && criterios.getOrden() == CriteriosBusquedaLogs.Orden.RELEVANCIA;
+
+        Map<String, Object> parametros = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNAS).append(" FROM log_acceso WHERE 1 = 1");
+        agregarFiltros(sql, parametros, criterios);
+
+        int desplazamiento = 0;
+        if (porRelevancia) {
+            desplazamiento = leerDesplazamiento(cursor);
+            if (desplazamiento >= DESPLAZAMIENTO_MAXIMO) {
+                return PaginaLogs.vacia(limite);
+            }
+            sql.append(" ORDER BY ts_rank(busqueda, ").append(CONSULTA_TS).append(") DESC, fecha_hora DESC, id_log DESC");
+        } else {
+            CursorLogs desde = CursorLogs.decodificar(cursor);
+            sql.append(" AND fecha_hora <= :cursorFecha AND (fecha_hora < :cursorFecha OR id_log < :cursorId)")
+               .append(" ORDER BY fecha_hora DESC, id_log DESC");
+            parametros.put("cursorFecha", desde.getFechaHora());
+            parametros.put("cursorId", desde.getIdLog());
+        }
+
+        Query consulta = entityManager.createNativeQuery(sql.toString(), LogAcceso.class);
+        parametros.forEach(consulta::setParameter);
+        consulta.setFirstResult(desplazamiento);
+        // Una fila de más indica si hay página siguiente
+        consulta.setMaxResults(limite + 1);
+
+        List<LogAcceso> filas = new ArrayList<>(consulta.getResultList());
+        boolean hayMas = filas.size() > limite;
+        List<LogAcceso> logs = hayMas ? new ArrayList<>(filas.subList(0, limite)) : filas;
+
+        String siguienteCursor = null;
+        if (hayMas && porRelevancia) {
+            int siguiente = desplazamiento + limite;
+            hayMas = siguiente < DESPLAZAMIENTO_MAXIMO;
+            siguienteCursor = hayMas ? codificarDesplazamiento(siguiente) : null;
+        } else if (hayMas) {
+            LogAcceso ultimo = logs.get(logs.size() - 1);
+            siguienteCursor = new CursorLogs(ultimo.getFechaHora(), ultimo.getIdLog()).codificar();
+        }
+        return new PaginaLogs(logs, siguienteCursor, hayMas, limite);
+    }
+
+    private void agregarFiltros(StringBuilder sql, Map<String, Object> parametros, CriteriosBusquedaLogs criterios) {
+        if (criterios.tieneTexto()) {
+            String texto = criterios.getTexto().trim();
+            List<String> condiciones = new ArrayList<>();
+            if (textoCompleto) {
+                condiciones.add("busqueda @@ " + CONSULTA_TS);
+                parametros.put("texto", texto);
+            }
+            // Coincidencia parcial: usa el índice de trigramas si existe, si no recorre la tabla como antes
+            if (!textoCompleto || (trigramas && texto.length() >= LONGITUD_MINIMA_TRIGRAMA)) {
+                condiciones.add(TEXTO_LOG + " LIKE :patron");
+                parametros.put("patron", "%" + escaparLike(texto.toLowerCase()) + "%");
+            }
+            sql.append(" AND (").append(String.join(" OR ", condiciones)).append(")");
+        }
+        if (tieneValor(criterios.getUsuario())) {
+            sql.append(" AND user_name = :usuario");
+            parametros.put("usuario", criterios.getUsuario().trim());
+        }
+        if (tieneValor(criterios.getIp())) {
+            sql.append(" AND direccion_ip = :ip");
+            parametros.put("ip", criterios.getIp().trim());
+        }
+        if (tieneValor(criterios.getAccion())) {
+            sql.append(" AND accion = :accion");
+            parametros.put("accion", criterios.getAccion().trim());
+        }
+        if (tieneValor(criterios.getResultado())) {
+            sql.append(" AND resultado = :resultado");
+            parametros.put("resultado", criterios.getResultado().trim());
+        }
+        if (criterios.getDesde() != null) {
+            sql.append(" AND fecha_hora >= :desde");
+            parametros.put("desde", criterios.getDesde());
+        }
+        if (criterios.getHasta() != null) {
+            sql.append(" AND fecha_hora < :hasta");
+            parametros.put("hasta", criterios.getHasta());
+        }
+    }
+
+    @Override
+    public Map<String, Object> obtenerEstado() {
+        Map<String, Object> estado = new HashMap<>();
+        estado.put("textoCompleto", textoCompleto);
+        estado.put("trigramas", trigramas);
+        estado.put("configuracion", CONFIGURACION_TS);
+        return estado;
+    }
+
+    private int normalizarTamano(Integer tamano) {
+        if (tamano == null || tamano <= 0) {
+            return Math.min(tamanoPaginaDefecto, tamanoPaginaMaximo);
+        }
+        return Math.min(tamano, tamanoPaginaMaximo);
+    }
+
+    private static boolean tieneValor(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String codificarDesplazamiento(int desplazamiento) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIJO_RELEVANCIA + desplazamiento).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int leerDesplazamiento(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            return texto.startsWith(PREFIJO_RELEVANCIA)
+                    ? Math.max(0, Integer.parseInt(texto.substring(PREFIJO_RELEVANCIA.length()))) : 0;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+}
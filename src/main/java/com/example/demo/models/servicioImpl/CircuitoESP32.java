@@ -0,0 +1,126 @@
+package com.example.demo.models.servicioImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker de una placa ESP32.
+ * CERRADO: las peticiones pasan. ABIERTO: se rechazan al instante sin tocar la red.
+ * SEMIABIERTO: pasado el tiempo de espera se deja pasar una única prueba; si responde se cierra.
+ */
+public class CircuitoESP32 {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitoESP32.class);
+
+    public enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final String idDispositivo;
+    private final int umbralFallos;
+    private final long tiempoAbiertoNanos;
+
+    // Protegido por el monitor del objeto (las transiciones son muy cortas)
+    private Estado estado = Estado.CERRADO;
+    private int fallosConsecutivos;
+    private long abiertoDesde;
+    private boolean pruebaEnCurso;
+
+    private long aperturas;
+    private long rechazos;
+
+    public CircuitoESP32(String idDispositivo, int umbralFallos, long tiempoAbiertoMs) {
+        this.idDispositivo = idDispositivo;
+        this.umbralFallos = Math.max(1, umbralFallos);
+        this.tiempoAbiertoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, tiempoAbiertoMs));
+    }
+
+    /**
+     * Consulta sin efectos: true si una petición nueva sería rechazada ahora mismo
+     */
+    public synchronized boolean rechazaPeticiones() {
+        return switch (estado) {
+            case CERRADO -> false;
+            case ABIERTO -> System.nanoTime() - abiertoDesde < tiempoAbiertoNanos;
+            case SEMIABIERTO -> pruebaEnCurso;
+        };
+    }
+
+    /**
+     * Como rechazaPeticiones, pero cuenta el rechazo: para las peticiones de usuario que se
+     * descartan al instante sin llegar a la cola
+     */
+    public synchronized boolean rechazarPeticion() {
+        if (!rechazaPeticiones()) {
+            return false;
+        }
+        rechazos++;
+        return true;
+    }
+
+    /**
+     * Reserva el paso de una petición real hacia la placa.
+     * Quien recibe true debe informar después con registrarExito o registrarFallo.
+     */
+    public synchronized boolean permitirPeticion() {
+        switch (estado) {
+            case CERRADO:
+                return true;
+            case ABIERTO:
+                if (System.nanoTime() - abiertoDesde < tiempoAbiertoNanos) {
+                    rechazos++;
+                    return false;
+                }
+                estado = Estado.SEMIABIERTO;
+                logger.info("Circuito del ESP32 '{}' semiabierto: se permite una prueba", idDispositivo);
+                pruebaEnCurso = true;
+                return true;
+            case SEMIABIERTO:
+            default:
+                if (pruebaEnCurso) {
+                    rechazos++;
+                    return false;
+                }
+                pruebaEnCurso = true;
+                return true;
+        }
+    }
+
+    public synchronized void registrarExito() {
+        if (estado != Estado.CERRADO) {
+            logger.info("Circuito del ESP32 '{}' cerrado: la placa volvió a responder", idDispositivo);
+        }
+        estado = Estado.CERRADO;
+        fallosConsecutivos = 0;
+        pruebaEnCurso = false;
+    }
+
+    public synchronized void registrarFallo() {
+        fallosConsecutivos++;
+        pruebaEnCurso = false;
+        if (estado == Estado.SEMIABIERTO || (estado == Estado.CERRADO && fallosConsecutivos >= umbralFallos)) {
+            if (estado == Estado.CERRADO) {
+                aperturas++;
+                logger.warn("Circuito del ESP32 '{}' abierto tras {} fallos consecutivos", idDispositivo, fallosConsecutivos);
+            }
+            estado = Estado.ABIERTO;
+            abiertoDesde = System.nanoTime();
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    public synchronized Map<String, Object> obtenerMetricas() {
+        Map<String, Object> metricas = new HashMap<>();
+        metricas.put("estado", estado.name());
+        metricas.put("fallosConsecutivos", fallosConsecutivos);
+        metricas.put("umbralFallos", umbralFallos);
+        metricas.put("aperturas", aperturas);
+        metricas.put("rechazos", rechazos);
+        return metricas;
+    }
+}
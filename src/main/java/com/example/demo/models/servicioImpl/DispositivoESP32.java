@@ -0,0 +1,345 @@
+package com.example.demo.models.servicioImpl;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.config.ESP32Properties;
+import com.example.demo.models.dto.ComandoResultado;
+
+/**
+ * Una placa ESP32 registrada: su cliente HTTP y su cola de comandos.
+ * Cada dispositivo es independiente, así que una puerta caída no frena a las demás.
+ * La placa solo atiende un comando a la vez, por eso la cola tiene un único escritor:
+ * los comandos salen en orden de llegada y nunca hay dos peticiones en vuelo.
+ */
+public class DispositivoESP32 {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispositivoESP32.class);
+
+    private final String id;
+    private final String nombre;
+    private final String ip;
+    private final int port;
+    private final int timeout;
+    private final List<String> capacidades;
+    private final HttpClient cliente;
+    private final CircuitoESP32 circuito;
+    private final String rutaSalud;
+
+    // Configuración de la cola
+    private final int maxCola;
+    private final long ventanaCoalescenciaNanos;
+    private final List<String> comandosCoalescibles;
+
+    // Comandos a la espera de turno (no bloquean hilos)
+    private final Queue<PeticionPendiente> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanoCola = new AtomicInteger();
+
+    // Único escritor: true mientras hay un comando en vuelo hacia la placa
+    private final AtomicBoolean comandoEnCurso = new AtomicBoolean();
+
+    // Última petición aceptada por comando, para agrupar duplicados
+    private final Map<String, PeticionPendiente> ultimaPorComando = new HashMap<>();
+
+    private record PeticionPendiente(String comando, CompletableFuture<ComandoResultado> resultado, long encolada) {}
+
+    // Métricas de uso del cliente de esta placa
+    private final AtomicLong peticionesEnviadas = new AtomicLong();
+    private final AtomicLong peticionesFallidas = new AtomicLong();
+    private final AtomicLong peticionesEnEspera = new AtomicLong();
+    private final AtomicLong peticionesAgrupadas = new AtomicLong();
+    private final AtomicLong peticionesRechazadas = new AtomicLong();
+    private final AtomicLong latenciaAcumuladaMs = new AtomicLong();
+
+    public DispositivoESP32(String id, String nombre, String ip, int port, int timeout,
+                            List<String> capacidades, HttpClient cliente, ESP32Properties propiedades) {
+        this.id = id;
+        this.nombre = nombre != null ? nombre : id;
+        this.ip = ip;
+        this.port = port;
+        this.timeout = timeout;
+        this.capacidades = capacidades != null ? List.copyOf(capacidades) : List.of();
+        this.cliente = cliente;
+        this.circuito = new CircuitoESP32(id, propiedades.getCircuito().getUmbralFallos(),
+                propiedades.getCircuito().getTiempoAbiertoMs());
+        String ruta = propiedades.getSalud().getRuta();
+        this.rutaSalud = ruta != null && ruta.startsWith("/") ? ruta : "/";
+        this.maxCola = Math.max(1, propiedades.getMaxCola());
+        this.ventanaCoalescenciaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, propiedades.getVentanaCoalescenciaMs()));
+        this.comandosCoalescibles = propiedades.getComandosCoalescibles() != null
+                ? List.copyOf(propiedades.getComandosCoalescibles()) : List.of();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public List<String> getCapacidades() {
+        return capacidades;
+    }
+
+    public CircuitoESP32 getCircuito() {
+        return circuito;
+    }
+
+    /**
+     * Una placa sin capacidades declaradas acepta cualquier comando
+     */
+    public boolean soporta(String comando) {
+        return capacidades.isEmpty() || capacidades.contains(comando);
+    }
+
+    public CompletableFuture<ComandoResultado> enviarComandoAsync(String comando) {
+        logger.info("Enviando comando asíncrono '{}' al ESP32 '{}' en {}:{}", comando, id, ip, port);
+
+        if (!soporta(comando)) {
+            logger.warn("El dispositivo '{}' no soporta el comando '{}'", id, comando);
+            return CompletableFuture.completedFuture(
+                    ComandoResultado.fallo(comando, 0, "Comando no soportado por el dispositivo " + id, 0));
+        }
+
+        // Con el circuito abierto se falla al instante, sin esperar el timeout de la red
+        if (circuito.rechazarPeticion()) {
+            logger.warn("Circuito abierto para el ESP32 '{}', se rechaza '{}'", id, comando);
+            return CompletableFuture.completedFuture(ComandoResultado.circuitoAbierto(comando, id));
+        }
+
+        long ahora = System.nanoTime();
+        PeticionPendiente peticion;
+
+        synchronized (ultimaPorComando) {
+            // Un duplicado que llega mientras el anterior sigue pendiente comparte su resultado
+            PeticionPendiente previa = ultimaPorComando.get(comando);
+            if (previa != null && !previa.resultado().isDone()
+                    && ahora - previa.encolada() < ventanaCoalescenciaNanos) {
+                peticionesAgrupadas.incrementAndGet();
+                logger.info("Comando '{}' agrupado con una petición pendiente del ESP32 '{}'", comando, id);
+                return previa.resultado();
+            }
+
+            if (tamanoCola.get() >= maxCola) {
+                peticionesRechazadas.incrementAndGet();
+                logger.warn("Cola del ESP32 '{}' llena ({} comandos), se rechaza '{}'", id, maxCola, comando);
+                return CompletableFuture.completedFuture(
+                        ComandoResultado.fallo(comando, 0, "Cola de comandos llena para el ESP32 " + id, 0));
+            }
+
+            // Si el comando no sale a tiempo se responde sin bloquear a nadie
+            CompletableFuture<ComandoResultado> resultado = new CompletableFuture<ComandoResultado>()
+                    .completeOnTimeout(
+                            ComandoResultado.fallo(comando, 0, "El ESP32 " + id + " no atendió el comando a tiempo", timeout),
+                            timeout * 2L, TimeUnit.MILLISECONDS);
+            peticion = new PeticionPendiente(comando, resultado, ahora);
+            if (comandosCoalescibles.contains(comando)) {
+                ultimaPorComando.put(comando, peticion);
+            }
+            if (comandoEnCurso.get()) {
+                peticionesEnEspera.incrementAndGet();
+            }
+            tamanoCola.incrementAndGet();
+            pendientes.add(peticion);
+        }
+
+        despacharSiguiente();
+        return peticion.resultado();
+    }
+
+    /**
+     * Envía el siguiente comando de la cola si la placa está libre.
+     * Solo un hilo a la vez gana comandoEnCurso, así que los comandos salen de uno en uno y en orden.
+     */
+    private void despacharSiguiente() {
+        while (!pendientes.isEmpty() && comandoEnCurso.compareAndSet(false, true)) {
+            PeticionPendiente peticion = pendientes.poll();
+            if (peticion == null) {
+                comandoEnCurso.set(false);
+                continue;
+            }
+            tamanoCola.decrementAndGet();
+            if (peticion.resultado().isDone()) {
+                // Expiró esperando turno: no se envía
+                peticionesFallidas.incrementAndGet();
+                comandoEnCurso.set(false);
+                continue;
+            }
+            if (!circuito.permitirPeticion()) {
+                // El circuito se abrió mientras esperaba en la cola
+                peticion.resultado().complete(ComandoResultado.circuitoAbierto(peticion.comando(), id));
+                comandoEnCurso.set(false);
+                continue;
+            }
+            enviarComandoHTTP(peticion.comando(), peticion.encolada())
+                .whenComplete((res, error) -> {
+                    // Todos los que esperaban este comando reciben el mismo resultado
+                    if (error != null) {
+                        peticion.resultado().completeExceptionally(error);
+                    } else {
+                        peticion.resultado().complete(res);
+                    }
+                    comandoEnCurso.set(false);
+                    despacharSiguiente();
+                });
+            return;
+        }
+    }
+
+    private CompletableFuture<ComandoResultado> enviarComandoHTTP(String comando, long inicio) {
+        String url = String.format("http://%s:%d/comando?cmd=%s",
+            ip, port, URLEncoder.encode(comando, StandardCharsets.UTF_8));
+
+        logger.info("Enviando request a: {}", url);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .timeout(Duration.ofMillis(timeout))
+            .GET()
+            .build();
+
+        // Cliente propio de la placa: reutiliza la conexión keep-alive abierta
+        return cliente.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                peticionesEnviadas.incrementAndGet();
+                latenciaAcumuladaMs.addAndGet(duracionMs);
+
+                if (error != null) {
+                    peticionesFallidas.incrementAndGet();
+                    circuito.registrarFallo();
+                    Throwable causa = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    if (causa instanceof ConnectException) {
+                        logger.error("No se puede conectar al ESP32 '{}' en {}:{} - Verifique que esté encendido y accesible", id, ip, port);
+                    } else {
+                        logger.error("Error en comunicación HTTP con ESP32 '{}': ", id, causa);
+                    }
+                    return ComandoResultado.fallo(comando, 0, causa.getMessage(), duracionMs);
+                }
+
+                // Cualquier respuesta HTTP indica que la placa está viva
+                circuito.registrarExito();
+                int statusCode = response.statusCode();
+                String responseBody = response.body();
+
+                logger.info("Respuesta del ESP32 '{}' - Código: {}, Cuerpo: {}", id, statusCode, responseBody);
+
+                if (statusCode != 200) {
+                    peticionesFallidas.incrementAndGet();
+                    return ComandoResultado.fallo(comando, statusCode, responseBody, duracionMs);
+                }
+                return ComandoResultado.exito(comando, statusCode, responseBody, duracionMs);
+            });
+    }
+
+    /**
+     * Sondea la ruta de salud de la placa. Cualquier respuesta HTTP cuenta como viva.
+     * La sonda ocupa el mismo turno que los comandos (la placa solo atiende una petición a la vez):
+     * si hay un comando en vuelo o esperando, o el circuito no deja pasar la prueba, no se envía y
+     * el resultado es null. Si se envía alimenta el circuito y devuelve la latencia en ms o -1.
+     */
+    public CompletableFuture<Long> sondear() {
+        if (!pendientes.isEmpty() || !comandoEnCurso.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!circuito.permitirPeticion()) {
+            comandoEnCurso.set(false);
+            despacharSiguiente();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long inicio = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(String.format("http://%s:%d%s", ip, port, rutaSalud)))
+            .timeout(Duration.ofMillis(timeout))
+            .GET()
+            .build();
+
+        return cliente.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, error) -> {
+                long latencia;
+                if (error != null) {
+                    circuito.registrarFallo();
+                    logger.debug("Sonda del ESP32 '{}' sin respuesta: {}", id, error.getMessage());
+                    latencia = -1L;
+                } else {
+                    circuito.registrarExito();
+                    latencia = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                }
+                // Los comandos que llegaron durante la sonda salen ahora
+                comandoEnCurso.set(false);
+                despacharSiguiente();
+                return latencia;
+            });
+    }
+
+    public Map<String, Object> obtenerMetricas() {
+        long total = peticionesEnviadas.get();
+
+        Map<String, Object> metricas = new HashMap<>();
+        metricas.put("dispositivo", id);
+        metricas.put("peticionesEnviadas", total);
+        metricas.put("peticionesFallidas", peticionesFallidas.get());
+        metricas.put("peticionesEnEspera", peticionesEnEspera.get());
+        metricas.put("peticionesAgrupadas", peticionesAgrupadas.get());
+        metricas.put("peticionesRechazadas", peticionesRechazadas.get());
+        metricas.put("peticionesEnCola", tamanoCola.get());
+        metricas.put("comandoEnCurso", comandoEnCurso.get());
+        metricas.put("maxCola", maxCola);
+        metricas.put("latenciaPromedioMs", total > 0 ? latenciaAcumuladaMs.get() / total : 0);
+        metricas.put("circuito", circuito.obtenerMetricas());
+        return metricas;
+    }
+
+    public Map<String, Object> obtenerDescripcion() {
+        Map<String, Object> descripcion = new HashMap<>();
+        descripcion.put("id", id);
+        descripcion.put("nombre", nombre);
+        descripcion.put("ip", ip);
+        descripcion.put("port", port);
+        descripcion.put("timeout", timeout);
+        descripcion.put("maxCola", maxCola);
+        descripcion.put("capacidades", capacidades);
+        return descripcion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ESP32 '%s' - IP: %s, Puerto: %d, Timeout: %d ms, Cola: %d comandos",
+                             id, ip, port, timeout, maxCola);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.models.servicioImpl;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.models.dto.EstadoSaludESP32;
+import com.example.demo.models.servicio.NotificadorService;
+
+/**
+ * Monitor de salud de las placas ESP32.
+ * Sondea cada placa por HTTP con una cadencia fija y guarda el último estado en memoria,
+ * de modo que los endpoints de estado responden desde la caché sin tocar la red.
+ * Los sondeos alimentan también el circuit breaker de cada placa y se difunden por WebSocket.
+ */
+@Component
+public class ESP32MonitorSalud {
+
+    private static final Logger logger = LoggerFactory.getLogger(ESP32MonitorSalud.class);
+
+    @Autowired
+    private ESP32RegistroDispositivos registro;
+
+    @Autowired
+    private NotificadorService notificador;
+
+    private final Map<String, EstadoSaludESP32> estados = new ConcurrentHashMap<>();
+
+    // Placas con un sondeo todavía en vuelo (si el timeout supera el intervalo no se solapan)
+    private final Set<String> sondeosEnCurso = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${esp32.salud.intervalo-ms:10000}")
+    public void sondearDispositivos() {
+        for (DispositivoESP32 dispositivo : registro.todos()) {
+            // Circuito abierto: no se sondea hasta que toque la prueba del estado semiabierto.
+            // Consulta sin efectos, para no contar como rechazos las sondas que el monitor se salta
+            if (dispositivo.getCircuito().rechazaPeticiones()) {
+                refrescarCircuito(dispositivo);
+                continue;
+            }
+
+            if (!sondeosEnCurso.add(dispositivo.getId())) {
+                continue;
+            }
+            dispositivo.sondear().whenComplete((latencia, error) -> {
+                sondeosEnCurso.remove(dispositivo.getId());
+                if (error == null && latencia == null) {
+                    // No se envió (la placa estaba atendiendo un comando): se conserva el último estado
+                    refrescarCircuito(dispositivo);
+                    return;
+                }
+                actualizar(dispositivo, error != null ? -1L : latencia);
+            });
+        }
+    }
+
+    /**
+     * Sin sondeo no cambian conexión, comprobaciones ni disponibilidad: solo el estado del circuito,
+     * y solo se difunde si ha cambiado
+     */
+    private void refrescarCircuito(DispositivoESP32 dispositivo) {
+        String circuito = dispositivo.getCircuito().getEstado().name();
+        EstadoSaludESP32 previo = estados.get(dispositivo.getId());
+        if (previo != null && circuito.equals(previo.getEstadoCircuito())) {
+            return;
+        }
+        EstadoSaludESP32 actual = estados.compute(dispositivo.getId(), (id, ultimo) -> ultimo != null
+                ? new EstadoSaludESP32(id, ultimo.isConectado(), ultimo.getLatenciaMs(), ultimo.getUltimaComprobacion(),
+                        ultimo.getConectadoDesde(), ultimo.getComprobaciones(), ultimo.getComprobacionesExitosas(), circuito)
+                : new EstadoSaludESP32(id, false, -1L, null, null, 0, 0, circuito));
+        notificador.notificarEstadoDispositivo(actual, dispositivo.getId().equals(registro.getIdPorDefecto()));
+    }
+
+    private void actualizar(DispositivoESP32 dispositivo, long latenciaMs) {
+        LocalDateTime ahora = LocalDateTime.now();
+        boolean conectado = latenciaMs >= 0;
+
+        EstadoSaludESP32 actual = estados.compute(dispositivo.getId(), (id, previo) -> {
+            boolean estabaConectado = previo != null && previo.isConectado();
+            if (previo == null || estabaConectado != conectado) {
+                logger.info("ESP32 '{}' {}", id, conectado ? "responde" : "no responde");
+            }
+            LocalDateTime conectadoDesde = conectado
+                    ? (estabaConectado ? previo.getConectadoDesde() : ahora)
+                    : null;
+            long comprobaciones = previo != null ? previo.getComprobaciones() + 1 : 1;
+            long exitosas = (previo != null ? previo.getComprobacionesExitosas() : 0) + (conectado ? 1 : 0);
+
+            return new EstadoSaludESP32(id, conectado, latenciaMs, ahora, conectadoDesde,
+                    comprobaciones, exitosas, dispositivo.getCircuito().getEstado().name());
+        });
+
+        // Los paneles abiertos reciben el estado sin tener que consultarlo
+        notificador.notificarEstadoDispositivo(actual, dispositivo.getId().equals(registro.getIdPorDefecto()));
+    }
+
+    /**
+     * Último estado conocido de la placa, o null si todavía no se ha sondeado
+     */
+    public EstadoSaludESP32 obtenerEstado(String idDispositivo) {
+        return estados.get(idDispositivo);
+    }
+}
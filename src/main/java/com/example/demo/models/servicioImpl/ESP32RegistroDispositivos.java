@@ -0,0 +1,90 @@
+package com.example.demo.models.servicioImpl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.ESP32HttpClientFactory;
+import com.example.demo.config.ESP32Properties;
+
+/**
+ * Registro de las placas ESP32 configuradas (id → host, puerto, timeout, capacidades).
+ * Sin entradas en esp32.dispositivos se registra una sola placa con esp32.ip/esp32.port.
+ */
+@Component
+public class ESP32RegistroDispositivos {
+
+    private static final Logger logger = LoggerFactory.getLogger(ESP32RegistroDispositivos.class);
+
+    @Autowired
+    private ESP32Properties esp32Properties;
+
+    @Autowired
+    private ESP32HttpClientFactory clientFactory;
+
+    // Se llena una vez al arrancar y después solo se lee
+    private Map<String, DispositivoESP32> dispositivos = Collections.emptyMap();
+    private String idPorDefecto;
+
+    @PostConstruct
+    public void cargarDispositivos() {
+        Map<String, DispositivoESP32> registro = new LinkedHashMap<>();
+
+        if (esp32Properties.getDispositivos().isEmpty()) {
+            String id = esp32Properties.getDispositivoPorDefecto();
+            registro.put(id, new DispositivoESP32(id, id,
+                    esp32Properties.getIp(), esp32Properties.getPort(), esp32Properties.getTimeout(), null,
+                    clientFactory.crearCliente(id, esp32Properties.getTimeout()), esp32Properties));
+        } else {
+            esp32Properties.getDispositivos().forEach((id, config) -> {
+                if (config.getIp() == null || config.getIp().isBlank()) {
+                    logger.warn("Dispositivo ESP32 '{}' sin IP configurada, se ignora", id);
+                    return;
+                }
+                int timeout = config.getTimeout() > 0 ? config.getTimeout() : esp32Properties.getTimeout();
+                registro.put(id, new DispositivoESP32(id, config.getNombre(),
+                        config.getIp(), config.getPort(), timeout, config.getCapacidades(),
+                        clientFactory.crearCliente(id, timeout), esp32Properties));
+            });
+        }
+
+        dispositivos = Collections.unmodifiableMap(registro);
+        idPorDefecto = dispositivos.containsKey(esp32Properties.getDispositivoPorDefecto())
+                ? esp32Properties.getDispositivoPorDefecto()
+                : dispositivos.keySet().stream().findFirst().orElse(null);
+
+        dispositivos.values().forEach(d -> logger.info("Registrado {}", d));
+        logger.info("Dispositivo ESP32 por defecto: {}", idPorDefecto);
+    }
+
+    /**
+     * Devuelve la placa indicada, o la placa por defecto si el id viene vacío.
+     * Devuelve null si el id no está registrado.
+     */
+    public DispositivoESP32 obtener(String idDispositivo) {
+        if (idDispositivo == null || idDispositivo.isBlank()) {
+            return idPorDefecto != null ? dispositivos.get(idPorDefecto) : null;
+        }
+        return dispositivos.get(idDispositivo);
+    }
+
+    public boolean existe(String idDispositivo) {
+        return obtener(idDispositivo) != null;
+    }
+
+    public Collection<DispositivoESP32> todos() {
+        return dispositivos.values();
+    }
+
+    public String getIdPorDefecto() {
+        return idPorDefecto;
+    }
+}
@@ -1,118 +1,120 @@
 package com.example.demo.models.servicioImpl;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.ConnectException;
-import java.net.HttpURLConnection;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.net.URI;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.example.demo.config.ESP32Properties;
+import com.example.demo.config.ESP32HttpClientFactory;
+import com.example.demo.models.dto.ComandoResultado;
+import com.example.demo.models.dto.EstadoSaludESP32;
 import com.example.demo.models.servicio.ESP32Service;
 
 @Service
 public class ESP32ServiceImpl implements ESP32Service{
 
     private static final Logger logger = LoggerFactory.getLogger(ESP32ServiceImpl.class);
-    
-    @Value("${esp32.ip:192.168.113.223}")
-    private String esp32Ip;
-    
-    @Value("${esp32.port:80}")
-    private int esp32Port;
-    
-    @Value("${esp32.timeout:5000}")
-    private int esp32Timeout;
+
+    @Autowired
+    private ESP32RegistroDispositivos registro;
+
+    @Autowired
+    private ESP32MonitorSalud monitorSalud;
+
+    @Autowired
+    private ESP32HttpClientFactory clientFactory;
 
     @Override
     public boolean enviarComando(String comando) {
-        logger.info("Enviando comando '{}' al ESP32 en {}:{}", comando, esp32Ip, esp32Port);
-        
+        return enviarComando(null, comando);
+    }
+
+    @Override
+    public boolean enviarComando(String idDispositivo, String comando) {
         try {
-            return enviarComandoHTTP(comando);
+            return enviarComandoAsync(idDispositivo, comando).join().isExitoso();
         } catch (Exception e) {
             logger.error("Error al enviar comando al ESP32: ", e);
             return false;
         }
+    }
 
+    @Override
+    public CompletableFuture<ComandoResultado> enviarComandoAsync(String comando) {
+        return enviarComandoAsync(null, comando);
     }
 
-    private boolean enviarComandoHTTP(String comando) {
-        try {
-            // Usar HttpClient moderno en lugar de URL deprecated
-            String url = String.format("http://%s:%d/comando?cmd=%s", 
-                esp32Ip, esp32Port, URLEncoder.encode(comando, StandardCharsets.UTF_8));
-            
-            logger.info("Enviando request a: {}", url);
-            
-            HttpClient client = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofMillis(esp32Timeout))
-                .build();
-            
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofMillis(esp32Timeout))
-                .GET()
-                .build();
-            
-            HttpResponse<String> response = client.send(request, 
-                HttpResponse.BodyHandlers.ofString());
-            
-            int statusCode = response.statusCode();
-            String responseBody = response.body();
-            
-            logger.info("Respuesta del ESP32 - Código: {}, Cuerpo: {}", statusCode, responseBody);
-            
-            return statusCode == 200;
-            
-        } catch (ConnectException e) {
-            logger.error("No se puede conectar al ESP32 en {}:{} - Verifique que esté encendido y accesible", esp32Ip, esp32Port);
-            return false;
-        } catch (Exception e) {
-            logger.error("Error en comunicación HTTP con ESP32: ", e);
-            return false;
+    @Override
+    public CompletableFuture<ComandoResultado> enviarComandoAsync(String idDispositivo, String comando) {
+        DispositivoESP32 dispositivo = registro.obtener(idDispositivo);
+        if (dispositivo == null) {
+            logger.warn("Dispositivo ESP32 desconocido: {}", idDispositivo);
+            return CompletableFuture.completedFuture(
+                    ComandoResultado.fallo(comando, 0, "Dispositivo desconocido: " + idDispositivo, 0));
         }
+        return dispositivo.enviarComandoAsync(comando);
     }
 
     @Override
     public String obtenerEstadoConexion() {
-        try {
-            logger.info("Verificando conexión con ESP32 en {}", esp32Ip);
-            InetAddress inet = InetAddress.getByName(esp32Ip);
-            
-            if (inet.isReachable(esp32Timeout)) {
-                return String.format("ESP32 conectado en %s:%d", esp32Ip, esp32Port);
-            } else {
-                return String.format("ESP32 no responde en %s:%d", esp32Ip, esp32Port);
-            }
-        } catch (Exception e) {
-            logger.error("Error al verificar conexión: ", e);
-            return "Error de conexión: " + e.getMessage();
+        return obtenerEstadoConexion(null);
+    }
+
+    @Override
+    public String obtenerEstadoConexion(String idDispositivo) {
+        DispositivoESP32 dispositivo = registro.obtener(idDispositivo);
+        if (dispositivo == null) {
+            return "Dispositivo desconocido: " + idDispositivo;
+        }
+
+        // Se responde con el último sondeo del monitor, sin tocar la red
+        EstadoSaludESP32 salud = monitorSalud.obtenerEstado(dispositivo.getId());
+        if (salud == null) {
+            return String.format("ESP32 pendiente de verificación en %s:%d", dispositivo.getIp(), dispositivo.getPort());
+        }
+        if (salud.isConectado()) {
+            return String.format("ESP32 conectado en %s:%d", dispositivo.getIp(), dispositivo.getPort());
         }
+        if (dispositivo.getCircuito().rechazaPeticiones()) {
+            return String.format("ESP32 no responde en %s:%d (circuito abierto)", dispositivo.getIp(), dispositivo.getPort());
+        }
+        return String.format("ESP32 no responde en %s:%d", dispositivo.getIp(), dispositivo.getPort());
+    }
+
+    @Override
+    public Map<String, Object> obtenerEstadoSalud(String idDispositivo) {
+        DispositivoESP32 dispositivo = registro.obtener(idDispositivo);
+        Map<String, Object> estado = new HashMap<>();
+        if (dispositivo == null) {
+            return estado;
+        }
+
+        EstadoSaludESP32 salud = monitorSalud.obtenerEstado(dispositivo.getId());
+        estado.put("dispositivo", dispositivo.getId());
+        estado.put("conectado", salud != null && salud.isConectado());
+        estado.put("verificado", salud != null);
+        estado.put("estadoCircuito", dispositivo.getCircuito().getEstado().name());
+        if (salud != null) {
+            estado.put("latenciaMs", salud.getLatenciaMs());
+            estado.put("uptimeSegundos", salud.getUptimeSegundos());
+            estado.put("disponibilidad", salud.getDisponibilidad());
+            estado.put("ultimaComprobacion", salud.getUltimaComprobacion());
+        }
+        return estado;
     }
 
     @Override
     public boolean conectarESP32() {
-        logger.info("Intentando conectar con ESP32 en {}:{}...", esp32Ip, esp32Port);
+        logger.info("Intentando conectar con el ESP32 por defecto '{}'...", registro.getIdPorDefecto());
         String estado = obtenerEstadoConexion();
         logger.info("Estado de conexión: {}", estado);
-        return estado.contains("conectado");
+        return Boolean.TRUE.equals(obtenerEstadoSalud(null).get("conectado"));
     }
 
     @Override
@@ -120,8 +122,43 @@ public class ESP32ServiceImpl implements ESP32Service{
         logger.info("Desconexión del ESP32 completada");
     }
 
+    @Override
+    public Map<String, Object> obtenerMetricasCliente() {
+        return obtenerMetricasCliente(null);
+    }
+
+    @Override
+    public Map<String, Object> obtenerMetricasCliente(String idDispositivo) {
+        DispositivoESP32 dispositivo = registro.obtener(idDispositivo);
+        if (dispositivo == null) {
+            return new HashMap<>();
+        }
+        Map<String, Object> metricas = dispositivo.obtenerMetricas();
+        // Un cliente por placa: si supera a las placas registradas se están creando clientes por comando
+        metricas.put("clientesCreados", clientFactory.getClientesCreados());
+        metricas.put("dispositivosRegistrados", registro.todos().size());
+        return metricas;
+    }
+
+    @Override
+    public boolean existeDispositivo(String idDispositivo) {
+        return registro.existe(idDispositivo);
+    }
+
+    @Override
+    public List<Map<String, Object>> listarDispositivos() {
+        return registro.todos().stream()
+                .map(d -> {
+                    Map<String, Object> descripcion = d.obtenerDescripcion();
+                    descripcion.put("porDefecto", d.getId().equals(registro.getIdPorDefecto()));
+                    return descripcion;
+                })
+                .collect(Collectors.toList());
+    }
+
     public String obtenerConfiguracion() {
-        return String.format("ESP32 Config - IP: %s, Puerto: %d, Timeout: %d ms", 
-                           esp32Ip, esp32Port, esp32Timeout);
+        return registro.todos().stream()
+                .map(DispositivoESP32::toString)
+                .collect(Collectors.joining("\n"));
     }
-}
\ No newline at end of file
+}
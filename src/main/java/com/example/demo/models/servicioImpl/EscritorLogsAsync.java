@@ -0,0 +1,318 @@
+package com.example.demo.models.servicioImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.EscritorLogs;
+import com.example.demo.models.servicio.ObservadorLogs;
+
+/**
+ * Escritor asíncrono de log_acceso.
+ * Los hilos de petición dejan el log en un buffer acotado y vuelven enseguida;
+ * un único hilo lo vacía en lotes (INSERT por lotes JDBC, ids de secuencia) y avisa a los observadores.
+ */
+@Service
+public class EscritorLogsAsync implements EscritorLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscritorLogsAsync.class);
+
+    /**
+     * Qué hacer cuando el buffer está lleno
+     */
+    public enum PoliticaSaturacion {
+        BLOQUEAR,          // Esperar hasta espera-maxima-ms y, si sigue lleno, escribir en el hilo que llama
+        ESCRIBIR_DIRECTO,  // Escribir en el hilo que llama sin esperar
+        DESCARTAR          // Perder el log (solo se cuenta)
+    }
+
+    @Value("${auditoria.capacidad-buffer:10000}")
+    private int capacidadBuffer;
+
+    @Value("${auditoria.tamano-lote:50}")
+    private int tamanoLote;
+
+    @Value("${auditoria.intervalo-flush-ms:200}")
+    private long intervaloFlushMs;
+
+    @Value("${auditoria.politica-saturacion:BLOQUEAR}")
+    private PoliticaSaturacion politicaSaturacion;
+
+    @Value("${auditoria.espera-maxima-ms:100}")
+    private long esperaMaximaMs;
+
+    // Reintentos de un lote fallido por un error transitorio (caída breve de la base de datos)
+    @Value("${auditoria.reintentos:3}")
+    private int reintentos;
+
+    @Value("${auditoria.espera-reintento-ms:200}")
+    private long esperaReintentoMs;
+
+    @Autowired
+    private LogAccesoDao logAccesoDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<ObservadorLogs> observadores;
+
+    private BlockingQueue<LogAcceso> buffer;
+    private TransactionTemplate transaccion;
+    private Thread hiloEscritor;
+    private volatile boolean activo;
+
+    private final AtomicLong encolados = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong escritosDirectos = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong reintentosLote = new AtomicLong();
+    private final AtomicLong lotesFila = new AtomicLong();
+
+    @PostConstruct
+    public void iniciar() {
+        alinearSecuencia();
+
+        buffer = new ArrayBlockingQueue<>(Math.max(1, capacidadBuffer));
+        transaccion = new TransactionTemplate(transactionManager);
+        activo = true;
+
+        hiloEscritor = new Thread(this::bucleEscritura, "auditoria-escritor");
+        hiloEscritor.setDaemon(true);
+        hiloEscritor.start();
+        logger.info("Escritor de auditoría iniciado (buffer {}, lote {}, flush {} ms, política {})",
+                capacidadBuffer, tamanoLote, intervaloFlushMs, politicaSaturacion);
+    }
+
+    /**
+     * La tabla venía de ids IDENTITY: se adelanta la secuencia para que no repita ids existentes
+     */
+    private void alinearSecuencia() {
+        try {
+            jdbcTemplate.queryForObject(
+                "SELECT setval('log_acceso_seq', m.siguiente) FROM " +
+                "(SELECT COALESCE(MAX(id_log), 0) + " + LogAcceso.TAMANO_BLOQUE_IDS + " AS siguiente FROM log_acceso) m " +
+                "WHERE (SELECT last_value FROM log_acceso_seq) < m.siguiente",
+                Long.class);
+            logger.info("Secuencia log_acceso_seq adelantada por encima del máximo id_log");
+        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
+            // La secuencia ya estaba por delante
+        } catch (Exception e) {
+            logger.warn("No se pudo alinear log_acceso_seq: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void registrar(LogAcceso log) {
+        encolados.incrementAndGet();
+        if (activo && buffer.offer(log)) {
+            return;
+        }
+
+        switch (politicaSaturacion) {
+            case DESCARTAR:
+                descartados.incrementAndGet();
+                logger.warn("Buffer de auditoría lleno, se descarta el log {} - {}", log.getUserName(), log.getAccion());
+                return;
+            case BLOQUEAR:
+                try {
+                    if (activo && buffer.offer(log, esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                escribirDirecto(log);
+                return;
+            case ESCRIBIR_DIRECTO:
+            default:
+                escribirDirecto(log);
+        }
+    }
+
+    private void escribirDirecto(LogAcceso log) {
+        escritosDirectos.incrementAndGet();
+        escribirLote(List.of(log));
+    }
+
+    private void bucleEscritura() {
+        List<LogAcceso> lote = new ArrayList<>(tamanoLote);
+        while (activo || !buffer.isEmpty()) {
+            try {
+                LogAcceso primero = buffer.poll(intervaloFlushMs, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+
+                // Se junta el lote hasta llenarlo o hasta que pase el intervalo de flush
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloFlushMs);
+                while (lote.size() < tamanoLote) {
+                    buffer.drainTo(lote, tamanoLote - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= tamanoLote || restante <= 0 || !activo) {
+                        break;
+                    }
+                    LogAcceso siguiente = buffer.poll(restante, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                // Cierre: se sigue vaciando el buffer hasta dejarlo vacío
+                activo = false;
+            } catch (Exception e) {
+                logger.error("Error en el escritor de auditoría: ", e);
+            } finally {
+                lote.clear();
+            }
+        }
+        logger.info("Escritor de auditoría detenido ({} logs escritos)", escritos.get());
+    }
+
+    private void escribirLote(List<LogAcceso> lote) {
+        List<LogAcceso> copia = new ArrayList<>(lote);
+        List<LogAcceso> escritosLote = guardarConReintentos(copia);
+        if (escritosLote.isEmpty()) {
+            return;
+        }
+
+        observadores.orderedStream().forEach(observador -> {
+            try {
+                observador.logsRegistrados(escritosLote);
+            } catch (Exception e) {
+                logger.warn("Observador de logs {} falló: {}", observador.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Guarda el lote completo; los errores transitorios se reintentan con espera creciente.
+     * Si el lote sigue fallando (o el error es de datos, p. ej. una acción demasiado larga) se
+     * escribe fila a fila para que solo se pierdan las filas que la base de datos rechaza.
+     * Devuelve los logs que quedaron escritos.
+     */
+    private List<LogAcceso> guardarConReintentos(List<LogAcceso> copia) {
+        long espera = esperaReintentoMs;
+        for (int intento = 0; ; intento++) {
+            try {
+                guardar(copia);
+                escritos.addAndGet(copia.size());
+                lotes.incrementAndGet();
+                return copia;
+            } catch (Exception e) {
+                boolean transitorio = !(e instanceof NonTransientDataAccessException);
+                if (!transitorio || intento >= reintentos) {
+                    logger.warn("No se pudo escribir un lote de {} logs ({}); se escribe fila a fila",
+                            copia.size(), e.getMessage());
+                    break;
+                }
+                reintentosLote.incrementAndGet();
+                logger.warn("Error escribiendo un lote de {} logs, reintento {} en {} ms: {}",
+                        copia.size(), intento + 1, espera, e.getMessage());
+                if (!esperar(espera)) {
+                    break;
+                }
+                espera *= 2;
+            }
+        }
+
+        lotesFila.incrementAndGet();
+        List<LogAcceso> guardados = new ArrayList<>(copia.size());
+        for (LogAcceso log : copia) {
+            try {
+                guardar(List.of(log));
+                guardados.add(log);
+            } catch (Exception e) {
+                fallidos.incrementAndGet();
+                logger.error("Log de auditoría descartado (usuario={}, accion={}, resultado={}, fecha={}): {}",
+                        log.getUserName(), log.getAccion(), log.getResultado(), log.getFechaHora(), e.getMessage());
+            }
+        }
+        escritos.addAndGet(guardados.size());
+        return guardados;
+    }
+
+    private void guardar(List<LogAcceso> logs) {
+        // Un intento anterior fallido pudo dejar ids de secuencia asignados: sin id vuelven a ser nuevos
+        logs.forEach(log -> log.setIdLog(null));
+        // Una transacción por lote: con ids de secuencia Hibernate agrupa los INSERT en un batch JDBC
+        transaccion.executeWithoutResult(estado -> logAccesoDao.saveAll(logs));
+    }
+
+    private boolean esperar(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+            return true;
+        } catch (InterruptedException e) {
+            // Cierre: se pasa directamente a fila a fila para no perder el lote
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, Object> obtenerMetricas() {
+        Map<String, Object> metricas = new HashMap<>();
+        metricas.put("encolados", encolados.get());
+        metricas.put("escritos", escritos.get());
+        metricas.put("lotes", lotes.get());
+        metricas.put("escritosDirectos", escritosDirectos.get());
+        metricas.put("descartados", descartados.get());
+        metricas.put("fallidos", fallidos.get());
+        metricas.put("reintentosLote", reintentosLote.get());
+        metricas.put("lotesFilaAFila", lotesFila.get());
+        metricas.put("enBuffer", buffer != null ? buffer.size() : 0);
+        metricas.put("capacidadBuffer", capacidadBuffer);
+        metricas.put("politicaSaturacion", politicaSaturacion.name());
+        return metricas;
+    }
+
+    /**
+     * Vacía lo pendiente antes de que se cierren el EntityManager y el pool de conexiones
+     */
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        if (hiloEscritor == null) {
+            return;
+        }
+        try {
+            hiloEscritor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            logger.warn("Quedaron {} logs sin escribir al cerrar", buffer.size());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.models.servicioImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.models.dao.ContadorLogsDao;
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.dto.EstadisticasLogs;
+import com.example.demo.models.entity.ContadorLogs;
+import com.example.demo.models.entity.CategoriaAccion;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.EstadisticasLogsService;
+import com.example.demo.models.servicio.ObservadorLogs;
+
+/**
+ * Contadores de log_acceso mantenidos en memoria a medida que el escritor de auditoría confirma lotes.
+ * Se guardan cada cierto tiempo en contador_logs junto con el mayor idLog contado; al arrancar se
+ * cargan y sólo se cuentan en la tabla los logs posteriores a esa marca.
+ */
+@Service
+@DependsOn("rellenoCategoriaLogs")
+public class EstadisticasLogsServiceImpl implements EstadisticasLogsService, ObservadorLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasLogsServiceImpl.class);
+
+    private static final String TOTAL = "total";
+    private static final String APERTURAS = "aperturas";
+    private static final String LOGINS = "logins";
+    private static final String PREFIJO_RESULTADO = "resultado.";
+    private static final String PREFIJO_TIPO = "tipoAccion.";
+    private static final String SIN_TIPO = "SIN_TIPO";
+    private static final String MARCA_ULTIMO_ID = "ultimoIdLog";
+
+    @Autowired
+    private LogAccesoDao logAccesoDao;
+
+    @Autowired
+    private ContadorLogsDao contadorLogsDao;
+
+    // Se reemplaza entero al recalcular para que los lectores nunca vean contadores a medias
+    private volatile Map<String, AtomicLong> contadores = new ConcurrentHashMap<>();
+
+    // Protegidos por el monitor del objeto
+    private long ultimoIdLog;
+    // Los logs con id <= a esta marca ya estaban en la tabla al recalcular y no se vuelven a sumar
+    private long idRecalculo;
+    private boolean cambiosPendientes;
+
+    @PostConstruct
+    public void inicializar() {
+        try {
+            List<ContadorLogs> guardados = contadorLogsDao.findAll();
+            if (guardados.isEmpty()) {
+                recalcular();
+                return;
+            }
+
+            synchronized (this) {
+                Map<String, AtomicLong> cargados = new ConcurrentHashMap<>();
+                for (ContadorLogs contador : guardados) {
+                    if (MARCA_ULTIMO_ID.equals(contador.getClave())) {
+                        ultimoIdLog = contador.getValor();
+                    } else {
+                        cargados.put(contador.getClave(), new AtomicLong(contador.getValor()));
+                    }
+                }
+                long marcaGuardada = ultimoIdLog;
+
+                // Logs escritos después del último guardado (p. ej. tras una caída): búsqueda por PK
+                aplicarConteos(cargados, logAccesoDao.getConteosDesdeId(marcaGuardada));
+                contadores = cargados;
+                idRecalculo = ultimoIdLog;
+                cambiosPendientes = ultimoIdLog != marcaGuardada;
+            }
+            logger.info("Contadores de logs cargados: {} logs (último id {})", valor(TOTAL), idRecalculo);
+        } catch (Exception e) {
+            logger.error("No se pudieron cargar los contadores de logs: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void recalcular() {
+        Map<String, AtomicLong> nuevos = new ConcurrentHashMap<>();
+        ultimoIdLog = 0;
+        aplicarConteos(nuevos, logAccesoDao.getConteosDesdeId(0L));
+        contadores = nuevos;
+        idRecalculo = ultimoIdLog;
+        cambiosPendientes = true;
+
+        // Claves que ya no existen (p. ej. un tipo de acción borrado) no deben quedar guardadas
+        contadorLogsDao.deleteAllInBatch();
+        persistir();
+        logger.info("Contadores de logs recalculados: {} logs", valor(TOTAL));
+    }
+
+    @Override
+    public synchronized void descontar(List<Object[]> conteos) {
+        Map<String, AtomicLong> actuales = contadores;
+        for (Object[] fila : conteos) {
+            long total = numero(fila[2]);
+            sumar(actuales, TOTAL, -total);
+            sumar(actuales, PREFIJO_RESULTADO + fila[0], -total);
+            sumar(actuales, PREFIJO_TIPO + (fila[1] != null ? fila[1] : SIN_TIPO), -total);
+            sumar(actuales, APERTURAS, -numero(fila[3]));
+            sumar(actuales, LOGINS, -numero(fila[4]));
+        }
+        cambiosPendientes = true;
+    }
+
+    @Override
+    public synchronized void logsRegistrados(List<LogAcceso> logs) {
+        Map<String, AtomicLong> actuales = contadores;
+        for (LogAcceso log : logs) {
+            Long id = log.getIdLog();
+            if (id != null && id <= idRecalculo) {
+                continue;
+            }
+            CategoriaAccion categoria = log.getCategoriaAccion();
+            sumar(actuales, TOTAL, 1);
+            sumar(actuales, PREFIJO_RESULTADO + log.getResultado(), 1);
+            sumar(actuales, PREFIJO_TIPO + (log.getTipoAccion() != null ? log.getTipoAccion() : SIN_TIPO), 1);
+            if (categoria.esApertura()) {
+                sumar(actuales, APERTURAS, 1);
+            }
+            if (categoria == CategoriaAccion.LOGIN) {
+                sumar(actuales, LOGINS, 1);
+            }
+            if (id != null && id > ultimoIdLog) {
+                ultimoIdLog = id;
+            }
+            cambiosPendientes = true;
+        }
+    }
+
+    /**
+     * Guarda los contadores en contador_logs si cambiaron desde el último guardado
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.logs.persistencia-ms:60000}",
+               initialDelayString = "${estadisticas.logs.persistencia-ms:60000}")
+    public void persistir() {
+        List<ContadorLogs> filas = new ArrayList<>();
+        synchronized (this) {
+            if (!cambiosPendientes) {
+                return;
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            contadores.forEach((clave, valor) -> filas.add(new ContadorLogs(clave, valor.get(), ahora)));
+            filas.add(new ContadorLogs(MARCA_ULTIMO_ID, ultimoIdLog, ahora));
+            cambiosPendientes = false;
+        }
+        try {
+            contadorLogsDao.saveAll(filas);
+        } catch (Exception e) {
+            synchronized (this) {
+                cambiosPendientes = true;
+            }
+            logger.warn("No se pudieron guardar los contadores de logs: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        persistir();
+    }
+
+    @Override
+    public EstadisticasLogs obtenerEstadisticasGenerales() {
+        Map<String, Long> porResultado = new HashMap<>();
+        Map<String, Long> porTipoAccion = new HashMap<>();
+        contadores.forEach((clave, valor) -> {
+            if (clave.startsWith(PREFIJO_RESULTADO)) {
+                porResultado.put(clave.substring(PREFIJO_RESULTADO.length()), valor.get());
+            } else if (clave.startsWith(PREFIJO_TIPO)) {
+                porTipoAccion.put(clave.substring(PREFIJO_TIPO.length()), valor.get());
+            }
+        });
+        return new EstadisticasLogs(
+            valor(TOTAL),
+            porResultado.getOrDefault("EXITOSO", 0L),
+            porResultado.getOrDefault("ERROR", 0L),
+            porResultado.getOrDefault("FALLIDO", 0L),
+            valor(APERTURAS),
+            valor(LOGINS),
+            porResultado,
+            porTipoAccion,
+            LocalDateTime.now());
+    }
+
+    @Override
+    public long contarPorTipoAccion(String tipoAccion) {
+        return valor(PREFIJO_TIPO + (tipoAccion != null ? tipoAccion : SIN_TIPO));
+    }
+
+    private long valor(String clave) {
+        AtomicLong contador = contadores.get(clave);
+        return contador != null ? contador.get() : 0L;
+    }
+
+    private void aplicarConteos(Map<String, AtomicLong> destino, List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            long total = numero(fila[2]);
+            sumar(destino, TOTAL, total);
+            sumar(destino, PREFIJO_RESULTADO + fila[0], total);
+            sumar(destino, PREFIJO_TIPO + (fila[1] != null ? fila[1] : SIN_TIPO), total);
+            sumar(destino, APERTURAS, numero(fila[3]));
+            sumar(destino, LOGINS, numero(fila[4]));
+            ultimoIdLog = Math.max(ultimoIdLog, numero(fila[5]));
+        }
+    }
+
+    private static void sumar(Map<String, AtomicLong> destino, String clave, long cantidad) {
+        if (cantidad != 0) {
+            destino.computeIfAbsent(clave, k -> new AtomicLong()).addAndGet(cantidad);
+        }
+    }
+
+    private static long numero(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.models.servicioImpl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.dto.CriteriosBusquedaLogs;
+import com.example.demo.models.dto.CursorLogs;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.ExportacionLogsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exportación de logs en streaming: las filas se leen del cursor JDBC por bloques, se escriben y se
+ * sueltan del contexto de persistencia, así que la memoria no depende del número de logs.
+ */
+@Service
+public class ExportacionLogsServiceImpl implements ExportacionLogsService {
+
+    private static final String CABECERA_CSV = "Fecha,Usuario,Accion,Resultado,TipoAccion,IP,UserAgent,Detalles";
+    private static final LocalDateTime SIN_INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private LogAccesoDao logAccesoDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(String filtro, CriteriosBusquedaLogs criterios, Formato formato, boolean gzip,
+                         OutputStream salida) throws IOException {
+        LocalDateTime desde = criterios.getDesde() != null ? criterios.getDesde() : SIN_INICIO;
+        LocalDateTime hasta = criterios.getHasta() != null ? criterios.getHasta() : CursorLogs.INICIO.getFechaHora();
+        String resultado = vacioANulo(criterios.getResultado());
+        boolean soloAperturas = false;
+
+        String clave = filtro != null ? filtro.trim().toLowerCase() : "";
+        switch (clave) {
+            case "aperturas":
+                soloAperturas = true;
+                break;
+            case "exitosos":
+                resultado = "EXITOSO";
+                break;
+            case "errores":
+                resultado = "ERROR";
+                break;
+            case "hoy":
+                desde = max(desde, LocalDateTime.now().toLocalDate().atStartOfDay());
+                break;
+            case "semana":
+                desde = max(desde, LocalDateTime.now().minusDays(7));
+                break;
+            default:
+                break;
+        }
+
+        OutputStream destino = gzip ? new GZIPOutputStream(salida, 8192) : salida;
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), 16384);
+        long exportados = 0;
+
+        if (formato == Formato.CSV) {
+            escritor.write(CABECERA_CSV);
+            escritor.write("\r\n");
+        }
+
+        try (Stream<LogAcceso> logs = logAccesoDao.streamParaExportar(desde, hasta,
+                vacioANulo(criterios.getUsuario()), vacioANulo(criterios.getAccion()), resultado, soloAperturas)) {
+            Iterator<LogAcceso> iterador = logs.iterator();
+            while (iterador.hasNext()) {
+                LogAcceso log = iterador.next();
+                if (formato == Formato.NDJSON) {
+                    escribirJson(escritor, log);
+                } else {
+                    escribirCsv(escritor, log);
+                }
+                // Sin esto el contexto de persistencia retendría cada entidad leída
+                entityManager.detach(log);
+                exportados++;
+            }
+        }
+
+        escritor.flush();
+        if (destino instanceof GZIPOutputStream comprimido) {
+            comprimido.finish();
+        }
+        return exportados;
+    }
+
+    private void escribirCsv(Writer escritor, LogAcceso log) throws IOException {
+        escritor.write(campoCsv(log.getFechaHora() != null ? log.getFechaHora().toString() : ""));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getUserName()));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getAccion()));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getResultado()));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getTipoAccion()));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getDireccionIp()));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getUserAgent()));
+        escritor.write(',');
+        escritor.write(campoCsv(log.getDetalles()));
+        escritor.write("\r\n");
+    }
+
+    private void escribirJson(Writer escritor, LogAcceso log) throws IOException {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("idLog", log.getIdLog());
+        fila.put("fechaHora", log.getFechaHora() != null ? log.getFechaHora().toString() : null);
+        fila.put("idUsuario", log.getIdUsuario());
+        fila.put("userName", log.getUserName());
+        fila.put("accion", log.getAccion());
+        fila.put("resultado", log.getResultado());
+        fila.put("tipoAccion", log.getTipoAccion());
+        fila.put("direccionIp", log.getDireccionIp());
+        fila.put("userAgent", log.getUserAgent());
+        fila.put("detalles", log.getDetalles());
+        escritor.write(objectMapper.writeValueAsString(fila));
+        escritor.write('\n');
+    }
+
+    /**
+     * Campo CSV según RFC 4180 (comillas si lleva separador, comillas o saltos de línea).
+     * Los valores que empiezan como una fórmula se prefijan con ' para que una hoja de cálculo no los ejecute.
+     */
+    static String campoCsv(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return "";
+        }
+        String texto = valor;
+        char primero = texto.charAt(0);
+        if (primero == '=' || primero == '+' || primero == '-' || primero == '@' || primero == '\t' || primero == '\r') {
+            texto = "'" + texto;
+        }
+        boolean requiereComillas = texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+        return requiereComillas ? '"' + texto.replace("\"", "\"\"") + '"' : texto;
+    }
+
+    private static String vacioANulo(String valor) {
+        return valor != null && !valor.isBlank() ? valor.trim() : null;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.demo.models.servicioImpl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.models.dao.LogAccesoDao;
 import com.example.demo.models.dao.UsuarioDao;
+import com.example.demo.models.dto.CriteriosBusquedaLogs;
+import com.example.demo.models.dto.CursorLogs;
+import com.example.demo.models.dto.EstadisticasLogs;
+import com.example.demo.models.dto.PaginaLogs;
 import com.example.demo.models.entity.LogAcceso;
 import com.example.demo.models.servicio.LogService;
+import com.example.demo.models.servicio.LogsRecientesService;
+import com.example.demo.models.servicio.EscritorLogs;
+import com.example.demo.models.servicio.EstadisticasLogsService;
+import com.example.demo.models.servicio.ActividadLogsService;
+import com.example.demo.models.servicio.ArchivoLogsService;
+import com.example.demo.models.servicio.BusquedaLogsService;
+import com.example.demo.models.servicio.ParticionesLogsService;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -25,12 +40,47 @@ public class LogServiceImpl implements LogService {
 
     @Autowired
     private UsuarioDao usuarioDao;
+
+    @Autowired
+    private EscritorLogs escritorLogs;
+
+    @Autowired
+    private EstadisticasLogsService estadisticasLogsService;
+
+    @Autowired
+    private ActividadLogsService actividadLogsService;
+
+    @Autowired
+    private BusquedaLogsService busquedaLogsService;
+
+    @Autowired
+    private ParticionesLogsService particionesLogsService;
+
+    @Autowired
+    private ArchivoLogsService archivoLogsService;
+
+    @Autowired
+    private LogsRecientesService logsRecientesService;
+
+    @Value("${logs.pagina.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${logs.pagina.tamano-maximo:200}")
+    private int tamanoPaginaMaximo;
+
+    /**
+     * Una consulta keyset del DAO: filas tras (cursorFecha, cursorId) con el límite dado
+     */
+    @FunctionalInterface
+    private interface ConsultaKeyset {
+        List<LogAcceso> buscar(LocalDateTime cursorFecha, Long cursorId, Pageable limite);
+    }
     
     @Override
     public void registrarAccesoExitoso(String userName, String accion) {
         try {
             LogAcceso log = new LogAcceso(userName, accion, "EXITOSO");
-            logAccesoDao.save(log);
+            escritorLogs.registrar(log);
             System.out.println("✅ Log registrado: " + userName + " - " + accion + " - EXITOSO");
         } catch (Exception e) {
             System.err.println("❌ Error al registrar log exitoso: " + e.getMessage());
@@ -42,7 +92,7 @@ public class LogServiceImpl implements LogService {
         try {
             LogAcceso log = new LogAcceso(userName, accion, "ERROR");
             log.setDetalles(detallesError);
-            logAccesoDao.save(log);
+            escritorLogs.registrar(log);
             System.out.println("❌ Log de error registrado: " + userName + " - " + accion + " - ERROR");
         } catch (Exception e) {
             System.err.println("❌ Error al registrar log de error: " + e.getMessage());
@@ -54,20 +104,158 @@ public class LogServiceImpl implements LogService {
                                String direccionIp, String userAgent, String detalles) {
         try {
             LogAcceso log = new LogAcceso(userName, accion, resultado, direccionIp, userAgent, detalles);
-            logAccesoDao.save(log);
+            escritorLogs.registrar(log);
             System.out.println("📝 Log completo registrado: " + userName + " - " + accion + " - " + resultado);
         } catch (Exception e) {
             System.err.println("❌ Error al registrar log completo: " + e.getMessage());
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaLogs obtenerPaginaLogs(String filtro, String usuario, String cursor, Integer tamano) {
+        try {
+            return paginar(cursor, tamano, consultaPorFiltro(filtro, usuario));
+        } catch (Exception e) {
+            System.err.println("❌ Error al obtener página de logs: " + e.getMessage());
+            return PaginaLogs.vacia(normalizarTamano(tamano));
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaLogs buscarLogsPaginados(String termino, String cursor, Integer tamano) {
+        try {
+            CriteriosBusquedaLogs criterios = new CriteriosBusquedaLogs();
+            criterios.setTexto(termino);
+            return busquedaLogsService.buscar(criterios, cursor, tamano);
+        } catch (Exception e) {
+            System.err.println("❌ Error al buscar logs: " + e.getMessage());
+            return PaginaLogs.vacia(normalizarTamano(tamano));
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaLogs obtenerErroresRecientesPaginados(int horas, String cursor, Integer tamano) {
+        try {
+            LocalDateTime fechaLimite = LocalDateTime.now().minusHours(horas);
+            return paginar(cursor, tamano,
+                (fecha, id, limite) -> logAccesoDao.paginaPorResultadoDesde("ERROR", fechaLimite, fecha, id, limite));
+        } catch (Exception e) {
+            System.err.println("❌ Error al obtener errores recientes: " + e.getMessage());
+            return PaginaLogs.vacia(normalizarTamano(tamano));
+        }
+    }
+    
+    /**
+     * Consulta keyset correspondiente a los filtros de la vista de logs
+     */
+    private ConsultaKeyset consultaPorFiltro(String filtro, String usuario) {
+        String clave = filtro != null ? filtro.trim().toLowerCase() : "";
+        if (clave.isEmpty() && usuario != null && !usuario.isBlank()) {
+            return (fecha, id, limite) -> logAccesoDao.paginaPorUsuario(usuario.trim(), fecha, id, limite);
+        }
+        switch (clave) {
+            case "aperturas":
+                return logAccesoDao::paginaAperturaPuerta;
+            case "exitosos":
+                return (fecha, id, limite) -> logAccesoDao.paginaPorResultado("EXITOSO", fecha, id, limite);
+            case "errores":
+                return (fecha, id, limite) -> logAccesoDao.paginaPorResultado("ERROR", fecha, id, limite);
+            case "autenticacion":
+                return logAccesoDao::paginaAutenticacion;
+            case "esp32":
+                return logAccesoDao::paginaComandosESP32;
+            case "hoy": {
+                LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
+                LocalDateTime finHoy = inicioHoy.plusDays(1);
+                return (fecha, id, limite) -> logAccesoDao.paginaEntreFechas(inicioHoy, finHoy, fecha, id, limite);
+            }
+            case "semana": {
+                LocalDateTime unaSemanaAtras = LocalDateTime.now().minusDays(7);
+                LocalDateTime sinLimite = CursorLogs.INICIO.getFechaHora();
+                return (fecha, id, limite) -> logAccesoDao.paginaEntreFechas(unaSemanaAtras, sinLimite, fecha, id, limite);
+            }
+            default:
+                return logAccesoDao::paginaTodos;
+        }
+    }
+    
+    /**
+     * Ejecuta una consulta keyset desde el cursor. Se pide una fila de más para saber
+     * si existe página siguiente sin necesidad de un COUNT.
+     */
+    private PaginaLogs paginar(String cursor, Integer tamano, ConsultaKeyset consulta) {
+        int limite = normalizarTamano(tamano);
+        CursorLogs desde = CursorLogs.decodificar(cursor);
+        
+        List<LogAcceso> filas = consulta.buscar(desde.getFechaHora(), desde.getIdLog(), PageRequest.of(0, limite + 1));
+        return construirPagina(filas, limite);
+    }
+    
+    /**
+     * Recibe hasta limite + 1 filas: la sobrante sólo indica que hay más páginas
+     */
+    private PaginaLogs construirPagina(List<LogAcceso> filas, int limite) {
+        boolean hayMas = filas.size() > limite;
+        List<LogAcceso> logs = hayMas ? new ArrayList<>(filas.subList(0, limite)) : filas;
+        
+        String siguienteCursor = null;
+        if (hayMas) {
+            LogAcceso ultimo = logs.get(logs.size() - 1);
+            siguienteCursor = new CursorLogs(ultimo.getFechaHora(), ultimo.getIdLog()).codificar();
+        }
+        return new PaginaLogs(logs, siguienteCursor, hayMas, limite);
+    }
+    
+    private int normalizarTamano(Integer tamano) {
+        if (tamano == null || tamano <= 0) {
+            return Math.min(tamanoPaginaDefecto, tamanoPaginaMaximo);
+        }
+        return Math.min(tamano, tamanoPaginaMaximo);
+    }
+    
+    /**
+     * Primera página con el tamaño máximo, para los métodos que devuelven una lista simple
+     */
+    private List<LogAcceso> primeraPagina(ConsultaKeyset consulta) {
+        return paginar(null, tamanoPaginaMaximo, consulta).getLogs();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaLogs obtenerLogsHistoricos(LocalDateTime desde, LocalDateTime hasta, String usuario,
+                                            boolean incluirArchivo, String cursor, Integer tamano) {
+        int limite = normalizarTamano(tamano);
+        try {
+            LocalDateTime inicio = desde != null ? desde : LocalDateTime.of(1970, 1, 1, 0, 0);
+            LocalDateTime fin = hasta != null ? hasta : CursorLogs.INICIO.getFechaHora();
+            String usuarioFiltro = usuario != null && !usuario.isBlank() ? usuario.trim() : null;
+            CursorLogs posicion = CursorLogs.decodificar(cursor);
+            
+            List<LogAcceso> filas = new ArrayList<>(logAccesoDao.paginaPorCriterios(usuarioFiltro, null, null,
+                    inicio, fin, posicion.getFechaHora(), posicion.getIdLog(), PageRequest.of(0, limite + 1)));
+            
+            // Lo archivado es siempre más antiguo que lo que queda en la tabla: se sigue desde la última fila
+            if (incluirArchivo && filas.size() <= limite) {
+                CursorLogs continuacion = filas.isEmpty() ? posicion
+                    : new CursorLogs(filas.get(filas.size() - 1).getFechaHora(), filas.get(filas.size() - 1).getIdLog());
+                filas.addAll(archivoLogsService.consultar(inicio, fin, usuarioFiltro, continuacion,
+                        limite + 1 - filas.size()));
+            }
+            return construirPagina(filas, limite);
+        } catch (Exception e) {
+            System.err.println("❌ Error al obtener logs históricos: " + e.getMessage());
+            return PaginaLogs.vacia(limite);
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<LogAcceso> obtenerLogsHoy() {
         try {
-            LocalDateTime inicioHoy = LocalDateTime.now().toLocalDate().atStartOfDay();
-            LocalDateTime finHoy = inicioHoy.plusDays(1);
-            return logAccesoDao.findByFechaHoraBetweenOrderByFechaHoraDesc(inicioHoy, finHoy);
+            return obtenerPaginaLogs("hoy", null, null, tamanoPaginaMaximo).getLogs();
         } catch (Exception e) {
             System.err.println("❌ Error al obtener logs de hoy: " + e.getMessage());
             return List.of(); // Lista vacía en caso de error
@@ -78,7 +266,12 @@ public class LogServiceImpl implements LogService {
     @Transactional(readOnly = true)
     public Object[] obtenerEstadisticasHoy() {
         try {
-            return logAccesoDao.getEstadisticasHoy();
+            // {logsHoy, aperturasHoy, usuariosActivosHoy, erroresHoy} desde la cubeta diaria
+            Map<String, Long> resumenHoy = actividadLogsService.obtenerResumenDia(LocalDate.now());
+            return new Object[]{
+                resumenHoy.get("logs"), resumenHoy.get("aperturas"),
+                resumenHoy.get("usuariosActivos"), resumenHoy.get("errores")
+            };
         } catch (Exception e) {
             System.err.println("❌ Error al obtener estadísticas de hoy: " + e.getMessage());
             return new Object[]{0L, 0L, 0L, 0L}; // Valores por defecto
@@ -89,7 +282,7 @@ public class LogServiceImpl implements LogService {
     @Transactional(readOnly = true)
     public List<LogAcceso> obtenerLogsPorUsuario(String userName) {
         try {
-            return logAccesoDao.findByUserName(userName);
+            return primeraPagina((fecha, id, limite) -> logAccesoDao.paginaPorUsuario(userName, fecha, id, limite));
         } catch (Exception e) {
             System.err.println("❌ Error al obtener logs por usuario: " + e.getMessage());
             return List.of();
@@ -100,7 +293,13 @@ public class LogServiceImpl implements LogService {
     @Transactional(readOnly = true)
     public List<LogAcceso> obtenerUltimosLogs(int cantidad) {
         try {
-            return logAccesoDao.findTopNByOrderByFechaHoraDesc(PageRequest.of(0, cantidad));
+            // El buffer en memoria ya tiene los últimos logs; sólo se consulta la tabla si aún no está lleno
+            int limite = normalizarTamano(cantidad);
+            List<LogAcceso> recientes = logsRecientesService.obtenerUltimos(limite);
+            if (recientes.size() == limite) {
+                return recientes;
+            }
+            return paginar(null, limite, logAccesoDao::paginaTodos).getLogs();
         } catch (Exception e) {
             System.err.println("❌ Error al obtener últimos logs: " + e.getMessage());
             return List.of();
@@ -108,12 +307,11 @@ public class LogServiceImpl implements LogService {
     }
     
     @Override
-    @Transactional
     public void limpiarLogsAntiguos(int diasAntes) {
         try {
             LocalDateTime fechaLimite = LocalDateTime.now().minusDays(diasAntes);
-            logAccesoDao.deleteLogsAnterioresA(fechaLimite);
-            System.out.println("🧹 Logs anteriores a " + fechaLimite + " eliminados");
+            Map<String, Object> retencion = particionesLogsService.aplicarRetencion(fechaLimite);
+            System.out.println("🧹 " + retencion.get("logsEliminados") + " logs anteriores a " + fechaLimite + " eliminados");
         } catch (Exception e) {
             System.err.println("❌ Error al limpiar logs antiguos: " + e.getMessage());
         }
@@ -201,11 +399,15 @@ public class LogServiceImpl implements LogService {
     
     /**
      * Obtener estadísticas generales del sistema
+     * (total, exitosos, errores, fallidos, aperturas, logins; leídos de los contadores en memoria)
      */
-    @Transactional(readOnly = true)
     public Object[] obtenerEstadisticasGenerales() {
         try {
-            return logAccesoDao.getEstadisticasGenerales();
+            EstadisticasLogs estadisticas = estadisticasLogsService.obtenerEstadisticasGenerales();
+            return new Object[]{
+                estadisticas.getTotalLogs(), estadisticas.getExitosos(), estadisticas.getErrores(),
+                estadisticas.getFallidos(), estadisticas.getAperturas(), estadisticas.getLogins()
+            };
         } catch (Exception e) {
             System.err.println("❌ Error al obtener estadísticas generales: " + e.getMessage());
             return new Object[]{0L, 0L, 0L, 0L, 0L, 0L};
@@ -213,25 +415,12 @@ public class LogServiceImpl implements LogService {
     }
     
     /**
-     * Obtener logs por filtro específico
+     * Obtener logs por filtro específico (primera página)
      */
     @Transactional(readOnly = true)
     public List<LogAcceso> obtenerLogsPorFiltro(String filtro) {
         try {
-            switch (filtro.toLowerCase()) {
-                case "exitosos":
-                    return logAccesoDao.findByResultadoOrderByFechaHoraDesc("EXITOSO");
-                case "errores":
-                    return logAccesoDao.findByResultadoOrderByFechaHoraDesc("ERROR");
-                case "aperturas":
-                    return logAccesoDao.findLogsAperturaPuerta();
-                case "autenticacion":
-                    return logAccesoDao.findLogsAutenticacion();
-                case "esp32":
-                    return logAccesoDao.findLogsComandosESP32();
-                default:
-                    return logAccesoDao.findAllOrderByFechaHoraDesc();
-            }
+            return obtenerPaginaLogs(filtro, null, null, tamanoPaginaMaximo).getLogs();
         } catch (Exception e) {
             System.err.println("❌ Error al obtener logs por filtro: " + e.getMessage());
             return List.of();
@@ -239,12 +428,12 @@ public class LogServiceImpl implements LogService {
     }
     
     /**
-     * Buscar logs con término de búsqueda
+     * Buscar logs con término de búsqueda (primera página)
      */
     @Transactional(readOnly = true)
     public List<LogAcceso> buscarLogs(String termino) {
         try {
-            return logAccesoDao.findBySearchTerm(termino);
+            return buscarLogsPaginados(termino, null, tamanoPaginaMaximo).getLogs();
         } catch (Exception e) {
             System.err.println("❌ Error al buscar logs: " + e.getMessage());
             return List.of();
@@ -252,12 +441,12 @@ public class LogServiceImpl implements LogService {
     }
     
     /**
-     * Obtener logs entre fechas
+     * Obtener logs entre fechas (primera página)
      */
     @Transactional(readOnly = true)
     public List<LogAcceso> obtenerLogsEntreFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         try {
-            return logAccesoDao.findByFechaHoraBetweenOrderByFechaHoraDesc(fechaInicio, fechaFin);
+            return primeraPagina((fecha, id, limite) -> logAccesoDao.paginaEntreFechas(fechaInicio, fechaFin, fecha, id, limite));
         } catch (Exception e) {
             System.err.println("❌ Error al obtener logs entre fechas: " + e.getMessage());
             return List.of();
@@ -270,8 +459,7 @@ public class LogServiceImpl implements LogService {
     @Transactional(readOnly = true)
     public List<Object[]> obtenerActividadPorHoras() {
         try {
-            // Usar el método default que calcula las fechas automáticamente
-            return logAccesoDao.getActividadPorHoras();
+            return actividadLogsService.obtenerActividadPorHoras(LocalDate.now());
         } catch (Exception e) {
             System.err.println("❌ Error al obtener actividad por horas: " + e.getMessage());
             return List.of();
@@ -284,7 +472,7 @@ public class LogServiceImpl implements LogService {
     @Transactional(readOnly = true)
     public List<Object[]> obtenerUsuariosMasActivos() {
         try {
-            return logAccesoDao.getUsuariosMasActivos();
+            return actividadLogsService.obtenerUsuariosMasActivos(10);
         } catch (Exception e) {
             System.err.println("❌ Error al obtener usuarios más activos: " + e.getMessage());
             return List.of();
@@ -292,13 +480,12 @@ public class LogServiceImpl implements LogService {
     }
     
     /**
-     * Obtener errores recientes
+     * Obtener errores recientes (primera página)
      */
     @Transactional(readOnly = true)
     public List<LogAcceso> obtenerErroresRecientes(int horas) {
         try {
-            LocalDateTime fechaLimite = LocalDateTime.now().minusHours(horas);
-            return logAccesoDao.getErroresRecientes(fechaLimite);
+            return obtenerErroresRecientesPaginados(horas, null, tamanoPaginaMaximo).getLogs();
         } catch (Exception e) {
             System.err.println("❌ Error al obtener errores recientes: " + e.getMessage());
             return List.of();
@@ -358,12 +545,12 @@ public class LogServiceImpl implements LogService {
             
             // Actividad reciente
             LocalDateTime hace1Hora = LocalDateTime.now().minusHours(1);
-            List<LogAcceso> actividadReciente = logAccesoDao.findLogsUltimaHora(hace1Hora);
-            resumen.put("actividadUltimaHora", actividadReciente.size());
+            resumen.put("actividadUltimaHora", logsRecientesService.contarDesde(hace1Hora)
+                .orElseGet(() -> logAccesoDao.countDesde(hace1Hora)));
             
             // Errores recientes
-            List<LogAcceso> erroresRecientes = obtenerErroresRecientes(24);
-            resumen.put("errores24Horas", erroresRecientes.size());
+            LocalDateTime hace24Horas = LocalDateTime.now().minusHours(24);
+            resumen.put("errores24Horas", logAccesoDao.countPorResultadoDesde("ERROR", hace24Horas));
             
             resumen.put("timestamp", LocalDateTime.now());
             resumen.put("sistemaOperativo", true);
@@ -377,27 +564,6 @@ public class LogServiceImpl implements LogService {
         return resumen;
     }
     
-    /**
-     * Exportar logs a formato CSV
-     */
-    @Transactional(readOnly = true)
-    public String exportarLogsCSV(List<LogAcceso> logs) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Fecha,Usuario,Accion,Resultado,IP,Detalles\n");
-        
-        for (LogAcceso log : logs) {
-            csv.append(log.getFechaHora()).append(",")
-               .append(log.getUserName()).append(",")
-               .append(log.getAccion()).append(",")
-               .append(log.getResultado()).append(",")
-               .append(log.getDireccionIp() != null ? log.getDireccionIp() : "").append(",")
-               .append(log.getDetalles() != null ? log.getDetalles().replace(",", ";") : "")
-               .append("\n");
-        }
-        
-        return csv.toString();
-    }
-    
     /**
      * Obtener la dirección IP real del cliente
      */
@@ -450,7 +616,13 @@ public class LogServiceImpl implements LogService {
     public void limpiarLogsPorUsuario(String userName, int diasAntes) {
         try {
             LocalDateTime fechaLimite = LocalDateTime.now().minusDays(diasAntes);
+            // Conteos de lo que se va a borrar (índice por usuario) en lugar de recalcular toda la tabla
+            List<Object[]> conteos = logAccesoDao.getConteosUsuarioAnterioresA(userName, fechaLimite);
+            if (conteos.isEmpty()) {
+                return;
+            }
             logAccesoDao.deleteLogsByUserNameAndFechaAnterior(userName, fechaLimite);
+            estadisticasLogsService.descontar(conteos);
             System.out.println("🧹 Logs del usuario " + userName + " anteriores a " + fechaLimite + " eliminados");
         } catch (Exception e) {
             System.err.println("❌ Error al limpiar logs por usuario: " + e.getMessage());
@@ -461,7 +633,7 @@ public class LogServiceImpl implements LogService {
 @Transactional(readOnly = true)
 public List<LogAcceso> obtenerLogsPorTipoAccion(String tipoAccion) {
     try {
-        return logAccesoDao.findByTipoAccion(tipoAccion);
+        return primeraPagina((fecha, id, limite) -> logAccesoDao.paginaPorTipoAccion(tipoAccion, fecha, id, limite));
     } catch (Exception e) {
         System.err.println("❌ Error al obtener logs por tipoAccion: " + e.getMessage());
         return List.of();
@@ -472,7 +644,7 @@ public List<LogAcceso> obtenerLogsPorTipoAccion(String tipoAccion) {
 @Transactional(readOnly = true)
 public long contarLogsPorTipoAccion(String tipoAccion) {
     try {
-        return logAccesoDao.countByTipoAccion(tipoAccion);
+        return estadisticasLogsService.contarPorTipoAccion(tipoAccion);
     } catch (Exception e) {
         System.err.println("❌ Error al contar logs por tipoAccion: " + e.getMessage());
         return 0L;
@@ -494,7 +666,7 @@ public List<Object[]> obtenerEstadisticasPorTipoAccion() {
 @Transactional(readOnly = true)
 public List<LogAcceso> obtenerLogsPorUsuarioYTipo(String userName, String tipoAccion) {
     try {
-        return logAccesoDao.findByUserNameAndTipoAccion(userName, tipoAccion);
+        return primeraPagina((fecha, id, limite) -> logAccesoDao.paginaPorUsuarioYTipo(userName, tipoAccion, fecha, id, limite));
     } catch (Exception e) {
         System.err.println("❌ Error al obtener logs por usuario y tipoAccion: " + e.getMessage());
         return List.of();
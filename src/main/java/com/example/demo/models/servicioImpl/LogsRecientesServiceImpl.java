@@ -0,0 +1,183 @@
+package com.example.demo.models.servicioImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.dto.CursorLogs;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.LogsRecientesService;
+import com.example.demo.models.servicio.ObservadorLogs;
+
+/**
+ * Buffer circular con los últimos N logs confirmados, alimentado por el escritor de auditoría.
+ * Un único hilo escribe (el del escritor); los lectores no toman ningún cerrojo: cada hueco guarda
+ * su número de secuencia y el lector descarta los huecos que el escritor ya ha reutilizado.
+ * Al arrancar se carga con los últimos logs de la tabla.
+ */
+@Service
+public class LogsRecientesServiceImpl implements LogsRecientesService, ObservadorLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogsRecientesServiceImpl.class);
+
+    private record Entrada(long secuencia, LogAcceso log) {
+    }
+
+    @Autowired
+    private LogAccesoDao logAccesoDao;
+
+    @Value("${logs.recientes.capacidad:1024}")
+    private int capacidadConfigurada;
+
+    private int capacidad;
+    private int mascara;
+    private AtomicReferenceArray<Entrada> huecos;
+
+    // Secuencia del próximo hueco a escribir; se publica después de escribir el hueco
+    private final AtomicLong siguiente = new AtomicLong();
+    private final AtomicLong ultimoId = new AtomicLong();
+
+    // true mientras el buffer contenga todos los logs de la tabla (aún no se ha descartado ninguno)
+    private volatile boolean historiaCompleta;
+    // Los logs con id <= a esta marca ya entraron en la carga inicial
+    private long idCarga;
+
+    @PostConstruct
+    public void inicializar() {
+        capacidad = Integer.highestOneBit(Math.max(16, capacidadConfigurada) - 1) << 1;
+        mascara = capacidad - 1;
+        huecos = new AtomicReferenceArray<>(capacidad);
+
+        try {
+            List<LogAcceso> ultimos = logAccesoDao.paginaTodos(CursorLogs.INICIO.getFechaHora(),
+                    CursorLogs.INICIO.getIdLog(), PageRequest.of(0, capacidad));
+            List<LogAcceso> cronologico = new ArrayList<>(ultimos);
+            Collections.reverse(cronologico);
+            synchronized (this) {
+                for (LogAcceso log : cronologico) {
+                    agregar(log);
+                    idCarga = Math.max(idCarga, log.getIdLog());
+                }
+                historiaCompleta = ultimos.size() < capacidad;
+            }
+            logger.info("Buffer de logs recientes: capacidad {}, {} logs cargados", capacidad, ultimos.size());
+        } catch (Exception e) {
+            logger.error("No se pudo cargar el buffer de logs recientes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void logsRegistrados(List<LogAcceso> logs) {
+        for (LogAcceso log : logs) {
+            if (log.getIdLog() != null && log.getIdLog() <= idCarga) {
+                continue;
+            }
+            agregar(log);
+        }
+    }
+
+    private void agregar(LogAcceso log) {
+        long secuencia = siguiente.get();
+        if (secuencia >= capacidad) {
+            historiaCompleta = false;
+        }
+        huecos.set((int) (secuencia & mascara), new Entrada(secuencia, log));
+        siguiente.set(secuencia + 1);
+        if (log.getIdLog() != null && log.getIdLog() > ultimoId.get()) {
+            ultimoId.set(log.getIdLog());
+        }
+    }
+
+    /**
+     * Entradas aún válidas del más reciente al más antiguo; se detiene al llegar a un hueco reutilizado
+     */
+    private List<LogAcceso> recorrer(int maximo, Predicate<LogAcceso> continuar) {
+        List<LogAcceso> resultado = new ArrayList<>();
+        long fin = siguiente.get();
+        long inicio = Math.max(0, fin - capacidad);
+        for (long secuencia = fin - 1; secuencia >= inicio && resultado.size() < maximo; secuencia--) {
+            Entrada entrada = huecos.get((int) (secuencia & mascara));
+            if (entrada == null || entrada.secuencia() != secuencia || !continuar.test(entrada.log())) {
+                break;
+            }
+            resultado.add(entrada.log());
+        }
+        return resultado;
+    }
+
+    @Override
+    public List<LogAcceso> obtenerUltimos(int cantidad) {
+        return recorrer(Math.max(0, Math.min(cantidad, capacidad)), log -> true);
+    }
+
+    @Override
+    public Optional<List<LogAcceso>> obtenerDesde(long idLog, int maximo) {
+        if (idLog >= ultimoId.get()) {
+            return Optional.of(List.of());
+        }
+        List<LogAcceso> nuevos = recorrer(capacidad, log -> log.getIdLog() > idLog);
+        // Si se recorrió todo el buffer sin encontrar el id del cliente puede haber huecos entre ambos
+        boolean completo = nuevos.size() < capacidad && (historiaCompleta || contieneAnterior(nuevos.size(), idLog));
+        if (!completo) {
+            return Optional.empty();
+        }
+        Collections.reverse(nuevos);
+        return Optional.of(nuevos.size() > maximo ? new ArrayList<>(nuevos.subList(0, maximo)) : nuevos);
+    }
+
+    /**
+     * true si la entrada que sigue a las ya recorridas existe y es el log del cliente o uno anterior
+     */
+    private boolean contieneAnterior(int recorridas, long idLog) {
+        long secuencia = siguiente.get() - 1 - recorridas;
+        if (secuencia < 0) {
+            return historiaCompleta;
+        }
+        Entrada entrada = huecos.get((int) (secuencia & mascara));
+        return entrada != null && entrada.secuencia() == secuencia && entrada.log().getIdLog() <= idLog;
+    }
+
+    @Override
+    public OptionalLong contarDesde(LocalDateTime desde) {
+        List<LogAcceso> recientes = recorrer(capacidad, log -> !log.getFechaHora().isBefore(desde));
+        if (recientes.size() < capacidad && (historiaCompleta || contieneAnteriorA(recientes.size(), desde))) {
+            return OptionalLong.of(recientes.size());
+        }
+        return OptionalLong.empty();
+    }
+
+    private boolean contieneAnteriorA(int recorridas, LocalDateTime desde) {
+        long secuencia = siguiente.get() - 1 - recorridas;
+        if (secuencia < 0) {
+            return historiaCompleta;
+        }
+        Entrada entrada = huecos.get((int) (secuencia & mascara));
+        return entrada != null && entrada.secuencia() == secuencia && entrada.log().getFechaHora().isBefore(desde);
+    }
+
+    @Override
+    public long getUltimoId() {
+        return ultimoId.get();
+    }
+
+    @Override
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.models.servicioImpl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.models.dao.UsuarioDao;
+import com.example.demo.models.dto.MetricasUsuarios;
+import com.example.demo.models.servicio.MetricasUsuariosService;
+
+/**
+ * Una consulta agregada sobre usuario en lugar de cargar todas las entidades y contarlas en Java.
+ * El resultado se reutiliza durante unos segundos; las operaciones que cambian los contadores
+ * lo invalidan para que el dashboard no muestre datos viejos tras una acción del administrador.
+ */
+@Service
+public class MetricasUsuariosServiceImpl implements MetricasUsuariosService {
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Value("${usuarios.metricas.cache-ms:5000}")
+    private long duracionCacheMs;
+
+    private volatile MetricasUsuarios ultimas;
+    private volatile long calculadasEnMs;
+    // Cambia en cada invalidar(): un cálculo que empezó antes no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+
+    @Override
+    public MetricasUsuarios obtener() {
+        MetricasUsuarios metricas = ultimas;
+        if (metricas != null && System.currentTimeMillis() - calculadasEnMs < duracionCacheMs) {
+            return metricas;
+        }
+        // Dos peticiones simultáneas pueden calcularlas a la vez: es la misma consulta barata
+        long inicio = generacion.get();
+        metricas = usuarioDao.getMetricas();
+        synchronized (this) {
+            if (generacion.get() == inicio) {
+                calculadasEnMs = System.currentTimeMillis();
+                ultimas = metricas;
+            }
+        }
+        return metricas;
+    }
+
+    @Override
+    public synchronized void invalidar() {
+        generacion.incrementAndGet();
+        ultimas = null;
+    }
+}
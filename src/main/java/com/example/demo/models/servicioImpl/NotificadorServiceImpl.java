@@ -0,0 +1,129 @@
+package com.example.demo.models.servicioImpl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.config.CanalTiempoReal;
+import com.example.demo.models.dto.EstadoSaludESP32;
+import com.example.demo.models.entity.LogAcceso;
+import com.example.demo.models.servicio.NotificadorService;
+import com.example.demo.models.servicio.ObservadorLogs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Empuja estado de placas, eventos de puerta y logs nuevos a los navegadores por WebSocket.
+ * La difusión se hace en un hilo propio para no retrasar al que produce el evento.
+ */
+@Service
+public class NotificadorServiceImpl implements NotificadorService, ObservadorLogs {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificadorServiceImpl.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CanalTiempoReal canalEstado = new CanalTiempoReal("estado");
+    private final CanalTiempoReal canalLogs = new CanalTiempoReal("logs");
+
+    private final ExecutorService difusor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "tiempo-real");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public CanalTiempoReal getCanalEstado() {
+        return canalEstado;
+    }
+
+    public CanalTiempoReal getCanalLogs() {
+        return canalLogs;
+    }
+
+    @Override
+    public void notificarEstadoDispositivo(EstadoSaludESP32 estado, boolean porDefecto) {
+        if (canalEstado.getConexiones() == 0) {
+            return;
+        }
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("dispositivo", estado.getIdDispositivo());
+        datos.put("porDefecto", porDefecto);
+        datos.put("esp32Connected", estado.isConectado());
+        datos.put("latenciaMs", estado.getLatenciaMs());
+        datos.put("uptimeSegundos", estado.getUptimeSegundos());
+        datos.put("estadoCircuito", estado.getEstadoCircuito());
+        datos.put("ultimaComprobacion", estado.getUltimaComprobacion());
+        difundir(canalEstado, "ESTADO_DISPOSITIVO", datos);
+    }
+
+    @Override
+    public void notificarEventoPuerta(String idDispositivo, String accion, String resultado, String userName) {
+        if (canalEstado.getConexiones() == 0) {
+            return;
+        }
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("dispositivo", idDispositivo);
+        datos.put("accion", accion);
+        datos.put("resultado", resultado);
+        datos.put("userName", userName);
+        datos.put("fechaHora", LocalDateTime.now());
+        difundir(canalEstado, "EVENTO_PUERTA", datos);
+    }
+
+    @Override
+    public void notificarLog(LogAcceso log) {
+        if (canalLogs.getConexiones() == 0) {
+            return;
+        }
+        // Solo los campos que pinta la tabla de logs
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("idLog", log.getIdLog());
+        datos.put("userName", log.getUserName());
+        datos.put("accion", log.getAccion());
+        datos.put("resultado", log.getResultado());
+        datos.put("tipoAccion", log.getTipoAccion());
+        datos.put("fechaHora", log.getFechaHora());
+        datos.put("detalles", log.getDetalles());
+        difundir(canalLogs, "LOG", datos);
+    }
+
+    /**
+     * Los logs se difunden cuando el escritor de auditoría los confirma (ya tienen id)
+     */
+    @Override
+    public void logsRegistrados(List<LogAcceso> logs) {
+        logs.forEach(this::notificarLog);
+    }
+
+    private void difundir(CanalTiempoReal canal, String tipo, Map<String, Object> datos) {
+        Map<String, Object> mensaje = new HashMap<>();
+        mensaje.put("tipo", tipo);
+        mensaje.put("datos", datos);
+        try {
+            difusor.execute(() -> {
+                try {
+                    canal.difundir(objectMapper.writeValueAsString(mensaje));
+                } catch (Exception e) {
+                    logger.warn("No se pudo difundir {}: {}", tipo, e.getMessage());
+                }
+            });
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // La aplicación se está cerrando
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        difusor.shutdown();
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.demo.models.servicioImpl;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.servicio.EstadisticasLogsService;
+import com.example.demo.models.servicio.ParticionesLogsService;
+
+/**
+ * Gestiona log_acceso como tabla particionada por rango de fecha_hora (PostgreSQL).
+ * - La primera vez convierte la tabla existente: la tabla antigua pasa a ser la partición
+ *   log_acceso_historico (desde MINVALUE hasta el siguiente periodo) sin copiar filas.
+ * - Crea por adelantado las particiones de los próximos periodos (mensuales o diarias) y una
+ *   partición DEFAULT que recoge lo que caiga fuera de rango.
+ * - La retención suelta particiones completas (DETACH + DROP) en vez de borrar fila a fila.
+ */
+@Service
+public class ParticionesLogsServiceImpl implements ParticionesLogsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParticionesLogsServiceImpl.class);
+
+    public enum Granularidad { MENSUAL, DIARIA }
+
+    private static final String TABLA = "log_acceso";
+    private static final String PARTICION_HISTORICO = "log_acceso_historico";
+    private static final String PARTICION_DEFAULT = "log_acceso_default";
+
+    private static final DateTimeFormatter FORMATO_LIMITE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("yyyy_MM_dd");
+
+    // Límite devuelto por pg_get_expr: FOR VALUES FROM ('...') TO ('...') o FROM (MINVALUE) TO ('...')
+    private static final Pattern PATRON_LIMITES =
+        Pattern.compile("FROM \\((?:MINVALUE|'([^']+)')\\) TO \\('([^']+)'\\)");
+
+    // Fecha usada como inicio de la partición histórica (desde MINVALUE)
+    private static final LocalDateTime INICIO_MINIMO = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LogAccesoDao logAccesoDao;
+
+    @Autowired
+    private EstadisticasLogsService estadisticasLogsService;
+
+    @Value("${particiones.logs.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${particiones.logs.granularidad:MENSUAL}")
+    private Granularidad granularidad;
+
+    @Value("${particiones.logs.periodos-adelantados:3}")
+    private int periodosAdelantados;
+
+    private volatile boolean particionada;
+
+    private record Particion(String nombre, LocalDateTime desde, LocalDateTime hasta) {
+    }
+
+    @PostConstruct
+    public void inicializar() {
+        try {
+            particionada = consultarParticionada();
+            if (!particionada && habilitado) {
+                migrar();
+            }
+            if (particionada) {
+                asegurarParticiones();
+            }
+        } catch (Exception e) {
+            logger.error("No se pudo preparar el particionado de log_acceso: {}", e.getMessage());
+        }
+        logger.info("log_acceso {}", particionada ? "particionada por fecha_hora (" + granularidad + ")" : "sin particionar");
+    }
+
+    @Override
+    public boolean esParticionada() {
+        return particionada;
+    }
+
+    private boolean consultarParticionada() {
+        Integer existe = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+            "WHERE c.relname = ? AND pg_table_is_visible(c.oid)", Integer.class, TABLA);
+        return existe != null && existe > 0;
+    }
+
+    /**
+     * Conversión única: la tabla actual se renombra y se adjunta como primera partición.
+     * Todo ocurre en una transacción; si algo falla la tabla queda como estaba.
+     */
+    private void migrar() {
+        LocalDateTime corte = siguientePeriodo(inicioPeriodo(LocalDateTime.now()));
+        String limite = literal(corte);
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " RENAME TO " + PARTICION_HISTORICO);
+            // Sin INCLUDING INDEXES: la clave primaria de la tabla particionada debe incluir fecha_hora
+            jdbcTemplate.execute("CREATE TABLE " + TABLA + " (LIKE " + PARTICION_HISTORICO +
+                " INCLUDING DEFAULTS INCLUDING GENERATED INCLUDING STORAGE) PARTITION BY RANGE (fecha_hora)");
+            jdbcTemplate.execute("ALTER TABLE " + TABLA +
+                " ADD CONSTRAINT log_acceso_particionada_pkey PRIMARY KEY (id_log, fecha_hora)");
+            // El CHECK previo permite a ATTACH validar el rango sin un segundo recorrido
+            jdbcTemplate.execute("ALTER TABLE " + PARTICION_HISTORICO +
+                " ADD CONSTRAINT log_acceso_historico_rango CHECK (fecha_hora IS NOT NULL AND fecha_hora < '" + limite + "')");
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " ATTACH PARTITION " + PARTICION_HISTORICO +
+                " FOR VALUES FROM (MINVALUE) TO ('" + limite + "')");
+            jdbcTemplate.execute("ALTER TABLE " + PARTICION_HISTORICO + " DROP CONSTRAINT log_acceso_historico_rango");
+            trasladarIndices();
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARTICION_DEFAULT + " PARTITION OF " + TABLA + " DEFAULT");
+        });
+        particionada = true;
+        logger.info("log_acceso convertida en tabla particionada; los datos anteriores a {} quedan en {}",
+                limite, PARTICION_HISTORICO);
+    }
+
+    /**
+     * Los índices de la tabla antigua (los de @Table y los de búsqueda) pasan a definirse en la tabla
+     * particionada con el mismo nombre; PostgreSQL reutiliza el de la partición en vez de reconstruirlo
+     */
+    private void trasladarIndices() {
+        List<Map<String, Object>> indices = jdbcTemplate.queryForList(
+            "SELECT indexname, indexdef FROM pg_indexes WHERE tablename = ? AND indexdef NOT LIKE 'CREATE UNIQUE%'",
+            PARTICION_HISTORICO);
+        for (Map<String, Object> indice : indices) {
+            String nombre = (String) indice.get("indexname");
+            String definicion = ((String) indice.get("indexdef"))
+                .replaceFirst(" ON (\\w+\\.)?" + PARTICION_HISTORICO + " ", " ON " + TABLA + " ");
+            jdbcTemplate.execute("ALTER INDEX " + nombre + " RENAME TO " + nombreIndiceHistorico(nombre));
+            jdbcTemplate.execute(definicion);
+        }
+    }
+
+    private static String nombreIndiceHistorico(String nombre) {
+        String sufijo = "_hist";
+        // Los identificadores de PostgreSQL tienen como máximo 63 caracteres
+        return (nombre.length() + sufijo.length() > 63 ? nombre.substring(0, 63 - sufijo.length()) : nombre) + sufijo;
+    }
+
+    @Override
+    @Scheduled(cron = "${particiones.logs.cron:0 5 0 * * *}")
+    public synchronized void asegurarParticiones() {
+        if (!particionada) {
+            return;
+        }
+        try {
+            LocalDateTime hasta = inicioPeriodo(LocalDateTime.now());
+            for (int i = 0; i <= periodosAdelantados; i++) {
+                hasta = siguientePeriodo(hasta);
+            }
+
+            LocalDateTime desde = leerParticiones().stream()
+                .map(Particion::hasta)
+                .max(Comparator.naturalOrder())
+                .orElse(inicioPeriodo(LocalDateTime.now()));
+
+            while (desde.isBefore(hasta)) {
+                LocalDateTime fin = siguientePeriodo(desde);
+                String nombre = nombreParticion(desde);
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nombre + " PARTITION OF " + TABLA +
+                    " FOR VALUES FROM ('" + literal(desde) + "') TO ('" + literal(fin) + "')");
+                logger.info("Partición {} creada [{} - {})", nombre, desde, fin);
+                desde = fin;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARTICION_DEFAULT + " PARTITION OF " + TABLA + " DEFAULT");
+        } catch (Exception e) {
+            logger.error("Error creando particiones de log_acceso: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> aplicarRetencion(LocalDateTime fechaLimite) {
+        List<String> eliminadas = new ArrayList<>();
+        long logsEliminados = 0;
+
+        if (particionada) {
+            for (Particion particion : leerParticiones()) {
+                if (particion.hasta().isAfter(fechaLimite)) {
+                    continue;
+                }
+                List<Object[]> conteos = logAccesoDao.getConteosEntreFechas(particion.desde(), particion.hasta());
+                transactionTemplate.executeWithoutResult(estado -> {
+                    jdbcTemplate.execute("ALTER TABLE " + TABLA + " DETACH PARTITION " + particion.nombre());
+                    jdbcTemplate.execute("DROP TABLE " + particion.nombre());
+                });
+                estadisticasLogsService.descontar(conteos);
+                logsEliminados += totalDe(conteos);
+                eliminadas.add(particion.nombre());
+                logger.info("Partición {} eliminada por retención ({} logs)", particion.nombre(), totalDe(conteos));
+            }
+        }
+
+        // Resto del periodo que contiene la fecha límite (o tabla sin particionar): DELETE acotado por fecha,
+        // que con particiones sólo toca la partición correspondiente
+        List<Object[]> conteos = logAccesoDao.getConteosEntreFechas(INICIO_MINIMO, fechaLimite);
+        long restantes = totalDe(conteos);
+        if (restantes > 0) {
+            Integer borrados = transactionTemplate.execute(estado -> logAccesoDao.deleteLogsAnterioresA(fechaLimite));
+            estadisticasLogsService.descontar(conteos);
+            logsEliminados += borrados != null ? borrados : 0;
+        }
+
+        if (particionada) {
+            asegurarParticiones();
+        }
+
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("particionesEliminadas", eliminadas);
+        resultado.put("logsEliminados", logsEliminados);
+        resultado.put("fechaLimite", fechaLimite);
+        return resultado;
+    }
+
+    @Override
+    public List<Map<String, Object>> listarParticiones() {
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        if (!particionada) {
+            return resultado;
+        }
+        jdbcTemplate.query(
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), c.reltuples::bigint " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = ?::regclass ORDER BY c.relname",
+            rs -> {
+                Map<String, Object> fila = new HashMap<>();
+                fila.put("nombre", rs.getString(1));
+                fila.put("limites", rs.getString(2));
+                fila.put("filasEstimadas", Math.max(0L, rs.getLong(3)));
+                resultado.add(fila);
+            }, TABLA);
+        return resultado;
+    }
+
+    /**
+     * Particiones con rango (se excluye la DEFAULT), ordenadas por inicio
+     */
+    private List<Particion> leerParticiones() {
+        List<Particion> particiones = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass",
+            rs -> {
+                Matcher matcher = PATRON_LIMITES.matcher(rs.getString(2));
+                if (matcher.find()) {
+                    LocalDateTime desde = matcher.group(1) != null ? leerLimite(matcher.group(1)) : INICIO_MINIMO;
+                    particiones.add(new Particion(rs.getString(1), desde, leerLimite(matcher.group(2))));
+                }
+            }, TABLA);
+        particiones.sort(Comparator.comparing(Particion::desde));
+        return particiones;
+    }
+
+    private LocalDateTime inicioPeriodo(LocalDateTime fecha) {
+        LocalDate dia = fecha.toLocalDate();
+        return granularidad == Granularidad.MENSUAL ? dia.withDayOfMonth(1).atStartOfDay() : dia.atStartOfDay();
+    }
+
+    private LocalDateTime siguientePeriodo(LocalDateTime inicio) {
+        return granularidad == Granularidad.MENSUAL ? inicio.plusMonths(1) : inicio.plusDays(1);
+    }
+
+    private String nombreParticion(LocalDateTime inicio) {
+        return TABLA + "_p" + inicio.format(granularidad == Granularidad.MENSUAL ? FORMATO_MES : FORMATO_DIA);
+    }
+
+    private static String literal(LocalDateTime fecha) {
+        return fecha.format(FORMATO_LIMITE);
+    }
+
+    private static LocalDateTime leerLimite(String texto) {
+        return Timestamp.valueOf(texto).toLocalDateTime();
+    }
+
+    private static long totalDe(List<Object[]> conteos) {
+        long total = 0;
+        for (Object[] fila : conteos) {
+            total += fila[2] != null ? ((Number) fila[2]).longValue() : 0;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.models.servicioImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.entity.Usuario;
+import com.example.demo.models.servicio.TokensFirmadosService;
+
+/**
+ * Formato: "f1." + base64url(carga) + "." + base64url(HMAC-SHA256 de todo lo anterior).
+ * La carga es idUsuario|rol|estado|emitidoMs|caducaMs|aleatorio|userName (userName al final porque
+ * puede contener cualquier carácter). Verificar un token es calcular un HMAC: no hay consultas.
+ * La revocación (logout, desactivación, cambio de rol) guarda por usuario el instante a partir del
+ * cual se aceptan tokens; las entradas se descartan cuando ya no queda ningún token vivo anterior.
+ * Con varias instancias todas deben compartir autenticacion.tokens.clave; la lista de revocación es
+ * local, así que en el resto de instancias un token revocado sigue valiendo hasta que caduca.
+ */
+@Service
+public class TokensFirmadosServiceImpl implements TokensFirmadosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokensFirmadosServiceImpl.class);
+
+    private static final String PREFIJO = "f1.";
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int CAMPOS = 7;
+
+    @Value("${autenticacion.tokens.firmados:false}")
+    private boolean habilitado;
+
+    // Clave en base64 (al menos 32 bytes); vacía genera una aleatoria al arrancar
+    @Value("${autenticacion.tokens.clave:}")
+    private String claveBase64;
+
+    @Value("${autenticacion.tokens.duracion-minutos:60}")
+    private long duracionMinutos;
+
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Map<String, Long> revocadosHasta = new ConcurrentHashMap<>();
+    private SecretKeySpec clave;
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void inicializar() {
+        byte[] bytes;
+        if (claveBase64 == null || claveBase64.isBlank()) {
+            bytes = new byte[32];
+            aleatorio.nextBytes(bytes);
+            if (habilitado) {
+                logger.warn("autenticacion.tokens.clave no configurada: clave aleatoria, los tokens no sobreviven a un reinicio");
+            }
+        } else {
+            bytes = Base64.getDecoder().decode(claveBase64.trim());
+            if (bytes.length < 32) {
+                throw new IllegalStateException("autenticacion.tokens.clave debe tener al menos 32 bytes");
+            }
+        }
+        clave = new SecretKeySpec(bytes, ALGORITMO);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITMO);
+                mac.init(clave);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC no disponible", e);
+            }
+        });
+        if (habilitado) {
+            logger.info("Tokens de sesión firmados activados (duración {} min)", duracionMinutos);
+        }
+    }
+
+    @Override
+    public boolean estaHabilitado() {
+        return habilitado;
+    }
+
+    @Override
+    public boolean esTokenFirmado(String token) {
+        return token != null && token.startsWith(PREFIJO);
+    }
+
+    @Override
+    public String emitir(Usuario usuario) {
+        long ahora = System.currentTimeMillis();
+        // Un token emitido en el mismo milisegundo que una revocación también debe valer
+        Long revocado = revocadosHasta.get(usuario.getUser_name());
+        long emitido = revocado != null ? Math.max(ahora, revocado) : ahora;
+        String rol = usuario.getRol() != null ? usuario.getRol().getNombre() : "";
+        String carga = usuario.getIdUsuario() + "|" + rol + "|" + (usuario.getEstado() != null ? usuario.getEstado() : "") +
+                "|" + emitido + "|" + (emitido + duracionMinutos * 60_000) + "|" + Long.toHexString(aleatorio.nextLong()) +
+                "|" + usuario.getUser_name();
+        String firmado = PREFIJO + Base64.getUrlEncoder().withoutPadding().encodeToString(carga.getBytes(StandardCharsets.UTF_8));
+        return firmado + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(firmar(firmado));
+    }
+
+    @Override
+    public Optional<PrincipalSesion> verificar(String token) {
+        if (!esTokenFirmado(token)) {
+            return Optional.empty();
+        }
+        int punto = token.lastIndexOf('.');
+        if (punto <= PREFIJO.length()) {
+            return Optional.empty();
+        }
+        try {
+            String firmado = token.substring(0, punto);
+            byte[] firma = Base64.getUrlDecoder().decode(token.substring(punto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(firmado))) {
+                return Optional.empty();
+            }
+            String carga = new String(Base64.getUrlDecoder().decode(firmado.substring(PREFIJO.length())), StandardCharsets.UTF_8);
+            String[] campos = carga.split("\\|", CAMPOS);
+            if (campos.length != CAMPOS) {
+                return Optional.empty();
+            }
+            long emitido = Long.parseLong(campos[3]);
+            long caduca = Long.parseLong(campos[4]);
+            String userName = campos[6];
+            if (caduca <= System.currentTimeMillis()) {
+                return Optional.empty();
+            }
+            Long revocado = revocadosHasta.get(userName);
+            if (revocado != null && emitido < revocado) {
+                return Optional.empty();
+            }
+            return Optional.of(new PrincipalSesion(Long.valueOf(campos[0]), userName,
+                    campos[1].isEmpty() ? null : campos[1], campos[2].isEmpty() ? null : campos[2]));
+        } catch (IllegalArgumentException e) {
+            // Base64 o números mal formados: token manipulado
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void revocar(String userName) {
+        if (userName == null) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        // Emitido antes de esto ya habría caducado: la entrada no protege nada
+        long limite = ahora - duracionMinutos * 60_000;
+        revocadosHasta.values().removeIf(instante -> instante < limite);
+        // Siempre por encima de la revocación anterior: también anula lo emitido tras ella en el mismo milisegundo
+        revocadosHasta.merge(userName, ahora + 1, (anterior, nuevo) -> Math.max(anterior + 1, nuevo));
+    }
+
+    private byte[] firmar(String texto) {
+        return macs.get().doFinal(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
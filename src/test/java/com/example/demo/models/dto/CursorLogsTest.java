@@ -0,0 +1,78 @@
+package com.example.demo.models.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class CursorLogsTest {
+
+	@Test
+	void decodificaLoQueCodifica() {
+		comprobarIdaYVuelta(new CursorLogs(LocalDateTime.of(2025, 6, 23, 8, 15, 42), 1234L));
+	}
+
+	@Test
+	void conservaLosNanosegundosYLosMinutosExactos() {
+		// toString omite los segundos en 08:00 y escribe hasta nueve decimales en el otro
+		comprobarIdaYVuelta(new CursorLogs(LocalDateTime.of(2025, 6, 23, 8, 0), 1L));
+		comprobarIdaYVuelta(new CursorLogs(LocalDateTime.of(2025, 6, 23, 8, 0, 0, 123_456_789), 2L));
+	}
+
+	@Test
+	void conservaElCursorInicial() {
+		comprobarIdaYVuelta(CursorLogs.INICIO);
+	}
+
+	@Test
+	void esTextoSeguroParaUnaUrl() {
+		String codificado = new CursorLogs(LocalDateTime.of(2025, 6, 23, 8, 15, 42, 999_000_000), Long.MAX_VALUE).codificar();
+
+		assertFalse(codificado.contains("+"));
+		assertFalse(codificado.contains("/"));
+		assertFalse(codificado.contains("="));
+	}
+
+	@Test
+	void ignoraEspaciosAlrededor() {
+		CursorLogs cursor = new CursorLogs(LocalDateTime.of(2025, 1, 2, 3, 4, 5), 6L);
+
+		CursorLogs leido = CursorLogs.decodificar("  " + cursor.codificar() + "\n");
+
+		assertEquals(cursor.getFechaHora(), leido.getFechaHora());
+		assertEquals(cursor.getIdLog(), leido.getIdLog());
+	}
+
+	@Test
+	void vacioEsLaPrimeraPagina() {
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(null));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(""));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar("   "));
+	}
+
+	@Test
+	void malFormadoEsLaPrimeraPagina() {
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar("no es base64!"));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(base64("2025-06-23T08:15:42")));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(base64("|15")));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(base64("ayer|15")));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(base64("2025-06-23T08:15:42|quince")));
+		assertSame(CursorLogs.INICIO, CursorLogs.decodificar(base64("2025-06-23T08:15:42|")));
+	}
+
+	private static void comprobarIdaYVuelta(CursorLogs cursor) {
+		CursorLogs leido = CursorLogs.decodificar(cursor.codificar());
+
+		assertEquals(cursor.getFechaHora(), leido.getFechaHora());
+		assertEquals(cursor.getIdLog(), leido.getIdLog());
+	}
+
+	private static String base64(String texto) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+}
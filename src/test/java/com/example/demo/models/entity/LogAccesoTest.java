@@ -0,0 +1,49 @@
+package com.example.demo.models.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LogAccesoTest {
+
+	@Test
+	void elConstructorBasicoCalculaLaCategoria() {
+		LogAcceso log = new LogAcceso("ana", "LOGIN", "EXITOSO");
+
+		assertEquals(CategoriaAccion.LOGIN, log.getCategoriaAccion());
+		assertEquals(Short.valueOf(CategoriaAccion.LOGIN.getCodigo()), log.getCategoria());
+	}
+
+	@Test
+	void elConstructorCompletoCalculaLaCategoria() {
+		LogAcceso log = new LogAcceso("ana", "LOGOUT", "EXITOSO", "10.0.0.1", "navegador", null);
+
+		assertEquals(CategoriaAccion.LOGOUT, log.getCategoriaAccion());
+		assertEquals(Short.valueOf(CategoriaAccion.LOGOUT.getCodigo()), log.getCategoria());
+	}
+
+	@Test
+	void elConstructorConIdDeUsuarioCalculaLaCategoria() {
+		LogAcceso log = new LogAcceso(7L, "ana", "ABRIR_PUERTA", "EXITOSO", "10.0.0.1", "ESP32", null);
+
+		assertEquals(CategoriaAccion.ABRIR, log.getCategoriaAccion());
+		assertEquals(Short.valueOf(CategoriaAccion.ABRIR.getCodigo()), log.getCategoria());
+		assertEquals(Long.valueOf(7L), log.getIdUsuario());
+	}
+
+	@Test
+	void unaAccionSinCategoriaSeGuardaComoOtraYNoComoNula() {
+		LogAcceso log = new LogAcceso("ana", "CAMBIAR_VISTA", "EXITOSO");
+
+		assertEquals(Short.valueOf(CategoriaAccion.OTRA.getCodigo()), log.getCategoria());
+	}
+
+	@Test
+	void cambiarLaAccionRecalculaLaCategoria() {
+		LogAcceso log = new LogAcceso("ana", "LOGIN", "EXITOSO");
+
+		log.setAccion("CERRAR_PUERTA");
+
+		assertEquals(CategoriaAccion.PUERTA, log.getCategoriaAccion());
+	}
+}
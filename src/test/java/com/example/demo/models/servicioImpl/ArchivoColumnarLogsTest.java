@@ -0,0 +1,151 @@
+package com.example.demo.models.servicioImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.demo.models.entity.LogAcceso;
+
+class ArchivoColumnarLogsTest {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void conservaTodasLasColumnas() throws IOException {
+		List<LogAcceso> logs = List.of(
+				log(10L, LocalDateTime.of(2025, 6, 23, 8, 0, 0, 123_456_000), 1L, "admin", "LOGIN", "EXITOSO",
+						"AUTENTICACION", "192.168.1.10", "Mozilla/5.0", "Inicio de sesión"),
+				log(11L, LocalDateTime.of(2025, 6, 23, 8, 0, 5), 2L, "operador", "ABRIR_PUERTA", "FALLIDO",
+						"ESP32", "192.168.1.11", "curl/8.0", "ESP32 no respondió"),
+				log(12L, LocalDateTime.of(2025, 6, 23, 8, 1, 0), 1L, "admin", "LOGIN", "EXITOSO",
+						"AUTENTICACION", "192.168.1.10", "Mozilla/5.0", "Inicio de sesión"));
+
+		comprobarIguales(logs, idaYVuelta(logs));
+	}
+
+	@Test
+	void conservaLosNulos() throws IOException {
+		List<LogAcceso> logs = List.of(
+				log(1L, LocalDateTime.of(2025, 1, 1, 0, 0), null, "ANONIMO", "PING", "EXITOSO",
+						null, null, null, null),
+				log(2L, LocalDateTime.of(2025, 1, 1, 0, 0, 1), 0L, "SISTEMA", "PING", "ERROR",
+						"SISTEMA", "127.0.0.1", null, ""));
+
+		List<LogAcceso> leidos = idaYVuelta(logs);
+
+		comprobarIguales(logs, leidos);
+		assertNull(leidos.get(0).getIdUsuario());
+		// idUsuario 0 no debe confundirse con null (se guarda desplazado en uno)
+		assertEquals(Long.valueOf(0L), leidos.get(1).getIdUsuario());
+		assertNull(leidos.get(0).getDetalles());
+		assertEquals("", leidos.get(1).getDetalles());
+	}
+
+	@Test
+	void admiteDiferenciasNegativas() throws IOException {
+		// Ordenadas por fecha, los ids no tienen por qué crecer (bloques de la secuencia entre nodos)
+		// y las fechas anteriores a 1970 dan microsegundos negativos
+		List<LogAcceso> logs = List.of(
+				log(900L, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 1L, "a", "X", "EXITOSO",
+						"SISTEMA", null, null, null),
+				log(50L, LocalDateTime.of(2025, 3, 1, 12, 0), 1L, "a", "X", "EXITOSO",
+						"SISTEMA", null, null, null),
+				log(Long.MAX_VALUE / 2, LocalDateTime.of(2025, 3, 1, 12, 0), 1L, "a", "X", "EXITOSO",
+						"SISTEMA", null, null, null),
+				log(7L, LocalDateTime.of(2025, 3, 1, 12, 0, 0, 1_000), 1L, "a", "X", "EXITOSO",
+						"SISTEMA", null, null, null));
+
+		comprobarIguales(logs, idaYVuelta(logs));
+	}
+
+	@Test
+	void conservaTextoNoAscii() throws IOException {
+		List<LogAcceso> logs = List.of(
+				log(1L, LocalDateTime.of(2025, 6, 23, 8, 0), 3L, "peña_ñandú", "ABRIR_PUERTA", "EXITOSO",
+						"ESP32", "::1", "Navegador «Ñ» 🚪", "Apertura 🔓 — año 2025, señal débil"),
+				log(2L, LocalDateTime.of(2025, 6, 23, 8, 0, 1), 4L, "用户", "CERRAR_PUERTA", "EXITOSO",
+						"ESP32", "::1", "Navegador «Ñ» 🚪", "門を閉めました"));
+
+		comprobarIguales(logs, idaYVuelta(logs));
+	}
+
+	@Test
+	void admiteDiccionariosVacios() throws IOException {
+		// Todas las IP, user agents y detalles son null: sus diccionarios no tienen entradas
+		List<LogAcceso> logs = List.of(
+				log(1L, LocalDateTime.of(2025, 6, 23, 8, 0), null, "admin", "LOGIN", "EXITOSO",
+						null, null, null, null),
+				log(2L, LocalDateTime.of(2025, 6, 23, 8, 1), null, "admin", "LOGOUT", "EXITOSO",
+						null, null, null, null));
+
+		comprobarIguales(logs, idaYVuelta(logs));
+	}
+
+	@Test
+	void admiteArchivoSinFilas() throws IOException {
+		assertTrue(idaYVuelta(List.of()).isEmpty());
+	}
+
+	@Test
+	void rechazaFormatoDesconocido() throws IOException {
+		Path fichero = directorio.resolve("otro.gz");
+		try (GZIPOutputStream salida = new GZIPOutputStream(Files.newOutputStream(fichero))) {
+			salida.write(new byte[] { 0, 3, 'X', 'Y', 'Z', 0, 0, 0, 1 });
+		}
+
+		assertThrows(IOException.class, () -> ArchivoColumnarLogs.leer(fichero));
+	}
+
+	private List<LogAcceso> idaYVuelta(List<LogAcceso> logs) throws IOException {
+		Path fichero = directorio.resolve("logs.gz");
+		ArchivoColumnarLogs.escribir(logs, fichero);
+		return ArchivoColumnarLogs.leer(fichero);
+	}
+
+	private static LogAcceso log(Long idLog, LocalDateTime fechaHora, Long idUsuario, String userName, String accion,
+			String resultado, String tipoAccion, String direccionIp, String userAgent, String detalles) {
+		LogAcceso log = new LogAcceso();
+		log.setIdLog(idLog);
+		log.setFechaHora(fechaHora);
+		log.setIdUsuario(idUsuario);
+		log.setUserName(userName);
+		log.setAccion(accion);
+		log.setResultado(resultado);
+		log.setTipoAccion(tipoAccion);
+		log.setDireccionIp(direccionIp);
+		log.setUserAgent(userAgent);
+		log.setDetalles(detalles);
+		return log;
+	}
+
+	private static void comprobarIguales(List<LogAcceso> esperados, List<LogAcceso> leidos) {
+		assertEquals(esperados.size(), leidos.size());
+		for (int i = 0; i < esperados.size(); i++) {
+			LogAcceso esperado = esperados.get(i);
+			LogAcceso leido = leidos.get(i);
+			assertEquals(esperado.getIdLog(), leido.getIdLog(), "idLog de la fila " + i);
+			assertEquals(esperado.getFechaHora(), leido.getFechaHora(), "fechaHora de la fila " + i);
+			assertEquals(esperado.getIdUsuario(), leido.getIdUsuario(), "idUsuario de la fila " + i);
+			assertEquals(esperado.getUserName(), leido.getUserName(), "userName de la fila " + i);
+			assertEquals(esperado.getAccion(), leido.getAccion(), "accion de la fila " + i);
+			assertEquals(esperado.getCategoriaAccion(), leido.getCategoriaAccion(), "categoria de la fila " + i);
+			assertEquals(esperado.getResultado(), leido.getResultado(), "resultado de la fila " + i);
+			assertEquals(esperado.getTipoAccion(), leido.getTipoAccion(), "tipoAccion de la fila " + i);
+			assertEquals(esperado.getDireccionIp(), leido.getDireccionIp(), "direccionIp de la fila " + i);
+			assertEquals(esperado.getUserAgent(), leido.getUserAgent(), "userAgent de la fila " + i);
+			assertEquals(esperado.getDetalles(), leido.getDetalles(), "detalles de la fila " + i);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.demo.models.servicioImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.models.servicioImpl.CircuitoESP32.Estado;
+
+class CircuitoESP32Test {
+
+	@Test
+	void seAbreAlAlcanzarElUmbralDeFallosConsecutivos() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 3, 60_000);
+
+		fallar(circuito, 2);
+		assertEquals(Estado.CERRADO, circuito.getEstado());
+		assertTrue(circuito.permitirPeticion());
+		circuito.registrarFallo();
+
+		assertEquals(Estado.ABIERTO, circuito.getEstado());
+		assertTrue(circuito.rechazaPeticiones());
+		assertFalse(circuito.permitirPeticion());
+		assertEquals(1L, circuito.obtenerMetricas().get("aperturas"));
+	}
+
+	@Test
+	void unExitoReiniciaLosFallosConsecutivos() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 3, 60_000);
+
+		fallar(circuito, 2);
+		circuito.permitirPeticion();
+		circuito.registrarExito();
+		fallar(circuito, 2);
+
+		assertEquals(Estado.CERRADO, circuito.getEstado());
+		assertEquals(2, circuito.obtenerMetricas().get("fallosConsecutivos"));
+	}
+
+	@Test
+	void pasadaLaEsperaDejaPasarUnaUnicaPrueba() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 1, 0);
+		fallar(circuito, 1);
+
+		assertFalse(circuito.rechazaPeticiones());
+		assertTrue(circuito.permitirPeticion());
+		assertEquals(Estado.SEMIABIERTO, circuito.getEstado());
+		// Mientras la prueba está en curso el resto se rechaza
+		assertTrue(circuito.rechazaPeticiones());
+		assertFalse(circuito.permitirPeticion());
+	}
+
+	@Test
+	void laPruebaCorrectaCierraElCircuito() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 1, 0);
+		fallar(circuito, 1);
+
+		assertTrue(circuito.permitirPeticion());
+		circuito.registrarExito();
+
+		assertEquals(Estado.CERRADO, circuito.getEstado());
+		assertTrue(circuito.permitirPeticion());
+	}
+
+	@Test
+	void laPruebaFallidaVuelveAAbrirloSinContarOtraApertura() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 1, 0);
+		fallar(circuito, 1);
+
+		assertTrue(circuito.permitirPeticion());
+		circuito.registrarFallo();
+
+		assertEquals(Estado.ABIERTO, circuito.getEstado());
+		assertEquals(1L, circuito.obtenerMetricas().get("aperturas"));
+	}
+
+	@Test
+	void consultarElEstadoNoCuentaRechazos() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 1, 60_000);
+		fallar(circuito, 1);
+
+		assertTrue(circuito.rechazaPeticiones());
+		assertTrue(circuito.rechazaPeticiones());
+
+		assertEquals(0L, circuito.obtenerMetricas().get("rechazos"));
+	}
+
+	@Test
+	void cuentaLosRechazosInmediatosYLosDeLaCola() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 1, 60_000);
+
+		assertFalse(circuito.rechazarPeticion());
+		fallar(circuito, 1);
+		assertTrue(circuito.rechazarPeticion());
+		assertFalse(circuito.permitirPeticion());
+
+		assertEquals(2L, circuito.obtenerMetricas().get("rechazos"));
+	}
+
+	@Test
+	void elUmbralMinimoEsUnFallo() {
+		CircuitoESP32 circuito = new CircuitoESP32("puerta", 0, 60_000);
+
+		fallar(circuito, 1);
+
+		assertEquals(Estado.ABIERTO, circuito.getEstado());
+		assertEquals(1, circuito.obtenerMetricas().get("umbralFallos"));
+	}
+
+	private static void fallar(CircuitoESP32 circuito, int veces) {
+		for (int i = 0; i < veces; i++) {
+			assertTrue(circuito.permitirPeticion());
+			circuito.registrarFallo();
+		}
+	}
+}
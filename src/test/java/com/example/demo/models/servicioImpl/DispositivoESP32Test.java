@@ -0,0 +1,252 @@
+package com.example.demo.models.servicioImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.config.ESP32Properties;
+import com.example.demo.models.dto.ComandoResultado;
+
+class DispositivoESP32Test {
+
+	@Test
+	void agrupaUnDuplicadoMientrasElPrimeroSigueEnVuelo() {
+		ClienteFalso cliente = new ClienteFalso();
+		DispositivoESP32 dispositivo = dispositivo(cliente, 60_000, 20);
+
+		CompletableFuture<ComandoResultado> primero = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+		CompletableFuture<ComandoResultado> duplicado = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+
+		assertSame(primero, duplicado);
+		assertEquals(1, cliente.peticiones.size());
+		assertEquals(1L, dispositivo.obtenerMetricas().get("peticionesAgrupadas"));
+
+		cliente.responder(0, 200);
+		assertTrue(primero.join().isExitoso());
+		assertTrue(duplicado.join().isExitoso());
+	}
+
+	@Test
+	void agrupaUnDuplicadoQueEsperaTurnoEnLaCola() {
+		ClienteFalso cliente = new ClienteFalso();
+		DispositivoESP32 dispositivo = dispositivo(cliente, 60_000, 20);
+
+		dispositivo.enviarComandoAsync("CERRAR_PUERTA");
+		CompletableFuture<ComandoResultado> enCola = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+		CompletableFuture<ComandoResultado> duplicado = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+
+		assertSame(enCola, duplicado);
+		cliente.responder(0, 200);
+		cliente.responder(1, 200);
+
+		assertEquals(2, cliente.peticiones.size());
+		assertTrue(duplicado.join().isExitoso());
+	}
+
+	@Test
+	void noAgrupaComandosNoCoalescibles() {
+		ClienteFalso cliente = new ClienteFalso();
+		DispositivoESP32 dispositivo = dispositivo(cliente, 60_000, 20);
+
+		CompletableFuture<ComandoResultado> primero = dispositivo.enviarComandoAsync("CERRAR_PUERTA");
+		CompletableFuture<ComandoResultado> segundo = dispositivo.enviarComandoAsync("CERRAR_PUERTA");
+
+		assertNotSame(primero, segundo);
+		assertEquals(0L, dispositivo.obtenerMetricas().get("peticionesAgrupadas"));
+		// Un único comando en vuelo: el segundo sale cuando responde el primero
+		assertEquals(1, cliente.peticiones.size());
+		cliente.responder(0, 200);
+		assertEquals(2, cliente.peticiones.size());
+		cliente.responder(1, 500);
+
+		assertTrue(primero.join().isExitoso());
+		assertFalse(segundo.join().isExitoso());
+	}
+
+	@Test
+	void noAgrupaConUnaPeticionYaTerminada() {
+		ClienteFalso cliente = new ClienteFalso();
+		DispositivoESP32 dispositivo = dispositivo(cliente, 60_000, 20);
+
+		CompletableFuture<ComandoResultado> primero = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+		cliente.responder(0, 200);
+		CompletableFuture<ComandoResultado> segundo = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+
+		assertNotSame(primero, segundo);
+		assertEquals(2, cliente.peticiones.size());
+	}
+
+	@Test
+	void noAgrupaFueraDeLaVentana() {
+		ClienteFalso cliente = new ClienteFalso();
+		DispositivoESP32 dispositivo = dispositivo(cliente, 0, 20);
+
+		CompletableFuture<ComandoResultado> primero = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+		CompletableFuture<ComandoResultado> segundo = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+
+		assertNotSame(primero, segundo);
+		assertEquals(0L, dispositivo.obtenerMetricas().get("peticionesAgrupadas"));
+	}
+
+	@Test
+	void rechazaConLaColaLlenaPeroAgrupaLosDuplicados() {
+		ClienteFalso cliente = new ClienteFalso();
+		DispositivoESP32 dispositivo = dispositivo(cliente, 60_000, 1);
+
+		dispositivo.enviarComandoAsync("CERRAR_PUERTA");
+		CompletableFuture<ComandoResultado> enCola = dispositivo.enviarComandoAsync("ABRIR_PUERTA");
+		CompletableFuture<ComandoResultado> rechazado = dispositivo.enviarComandoAsync("CERRAR_PUERTA");
+
+		assertFalse(rechazado.join().isExitoso());
+		assertEquals(1L, dispositivo.obtenerMetricas().get("peticionesRechazadas"));
+		// El duplicado no ocupa sitio en la cola
+		assertSame(enCola, dispositivo.enviarComandoAsync("ABRIR_PUERTA"));
+	}
+
+	private static DispositivoESP32 dispositivo(HttpClient cliente, int ventanaMs, int maxCola) {
+		ESP32Properties propiedades = new ESP32Properties();
+		propiedades.setVentanaCoalescenciaMs(ventanaMs);
+		propiedades.setMaxCola(maxCola);
+		propiedades.setComandosCoalescibles(List.of("ABRIR_PUERTA"));
+		return new DispositivoESP32("puerta", "Puerta", "127.0.0.1", 80, 60_000, List.of(), cliente, propiedades);
+	}
+
+	/**
+	 * Cliente HTTP que guarda las peticiones y deja que el test decida cuándo responde cada una
+	 */
+	private static class ClienteFalso extends HttpClient {
+
+		private final List<HttpRequest> peticiones = new CopyOnWriteArrayList<>();
+		private final List<CompletableFuture<HttpResponse<Object>>> respuestas = new CopyOnWriteArrayList<>();
+
+		void responder(int indice, int codigo) {
+			HttpRequest peticion = peticiones.get(indice);
+			respuestas.get(indice).complete(new RespuestaFalsa(peticion, codigo));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+				HttpResponse.BodyHandler<T> responseBodyHandler) {
+			CompletableFuture<HttpResponse<Object>> respuesta = new CompletableFuture<>();
+			peticiones.add(request);
+			respuestas.add(respuesta);
+			return (CompletableFuture<HttpResponse<T>>) (CompletableFuture<?>) respuesta;
+		}
+
+		@Override
+		public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+				HttpResponse.BodyHandler<T> responseBodyHandler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+			return sendAsync(request, responseBodyHandler);
+		}
+
+		@Override
+		public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+				throws IOException, InterruptedException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<CookieHandler> cookieHandler() {
+			return Optional.empty();
+		}
+
+		@Override
+		public Optional<Duration> connectTimeout() {
+			return Optional.empty();
+		}
+
+		@Override
+		public Redirect followRedirects() {
+			return Redirect.NEVER;
+		}
+
+		@Override
+		public Optional<ProxySelector> proxy() {
+			return Optional.empty();
+		}
+
+		@Override
+		public SSLContext sslContext() {
+			return null;
+		}
+
+		@Override
+		public SSLParameters sslParameters() {
+			return null;
+		}
+
+		@Override
+		public Optional<Authenticator> authenticator() {
+			return Optional.empty();
+		}
+
+		@Override
+		public Version version() {
+			return Version.HTTP_1_1;
+		}
+
+		@Override
+		public Optional<Executor> executor() {
+			return Optional.empty();
+		}
+	}
+
+	private record RespuestaFalsa(HttpRequest request, int statusCode) implements HttpResponse<Object> {
+
+		@Override
+		public Optional<HttpResponse<Object>> previousResponse() {
+			return Optional.empty();
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return HttpHeaders.of(Map.of(), (nombre, valor) -> true);
+		}
+
+		@Override
+		public Object body() {
+			return "OK";
+		}
+
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+
+		@Override
+		public URI uri() {
+			return request.uri();
+		}
+
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_1_1;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.example.demo.models.servicioImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.models.dao.LogAccesoDao;
+import com.example.demo.models.entity.LogAcceso;
+
+class LogsRecientesServiceImplTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 23, 8, 0);
+
+	@Test
+	void redondeaLaCapacidadAPotenciaDeDosConMinimo16() {
+		assertEquals(16, servicio(5, List.of()).getCapacidad());
+		assertEquals(16, servicio(16, List.of()).getCapacidad());
+		assertEquals(32, servicio(20, List.of()).getCapacidad());
+	}
+
+	@Test
+	void cargaLosUltimosLogsDeLaTablaAlArrancar() {
+		// La consulta devuelve del más reciente al más antiguo
+		LogsRecientesServiceImpl recientes = servicio(16, List.of(log(3), log(2), log(1)));
+
+		assertEquals(List.of(3L, 2L, 1L), ids(recientes.obtenerUltimos(10)));
+		assertEquals(3L, recientes.getUltimoId());
+	}
+
+	@Test
+	void ignoraLosLogsQueYaEntraronEnLaCarga() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of(log(3), log(2), log(1)));
+
+		recientes.logsRegistrados(List.of(log(3), log(4)));
+
+		assertEquals(List.of(4L, 3L, 2L, 1L), ids(recientes.obtenerUltimos(10)));
+	}
+
+	@Test
+	void alDesbordarConservaSoloLosMasRecientes() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of());
+
+		recientes.logsRegistrados(logs(1, 20));
+
+		List<Long> ultimos = ids(recientes.obtenerUltimos(100));
+		assertEquals(16, ultimos.size());
+		assertEquals(Long.valueOf(20L), ultimos.get(0));
+		assertEquals(Long.valueOf(5L), ultimos.get(15));
+		assertEquals(List.of(20L, 19L), ids(recientes.obtenerUltimos(2)));
+	}
+
+	@Test
+	void devuelveLosNuevosEnOrdenDeEscritura() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of(log(2), log(1)));
+		recientes.logsRegistrados(logs(3, 6));
+
+		assertEquals(List.of(3L, 4L, 5L, 6L), ids(recientes.obtenerDesde(2, 10).orElseThrow()));
+		assertEquals(List.of(3L, 4L), ids(recientes.obtenerDesde(2, 2).orElseThrow()));
+		// Sin historia descartada, incluso un cliente sin ningún log recibe todos
+		assertEquals(6, recientes.obtenerDesde(0, 10).orElseThrow().size());
+	}
+
+	@Test
+	void alDiaDevuelveListaVacia() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of(log(2), log(1)));
+
+		Optional<List<LogAcceso>> nuevos = recientes.obtenerDesde(2, 10);
+
+		assertTrue(nuevos.isPresent());
+		assertTrue(nuevos.get().isEmpty());
+	}
+
+	@Test
+	void trasDesbordarSirveAQuienSigueDentroDelBuffer() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of());
+		recientes.logsRegistrados(logs(1, 20));
+
+		assertEquals(List.of(11L, 12L, 13L, 14L), ids(recientes.obtenerDesde(10, 4).orElseThrow()));
+	}
+
+	@Test
+	void trasDesbordarPideRecargarAQuienSeQuedoAtras() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of());
+		recientes.logsRegistrados(logs(1, 20));
+
+		assertFalse(recientes.obtenerDesde(2, 10).isPresent());
+	}
+
+	@Test
+	void unaCargaInicialLlenaNoGarantizaLaHistoria() {
+		// La tabla tenía al menos tantos logs como caben: los anteriores no están en memoria
+		List<LogAcceso> tabla = new ArrayList<>(logs(5, 20));
+		Collections.reverse(tabla);
+		LogsRecientesServiceImpl recientes = servicio(16, tabla);
+
+		assertFalse(recientes.obtenerDesde(0, 10).isPresent());
+		assertEquals(List.of(20L), ids(recientes.obtenerDesde(19, 10).orElseThrow()));
+	}
+
+	@Test
+	void cuentaDesdeUnaFechaSiElBufferCubreElIntervalo() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of());
+		recientes.logsRegistrados(logs(1, 20));
+
+		assertEquals(OptionalLong.of(6), recientes.contarDesde(BASE.plusSeconds(15)));
+		assertEquals(OptionalLong.of(0), recientes.contarDesde(BASE.plusSeconds(21)));
+		// Desde el segundo 1 harían falta logs que ya salieron del buffer
+		assertFalse(recientes.contarDesde(BASE.plusSeconds(1)).isPresent());
+	}
+
+	@Test
+	void sinHistoriaDescartadaCuentaTodo() {
+		LogsRecientesServiceImpl recientes = servicio(16, List.of());
+		recientes.logsRegistrados(logs(1, 5));
+
+		assertEquals(OptionalLong.of(5), recientes.contarDesde(BASE));
+	}
+
+	private static LogsRecientesServiceImpl servicio(int capacidad, List<LogAcceso> tabla) {
+		LogAccesoDao dao = mock(LogAccesoDao.class);
+		when(dao.paginaTodos(any(), any(), any())).thenReturn(tabla);
+
+		LogsRecientesServiceImpl servicio = new LogsRecientesServiceImpl();
+		ReflectionTestUtils.setField(servicio, "logAccesoDao", dao);
+		ReflectionTestUtils.setField(servicio, "capacidadConfigurada", capacidad);
+		servicio.inicializar();
+		return servicio;
+	}
+
+	private static List<LogAcceso> logs(long desde, long hasta) {
+		return LongStream.rangeClosed(desde, hasta).mapToObj(LogsRecientesServiceImplTest::log).toList();
+	}
+
+	private static LogAcceso log(long id) {
+		LogAcceso log = new LogAcceso();
+		log.setIdLog(id);
+		log.setFechaHora(BASE.plusSeconds(id));
+		log.setUserName("admin");
+		log.setAccion("LOGIN");
+		log.setResultado("EXITOSO");
+		return log;
+	}
+
+	private static List<Long> ids(List<LogAcceso> logs) {
+		return logs.stream().map(LogAcceso::getIdLog).toList();
+	}
+}
@@ -0,0 +1,159 @@
+package com.example.demo.models.servicioImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.models.dto.PrincipalSesion;
+import com.example.demo.models.entity.Rol;
+import com.example.demo.models.entity.Usuario;
+
+class TokensFirmadosServiceImplTest {
+
+	private static final String CLAVE = Base64.getEncoder()
+			.encodeToString("clave-de-pruebas-de-32-bytes-min".getBytes(StandardCharsets.UTF_8));
+
+	private TokensFirmadosServiceImpl servicio;
+
+	@BeforeEach
+	void crearServicio() {
+		servicio = nuevoServicio(CLAVE, 60);
+	}
+
+	@Test
+	void verificaElTokenQueEmite() {
+		String token = servicio.emitir(usuario(7L, "ana", "ADMIN"));
+
+		assertTrue(servicio.esTokenFirmado(token));
+		PrincipalSesion principal = servicio.verificar(token).orElseThrow();
+		assertEquals(Long.valueOf(7L), principal.getIdUsuario());
+		assertEquals("ana", principal.getUserName());
+		assertEquals("ADMIN", principal.getRol());
+		assertEquals("ACTIVO", principal.getEstado());
+		assertTrue(principal.esAdmin());
+	}
+
+	@Test
+	void rechazaLaCargaManipulada() {
+		String token = servicio.emitir(usuario(7L, "ana", "USUARIO"));
+		String[] partes = token.substring(3).split("\\.");
+		String carga = new String(Base64.getUrlDecoder().decode(partes[0]), StandardCharsets.UTF_8);
+		String cargaAdmin = carga.replace("|USUARIO|", "|ADMIN|");
+
+		String manipulado = "f1." + Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(cargaAdmin.getBytes(StandardCharsets.UTF_8)) + "." + partes[1];
+
+		assertFalse(servicio.verificar(manipulado).isPresent());
+	}
+
+	@Test
+	void rechazaLaFirmaManipuladaOMalFormada() {
+		String token = servicio.emitir(usuario(7L, "ana", "USUARIO"));
+		// El primer carácter de la firma (el último sólo aporta 4 bits y el resto se ignora al decodificar)
+		int inicioFirma = token.lastIndexOf('.') + 1;
+		char primero = token.charAt(inicioFirma);
+		String otraFirma = token.substring(0, inicioFirma) + (primero == 'A' ? 'B' : 'A') + token.substring(inicioFirma + 1);
+
+		assertFalse(servicio.verificar(otraFirma).isPresent());
+		assertFalse(servicio.verificar(token.substring(0, token.lastIndexOf('.'))).isPresent());
+		assertFalse(servicio.verificar(token + "%%").isPresent());
+		assertFalse(servicio.verificar("f1.").isPresent());
+		assertFalse(servicio.verificar("f1.@@@.@@@").isPresent());
+		assertFalse(servicio.verificar(null).isPresent());
+	}
+
+	@Test
+	void rechazaTokensDeOtraClave() {
+		String otraClave = Base64.getEncoder()
+				.encodeToString("otra-clave-distinta-de-32-bytes!".getBytes(StandardCharsets.UTF_8));
+		String token = nuevoServicio(otraClave, 60).emitir(usuario(7L, "ana", "ADMIN"));
+
+		assertFalse(servicio.verificar(token).isPresent());
+	}
+
+	@Test
+	void rechazaTokensCaducados() {
+		TokensFirmadosServiceImpl caducan = nuevoServicio(CLAVE, -1);
+		String token = caducan.emitir(usuario(7L, "ana", "ADMIN"));
+
+		assertFalse(caducan.verificar(token).isPresent());
+		// La misma clave con otra duración tampoco lo acepta: la caducidad va firmada en el token
+		assertFalse(servicio.verificar(token).isPresent());
+	}
+
+	@Test
+	void laRevocacionAnulaLosTokensAnterioresYNoLosEmitidosDespues() {
+		Usuario ana = usuario(7L, "ana", "ADMIN");
+		String anterior = servicio.emitir(ana);
+		String deOtroUsuario = servicio.emitir(usuario(8L, "luis", "USUARIO"));
+
+		servicio.revocar("ana");
+		// Normalmente en el mismo milisegundo que la revocación: debe seguir valiendo
+		String posterior = servicio.emitir(ana);
+
+		assertFalse(servicio.verificar(anterior).isPresent());
+		assertTrue(servicio.verificar(posterior).isPresent());
+		assertTrue(servicio.verificar(deOtroUsuario).isPresent());
+	}
+
+	@Test
+	void unaSegundaRevocacionAnulaElTokenEmitidoTrasLaPrimera() {
+		Usuario ana = usuario(7L, "ana", "ADMIN");
+		// Las tres llamadas suelen caer en el mismo milisegundo
+		servicio.revocar("ana");
+		String token = servicio.emitir(ana);
+		servicio.revocar("ana");
+
+		assertFalse(servicio.verificar(token).isPresent());
+		assertTrue(servicio.verificar(servicio.emitir(ana)).isPresent());
+	}
+
+	@Test
+	void admiteBarrasVerticalesEnElNombreDeUsuario() {
+		String token = servicio.emitir(usuario(9L, "ana|ADMIN|x", "USUARIO"));
+
+		PrincipalSesion principal = servicio.verificar(token).orElseThrow();
+		assertEquals("ana|ADMIN|x", principal.getUserName());
+		assertEquals("USUARIO", principal.getRol());
+		assertFalse(principal.esAdmin());
+	}
+
+	@Test
+	void admiteUsuarioSinRol() {
+		String token = servicio.emitir(usuario(9L, "sinrol", null));
+
+		PrincipalSesion principal = servicio.verificar(token).orElseThrow();
+		assertNull(principal.getRol());
+		assertFalse(principal.esAdmin());
+	}
+
+	private static TokensFirmadosServiceImpl nuevoServicio(String clave, long duracionMinutos) {
+		TokensFirmadosServiceImpl servicio = new TokensFirmadosServiceImpl();
+		ReflectionTestUtils.setField(servicio, "habilitado", true);
+		ReflectionTestUtils.setField(servicio, "claveBase64", clave);
+		ReflectionTestUtils.setField(servicio, "duracionMinutos", duracionMinutos);
+		servicio.inicializar();
+		return servicio;
+	}
+
+	private static Usuario usuario(Long id, String userName, String nombreRol) {
+		Usuario usuario = new Usuario();
+		usuario.setIdUsuario(id);
+		usuario.setUser_name(userName);
+		usuario.setEstado("ACTIVO");
+		if (nombreRol != null) {
+			Rol rol = new Rol();
+			rol.setNombre(nombreRol);
+			usuario.setRol(rol);
+		}
+		return usuario;
+	}
+}